@@ -4,13 +4,23 @@
 
 package org.cometbid.component;
 
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
 /**
+ * The component's beans come from its auto-configuration, so no package is scanned.
  *
  * @author samueladebowale
  */
+@SpringBootConfiguration(proxyBeanMethods = false)
+@EnableAutoConfiguration
 public class SpringWebclientComponent {
 
     public static void main(String[] args) {
-        System.out.println("Hello World!");
+        new SpringApplicationBuilder(SpringWebclientComponent.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
     }
 }
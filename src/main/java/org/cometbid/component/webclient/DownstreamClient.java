@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import org.cometbid.component.webclient.WebClientProperties.Downstream;
+import org.cometbid.component.webclient.bulkhead.BulkheadGroup;
+import org.cometbid.component.webclient.cache.ResponseCache;
+import org.cometbid.component.webclient.cookie.CookieJar;
+import org.cometbid.component.webclient.dns.CachingDnsResolver;
+import org.cometbid.component.webclient.fault.FaultInjector;
+import org.cometbid.component.webclient.leak.ConnectionLeakDetector;
+import org.cometbid.component.webclient.loadbalancer.LatencyAwareLoadBalancer;
+import org.cometbid.component.webclient.priority.PriorityLanes;
+import org.springframework.web.reactive.function.client.WebClient;
+import lombok.Builder;
+import lombok.Getter;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * The managed resources backing a single configured downstream.
+ *
+ * @author samueladebowale
+ */
+@Getter
+@Builder
+public class DownstreamClient {
+
+    private final String name;
+
+    private final Downstream downstream;
+
+    private final ConnectionProvider connectionProvider;
+
+    private final HttpClient httpClient;
+
+    private final WebClient webClient;
+
+    /**
+     * The downstream's own DNS resolver, {@code null} when the Reactor Netty default is used.
+     */
+    private final CachingDnsResolver dnsResolver;
+
+    /**
+     * Balancer over the downstream's endpoints, {@code null} when it has a single base URL.
+     */
+    private final LatencyAwareLoadBalancer loadBalancer;
+
+    /**
+     * Cookies set by the downstream, {@code null} unless the cookie jar is enabled.
+     */
+    private final CookieJar cookieJar;
+
+    /**
+     * The isolation group the downstream runs in, {@code null} when it shares the defaults.
+     */
+    private final BulkheadGroup bulkhead;
+
+    /**
+     * Fallback copies of GET responses, {@code null} unless the response cache is enabled.
+     */
+    private final ResponseCache responseCache;
+
+    /**
+     * Priority admission to the pool, {@code null} unless enabled.
+     */
+    private final PriorityLanes priorityLanes;
+
+    /**
+     * Runtime switch of the fault-injection filter, {@code null} unless it is installed.
+     */
+    private final FaultInjector faultInjector;
+
+    /**
+     * Lease tracking and pool diagnostics, {@code null} unless leak detection is enabled.
+     */
+    private final ConnectionLeakDetector leakDetector;
+}
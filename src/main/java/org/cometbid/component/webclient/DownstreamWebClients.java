@@ -0,0 +1,337 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.StringUtils;
+import org.cometbid.component.webclient.WebClientProperties.Downstream;
+import org.cometbid.component.webclient.accesslog.AccessLogExchangeFilter;
+import org.cometbid.component.webclient.accesslog.AccessLogWriter;
+import org.cometbid.component.webclient.auth.BearerTokenExchangeFilter;
+import org.cometbid.component.webclient.auth.ClientCredentialsTokenProvider;
+import org.cometbid.component.webclient.auth.ReactiveTokenProvider;
+import org.cometbid.component.webclient.bulkhead.BulkheadExchangeFilter;
+import org.cometbid.component.webclient.bulkhead.BulkheadGroup;
+import org.cometbid.component.webclient.cache.ResponseCache;
+import org.cometbid.component.webclient.cache.ResponseCacheExchangeFilter;
+import org.cometbid.component.webclient.codec.CodecNegotiationExchangeFilter;
+import org.cometbid.component.webclient.codec.WebClientCodecs;
+import org.cometbid.component.webclient.codec.WireFormat;
+import org.cometbid.component.webclient.cookie.CookieJar;
+import org.cometbid.component.webclient.cookie.CookieJarExchangeFilter;
+import org.cometbid.component.webclient.dns.CachingAddressResolverGroup;
+import org.cometbid.component.webclient.dns.CachingDnsResolver;
+import org.cometbid.component.webclient.fault.FaultInjectionExchangeFilter;
+import org.cometbid.component.webclient.fault.FaultInjector;
+import org.cometbid.component.webclient.idempotency.IdempotencyExchangeFilter;
+import org.cometbid.component.webclient.leak.ConnectionLeakDetector;
+import org.cometbid.component.webclient.leak.LeakDetectionExchangeFilter;
+import org.cometbid.component.webclient.loadbalancer.LatencyAwareLoadBalancer;
+import org.cometbid.component.webclient.loadbalancer.LoadBalancerExchangeFilter;
+import org.cometbid.component.webclient.priority.PriorityExchangeFilter;
+import org.cometbid.component.webclient.priority.PriorityLanes;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import io.netty.channel.ChannelOption;
+import lombok.extern.log4j.Log4j2;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Builds and owns one {@link WebClient} per configured downstream, each backed by its own
+ * connection pool, so that the pools can be warmed up and tuned independently.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class DownstreamWebClients implements DisposableBean {
+
+    private final WebClientProperties properties;
+
+    private final ObjectProvider<WebClient.Builder> webClientBuilder;
+
+    private final WebClientCodecs webClientCodecs;
+
+    private final Map<String, DownstreamClient> clients = new ConcurrentHashMap<>();
+
+    private final Map<String, ReactiveTokenProvider> tokenProviders = new ConcurrentHashMap<>();
+
+    private final Map<String, BulkheadGroup> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * Shared by all downstreams, created with the first client that logs, so its thread
+     * is only started once a client is.
+     */
+    private volatile AccessLogWriter accessLogWriter;
+
+    public DownstreamWebClients(WebClientProperties properties, ObjectProvider<WebClient.Builder> webClientBuilder,
+            WebClientCodecs webClientCodecs) {
+        this.properties = properties;
+        this.webClientBuilder = webClientBuilder;
+        this.webClientCodecs = webClientCodecs;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public Set<String> names() {
+        return properties.getDownstreams().keySet();
+    }
+
+    /**
+     *
+     * @param name
+     * @return
+     */
+    public WebClient webClient(String name) {
+        return client(name).getWebClient();
+    }
+
+    /**
+     *
+     * @param name
+     * @return
+     */
+    public DownstreamClient client(String name) {
+        return clients.computeIfAbsent(name, this::createClient);
+    }
+
+    /**
+     * The token provider of an OAuth2 registration, shared by every downstream that
+     * references it so that tokens are cached once per audience.
+     *
+     * @param registration
+     * @return
+     */
+    public ReactiveTokenProvider tokenProvider(String registration) {
+        return tokenProviders.computeIfAbsent(registration, this::createTokenProvider);
+    }
+
+    /**
+     *
+     * @param name
+     * @return
+     */
+    public BulkheadGroup bulkhead(String name) {
+        return bulkheads.computeIfAbsent(name, key -> {
+            WebClientProperties.Bulkhead bulkhead = properties.getBulkheads().get(key);
+            if (bulkhead == null) {
+                throw new IllegalArgumentException("No bulkhead configured with name '" + key + "'");
+            }
+            return new BulkheadGroup(key, bulkhead);
+        });
+    }
+
+    private ReactiveTokenProvider createTokenProvider(String registration) {
+        WebClientProperties.OAuth2Registration oauth2 = properties.getOauth2().get(registration);
+        if (oauth2 == null) {
+            throw new IllegalArgumentException("No OAuth2 registration configured with name '" + registration + "'");
+        }
+
+        WebClient tokenClient = webClientBuilder.getIfAvailable(WebClient::builder)
+                .codecs(webClientCodecs::configure)
+                .build();
+
+        return new ClientCredentialsTokenProvider(registration, oauth2, tokenClient);
+    }
+
+    private DownstreamClient createClient(String name) {
+        Downstream downstream = properties.getDownstreams().get(name);
+        if (downstream == null) {
+            throw new IllegalArgumentException("No downstream configured with name '" + name + "'");
+        }
+
+        ConnectionProvider.Builder poolBuilder = ConnectionProvider.builder("downstream-" + name)
+                .maxConnections(downstream.getMaxConnections())
+                .pendingAcquireTimeout(downstream.getPendingAcquireTimeout())
+                .maxIdleTime(downstream.getMaxIdleTime());
+        if (downstream.getPendingAcquireMaxCount() != null) {
+            poolBuilder.pendingAcquireMaxCount(downstream.getPendingAcquireMaxCount());
+        }
+
+        ConnectionLeakDetector leakDetector = null;
+        if (downstream.getLeakDetection().isEnabled()) {
+            ConnectionLeakDetector detector = new ConnectionLeakDetector(name, downstream.getLeakDetection());
+            poolBuilder.metrics(true, () -> detector);
+            leakDetector = detector;
+        }
+        ConnectionProvider connectionProvider = poolBuilder.build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) downstream.getConnectTimeout().toMillis());
+
+        BulkheadGroup bulkhead = null;
+        if (StringUtils.isNotBlank(downstream.getBulkhead())) {
+            bulkhead = bulkhead(downstream.getBulkhead());
+            httpClient = httpClient.runOn(bulkhead.getLoopResources());
+        }
+
+        CachingDnsResolver dnsResolver = null;
+        if (downstream.getDns().isEnabled()) {
+            dnsResolver = new CachingDnsResolver(name, downstream.getDns());
+            httpClient = httpClient.resolver(new CachingAddressResolverGroup(dnsResolver));
+        }
+
+        WebClient.Builder builder = webClientBuilder.getIfAvailable(WebClient::builder)
+                .baseUrl(StringUtils.defaultIfBlank(downstream.getBaseUrl(),
+                        downstream.getEndpoints().isEmpty() ? null : downstream.getEndpoints().get(0)))
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> webClientCodecs.configure(configurer, downstream.getCodec()));
+
+        if (leakDetector != null) {
+            builder.filter(new LeakDetectionExchangeFilter(leakDetector));
+        }
+
+        if (properties.getAccessLog().isEnabled()) {
+            builder.filter(new AccessLogExchangeFilter(name, properties.getAccessLog(), accessLogWriter()));
+        }
+
+        ResponseCache responseCache = null;
+        if (downstream.getCache().isEnabled()) {
+            responseCache = new ResponseCache(name, downstream.getCache());
+            builder.filter(new ResponseCacheExchangeFilter(responseCache, downstream.getCache(),
+                    exchangeStrategies(downstream)));
+        }
+
+        if (bulkhead != null) {
+            builder.filter(new BulkheadExchangeFilter(bulkhead));
+        }
+
+        PriorityLanes priorityLanes = null;
+        if (downstream.getPriority().isEnabled()) {
+            priorityLanes = new PriorityLanes(name, downstream.getPriority(), downstream.getMaxConnections());
+            builder.filter(new PriorityExchangeFilter(priorityLanes));
+        }
+
+        if (downstream.getCodec() != WireFormat.JSON) {
+            builder.filter(new CodecNegotiationExchangeFilter(name, downstream.getCodec()));
+        }
+
+        if (downstream.getIdempotency().isEnabled()) {
+            builder.filter(new IdempotencyExchangeFilter(name, downstream.getIdempotency()));
+        }
+
+        CookieJar cookieJar = null;
+        if (downstream.getCookies().isEnabled()) {
+            cookieJar = new CookieJar(downstream.getCookies().getMaxPerDomain());
+            builder.filter(new CookieJarExchangeFilter(cookieJar));
+        }
+
+        if (StringUtils.isNotBlank(downstream.getAuth().getRegistration())) {
+            builder.filter(new BearerTokenExchangeFilter(tokenProvider(downstream.getAuth().getRegistration()),
+                    downstream.getAuth().getAudience()));
+        }
+
+        FaultInjector faultInjector = null;
+        if (downstream.getFaults().isEnabled()) {
+            faultInjector = new FaultInjector(name, downstream.getFaults());
+            builder.filter(new FaultInjectionExchangeFilter(faultInjector, exchangeStrategies(downstream)));
+        }
+
+        LatencyAwareLoadBalancer loadBalancer = null;
+        if (!downstream.getEndpoints().isEmpty()) {
+            loadBalancer = new LatencyAwareLoadBalancer(name, downstream.getEndpoints(), downstream.getLoadBalancer(),
+                    httpClient);
+            builder.filter(new LoadBalancerExchangeFilter(loadBalancer));
+        }
+
+        WebClient webClient = builder.build();
+
+        log.debug("Created WebClient for downstream '{}' ({})", name, downstream.getBaseUrl());
+
+        return DownstreamClient.builder()
+                .name(name)
+                .downstream(downstream)
+                .connectionProvider(connectionProvider)
+                .httpClient(httpClient)
+                .webClient(webClient)
+                .dnsResolver(dnsResolver)
+                .loadBalancer(loadBalancer)
+                .cookieJar(cookieJar)
+                .bulkhead(bulkhead)
+                .responseCache(responseCache)
+                .priorityLanes(priorityLanes)
+                .faultInjector(faultInjector)
+                .leakDetector(leakDetector)
+                .build();
+    }
+
+    /**
+     * The codecs the downstream's {@link WebClient} decodes with, for responses that are
+     * synthesized rather than read off the wire.
+     */
+    private ExchangeStrategies exchangeStrategies(Downstream downstream) {
+        return ExchangeStrategies.builder()
+                .codecs(configurer -> webClientCodecs.configure(configurer, downstream.getCodec()))
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        clients.values().forEach(client -> {
+            client.getConnectionProvider().dispose();
+            if (client.getDnsResolver() != null) {
+                client.getDnsResolver().close();
+            }
+            if (client.getLoadBalancer() != null) {
+                client.getLoadBalancer().close();
+            }
+            if (client.getResponseCache() != null) {
+                client.getResponseCache().close();
+            }
+            if (client.getLeakDetector() != null) {
+                client.getLeakDetector().close();
+            }
+        });
+        clients.clear();
+
+        bulkheads.values().forEach(BulkheadGroup::close);
+        bulkheads.clear();
+
+        AccessLogWriter writer = accessLogWriter;
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private AccessLogWriter accessLogWriter() {
+        AccessLogWriter writer = accessLogWriter;
+        if (writer == null) {
+            synchronized (this) {
+                writer = accessLogWriter;
+                if (writer == null) {
+                    writer = new AccessLogWriter(properties.getAccessLog().getQueueCapacity());
+                    accessLogWriter = writer;
+                }
+            }
+        }
+        return writer;
+    }
+}
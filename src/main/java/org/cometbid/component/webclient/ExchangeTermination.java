@@ -0,0 +1,65 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import java.util.function.Consumer;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import reactor.netty.Connection;
+
+/**
+ * Observes the end of the HTTP exchange behind a {@code ClientResponse}, for filters that
+ * hold something, a permit or a log entry, until the response is done with.
+ * <p>
+ * A filter normally lets go when the response body terminates, but a body that is never
+ * subscribed never terminates. The exchange on the connection still ends once the
+ * downstream has sent the whole response, or when the connection is closed or released,
+ * for instance by the leak detector. A body too large to be buffered keeps its connection
+ * busy until it is read or released, and the exchange ends only then.
+ * <p>
+ * Only Reactor Netty connections report the end of an exchange; with other connectors the
+ * callback is never run.
+ *
+ * @author samueladebowale
+ */
+public final class ExchangeTermination {
+
+    private ExchangeTermination() {
+    }
+
+    /**
+     * For {@code ClientRequest.Builder#httpRequest}. The callback may run more than once,
+     * as a request is written again when Reactor Netty retries it on a new connection, and
+     * must be idempotent.
+     *
+     * @param callback
+     * @return
+     */
+    public static Consumer<ClientHttpRequest> onTerminate(Runnable callback) {
+        return httpRequest -> {
+            if (httpRequest.getNativeRequest() instanceof Connection connection) {
+                connection.onTerminate().subscribe(null, ex -> callback.run(), callback);
+            }
+        };
+    }
+}
@@ -26,8 +26,10 @@ package org.cometbid.component.webclient;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import org.cometbid.component.webclient.codec.JsonProjection;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
@@ -56,6 +58,22 @@ public interface ReactiveClientInterface {
     <T> Mono<T> performGetToMono(WebClient webClient, URI uri, Class<? extends T> clazzResponse,
             @NonNull Map<String, List<String>> headerFields, MultiValueMap<String, String> params);
 
+    /**
+     * Decodes only the parts of the response selected by {@code projection}.
+     *
+     * @param <T>
+     * @param webClient
+     * @param uri
+     * @param clazzResponse
+     * @param projection
+     * @param headerFields
+     * @param params
+     * @return
+     */
+    <T> Mono<T> performGetToMono(WebClient webClient, URI uri, Class<? extends T> clazzResponse,
+            @NonNull JsonProjection projection, @NonNull Map<String, List<String>> headerFields,
+            MultiValueMap<String, String> params);
+
     /**
      *
      * @param <T>
@@ -215,6 +233,48 @@ public interface ReactiveClientInterface {
             Class<? extends T> clazzRequest, Class<? extends R> clazzResponse,
             @NonNull Map<String, List<String>> headerFields, MultiValueMap<String, String> params);
 
+    /**
+     * Streams {@code requestBody} to the downstream with chunked transfer encoding, one
+     * element at a time, as {@code application/x-ndjson} or as a JSON array when
+     * {@code streamType} is {@code application/json}.
+     *
+     * @param <T>
+     * @param <R>
+     * @param webClient
+     * @param uri
+     * @param requestBody
+     * @param clazzRequest
+     * @param clazzResponse
+     * @param streamType
+     * @param headerFields
+     * @param params
+     * @return
+     */
+    <T, R> Mono<StreamingUploadResult<R>> performPublisherPost(WebClient webClient, URI uri, Flux<T> requestBody,
+            Class<? extends T> clazzRequest, Class<? extends R> clazzResponse, @NonNull MediaType streamType,
+            @NonNull Map<String, List<String>> headerFields, MultiValueMap<String, String> params);
+
+    /**
+     * Streaming counterpart of
+     * {@link #performPublisherPut(WebClient, URI, Mono, Class, Class, Map, MultiValueMap)}, see
+     * {@link #performPublisherPost(WebClient, URI, Flux, Class, Class, MediaType, Map, MultiValueMap)}.
+     *
+     * @param <T>
+     * @param <R>
+     * @param webClient
+     * @param uri
+     * @param requestBody
+     * @param clazzRequest
+     * @param clazzResponse
+     * @param streamType
+     * @param headerFields
+     * @param params
+     * @return
+     */
+    <T, R> Mono<StreamingUploadResult<R>> performPublisherPut(WebClient webClient, URI uri, Flux<T> requestBody,
+            Class<? extends T> clazzRequest, Class<? extends R> clazzResponse, @NonNull MediaType streamType,
+            @NonNull Map<String, List<String>> headerFields, MultiValueMap<String, String> params);
+
     /**
      *
      * @param webClient
@@ -250,6 +310,29 @@ public interface ReactiveClientInterface {
             @NonNull MultiValueMap<String, String> params, @NonNull Map<String, List<String>> headerFields,
             List<Cookie> listOfCookies, @NonNull HttpMethod methodType);
 
+    /**
+     * Streams {@code fluxData} element by element as {@code streamType}, either
+     * {@code application/x-ndjson} or {@code application/json} for a JSON array.
+     *
+     * @param <T>
+     * @param webClient
+     * @param templateVar
+     * @param fluxData
+     * @param clazzRequest
+     * @param streamType
+     * @param path
+     * @param params
+     * @param headerFields
+     * @param listOfCookies
+     * @param methodType
+     * @return
+     */
+    <T> ResponseSpec doPublisherPostOrPutOrPatch(WebClient webClient, @NonNull Map<String, Object> templateVar,
+            @NonNull Flux<T> fluxData, Class<? extends T> clazzRequest, @NonNull MediaType streamType,
+            @NonNull String path, @NonNull MultiValueMap<String, String> params,
+            @NonNull Map<String, List<String>> headerFields, List<Cookie> listOfCookies,
+            @NonNull HttpMethod methodType);
+
     /**
      *
      * @param <T>
@@ -33,20 +33,17 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
-import org.springframework.stereotype.Component;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClient.ResponseSpec;
 import io.netty.handler.codec.http.cookie.Cookie;
-import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
  *
  * @author samueladebowale
  */
-@Log4j2
-@Component
 class ReactiveWebClient {
 
     private final ReactiveClientInterface clientInterface;
@@ -94,6 +91,28 @@ class ReactiveWebClient {
                 params, prepareHeaders(token), cookieList, HttpMethod.PUT);
     }
 
+    /**
+     *
+     * @param <T>
+     * @param webClient
+     * @param payload
+     * @param clazzRequest
+     * @param streamType
+     * @param pathTemplate
+     * @param templateVar
+     * @param params
+     * @param token
+     * @param cookieList
+     * @return
+     */
+    <T> ResponseSpec doPut(WebClient webClient, Flux<T> payload, Class<? extends T> clazzRequest, MediaType streamType,
+            String pathTemplate, Map<String, Object> templateVar, MultiValueMap<String, String> params, String token,
+            List<Cookie> cookieList) {
+
+        return clientInterface.doPublisherPostOrPutOrPatch(webClient, templateVar, payload, clazzRequest, streamType,
+                pathTemplate, params, prepareHeaders(token), cookieList, HttpMethod.PUT);
+    }
+
     /**
      *
      * @param webClient
@@ -133,6 +152,28 @@ class ReactiveWebClient {
                 params, prepareHeaders(token), cookieList, HttpMethod.POST);
     }
 
+    /**
+     *
+     * @param <T>
+     * @param webClient
+     * @param payload
+     * @param clazzRequest
+     * @param streamType
+     * @param pathTemplate
+     * @param templateVar
+     * @param params
+     * @param token
+     * @param cookieList
+     * @return
+     */
+    <T> ResponseSpec doPost(WebClient webClient, Flux<T> payload, Class<? extends T> clazzRequest, MediaType streamType,
+            String pathTemplate, Map<String, Object> templateVar, MultiValueMap<String, String> params, String token,
+            List<Cookie> cookieList) {
+
+        return clientInterface.doPublisherPostOrPutOrPatch(webClient, templateVar, payload, clazzRequest, streamType,
+                pathTemplate, params, prepareHeaders(token), cookieList, HttpMethod.POST);
+    }
+
     /**
      *
      * @param webClient
@@ -185,8 +226,6 @@ class ReactiveWebClient {
     ResponseSpec doGetMethod(WebClient webClient, String pathTemplate, Map<String, Object> templateVar,
             MultiValueMap<String, String> params, String token, List<Cookie> cookieList) {
 
-        log.info("Beginning GET REST Service call...");
-
         return clientInterface.doGet(webClient, templateVar, params, pathTemplate,
                 prepareHeaders(token), cookieList);
     }
@@ -205,8 +244,6 @@ class ReactiveWebClient {
     ResponseSpec doFormDataPost(WebClient webClient, MultiValueMap<String, String> formData, String path, String uri,
             Map<String, Object> templateVar, String token, List<Cookie> cookieList) {
 
-        log.info("Beginning Form Post REST Service call...");
-
         Map<String, List<String>> headerMap = prepareHeaders(token);
         headerMap.put(HttpHeaders.CONTENT_TYPE, Arrays.asList(MediaType.APPLICATION_FORM_URLENCODED_VALUE));
 
@@ -229,8 +266,6 @@ class ReactiveWebClient {
     ResponseSpec doMultipartDataPost(WebClient webClient, MultiValueMap<String, HttpEntity<?>> multiParts, String path,
             Map<String, Object> templateVar, String token, List<Cookie> cookieList) {
 
-        log.info("Beginning Multipart REST Service call...");
-
         Map<String, List<String>> headerMap = prepareHeaders(token);
         headerMap.put(HttpHeaders.CONTENT_TYPE, Arrays.asList(MediaType.MULTIPART_FORM_DATA_VALUE));
 
@@ -251,13 +286,11 @@ class ReactiveWebClient {
     ResponseSpec doDelete(WebClient webClient, String path, Map<String, Object> templateVar, String token,
             MultiValueMap<String, String> params, List<Cookie> cookieList) {
 
-        log.info("Beginning Delete REST Service call...");
-
         return clientInterface.doDelete(webClient, templateVar, path, params,
                 prepareHeaders(token), cookieList);
     }
 
-    private Map<String, List<String>> prepareHeaders(String authHeader) {
+    Map<String, List<String>> prepareHeaders(String authHeader) {
 
         Map<String, List<String>> myHeaders = new HashMap<>();
         if (StringUtils.isNotBlank(authHeader)) {
@@ -27,14 +27,16 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.MapUtils;
+import org.cometbid.component.webclient.codec.CodecNegotiationExchangeFilter;
+import org.cometbid.component.webclient.codec.JsonProjection;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ClientHttpRequest;
-import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.BodyInserter;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -47,6 +49,7 @@ import reactor.core.publisher.Mono;
 import io.netty.handler.codec.http.cookie.Cookie;
 import lombok.extern.log4j.Log4j2;
 import org.cometbid.component.api.exceptions.handler.ErrorPublisher;
+import org.cometbid.component.api.generic.exceptions.BadRequestException;
 import static org.cometbid.component.webclient.WebClientExceptionHandler.processResponse;
 
 /**
@@ -54,9 +57,13 @@ import static org.cometbid.component.webclient.WebClientExceptionHandler.process
  * @author samueladebowale
  */
 @Log4j2
-@Component
 public class ReactiveWebClientImpl implements ReactiveClientInterface {
 
+    /**
+     * Elements requested ahead from a streamed request body.
+     */
+    private static final int STREAM_PREFETCH = 64;
+
     /**
      *
      * @param <T>
@@ -79,6 +86,7 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
                         attr.putAll(params);
                     }
                 })
+                .attribute(CodecNegotiationExchangeFilter.STREAMED_RESPONSE, true)
                 //
                 .headers(headers -> {
                     if (MapUtils.isNotEmpty(headerFields)) {
@@ -146,6 +154,47 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
                 }).exchangeToMono(clientResponse -> processResponse(clientResponse, clazzResponse));
     }
 
+    /**
+     *
+     * @param <T>
+     * @param webClient
+     * @param uri
+     * @param clazzResponse
+     * @param projection
+     * @param headerFields
+     * @param params
+     * @return
+     */
+    @Override
+    public <T> Mono<T> performGetToMono(WebClient webClient, URI uri, Class<? extends T> clazzResponse,
+            @NonNull JsonProjection projection, @NonNull Map<String, List<String>> headerFields,
+            MultiValueMap<String, String> params) {
+
+        return webClient.get().uri(uriBuilder -> {
+            uriBuilder.scheme(uri.getScheme())
+                    //
+                    .host(uri.getHost())
+                    //
+                    .port(uri.getPort())
+                    //
+                    .path(uri.getPath())
+                    //
+                    .queryParams(params);
+            if (projection.getFieldsParam() != null) {
+                uriBuilder.queryParam(projection.getFieldsParam(), projection.getFieldsValue());
+            }
+            return uriBuilder.build();
+        })
+                //
+                .headers(headers -> {
+                    if (MapUtils.isNotEmpty(headerFields)) {
+                        headers.putAll(headerFields);
+                    }
+                }).exchangeToMono(clientResponse -> clientResponse.statusCode().is2xxSuccessful()
+                ? clientResponse.body(projection.<T>toMono(clazzResponse))
+                : processResponse(clientResponse, clazzResponse));
+    }
+
     /**
      *
      * @param <T>
@@ -163,7 +212,8 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
             if (MapUtils.isNotEmpty(headerFields)) {
                 headers.putAll(headerFields);
             }
-        }).exchangeToFlux(clientResponse -> clientResponse.bodyToFlux(clazzResponse));
+        }).attribute(CodecNegotiationExchangeFilter.STREAMED_RESPONSE, true)
+                .exchangeToFlux(clientResponse -> clientResponse.bodyToFlux(clazzResponse));
     }
 
     /**
@@ -185,6 +235,7 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
                 headers.putAll(headerFields);
             }
         }).body(BodyInserters.fromValue(requestBody))
+                .attribute(ReplayableBodies.REPLAYABLE_BODY, true)
                 .exchangeToMono(clientResponse -> processResponse(clientResponse, clazzResponse));
     }
 
@@ -204,7 +255,9 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
         return webClient.put()
                 .uri(uriBuilder -> uriBuilder.scheme(uri.getScheme()).host(uri.getHost()).port(uri.getPort())
                 .path(uri.getPath()).queryParams(params).build())
-                .body(BodyInserters.fromValue(requestBody)).headers(headers -> {
+                .body(BodyInserters.fromValue(requestBody))
+                .attribute(ReplayableBodies.REPLAYABLE_BODY, true)
+                .headers(headers -> {
             if (MapUtils.isNotEmpty(headerFields)) {
                 headers.putAll(headerFields);
             }
@@ -231,7 +284,10 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
             if (MapUtils.isNotEmpty(headerFields)) {
                 headers.putAll(headerFields);
             }
-        }).accept(MediaType.APPLICATION_JSON).acceptCharset(StandardCharsets.UTF_8)
+            if (headers.getAccept().isEmpty()) {
+                headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+            }
+        }).acceptCharset(StandardCharsets.UTF_8)
                 .exchangeToMono(clientResponse -> processResponse(clientResponse, clazzResponse));
     }
 
@@ -281,6 +337,82 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
         }).exchangeToMono(clientResponse -> processResponse(clientResponse, clazzResponse));
     }
 
+    /**
+     *
+     * @param <T>
+     * @param <R>
+     * @param uri
+     * @param requestBody
+     * @param clazzRequest
+     * @param clazzResponse
+     * @param streamType
+     * @return
+     */
+    @Override
+    public <T, R> Mono<StreamingUploadResult<R>> performPublisherPost(WebClient webClient, URI uri,
+            Flux<T> requestBody, Class<? extends T> clazzRequest, Class<? extends R> clazzResponse,
+            @NonNull MediaType streamType, Map<String, List<String>> headerFields,
+            MultiValueMap<String, String> params) {
+
+        return performStreamingUpload(webClient, HttpMethod.POST, uri, requestBody, clazzRequest, clazzResponse,
+                streamType, headerFields, params);
+    }
+
+    /**
+     *
+     * @param <T>
+     * @param <R>
+     * @param uri
+     * @param requestBody
+     * @param clazzRequest
+     * @param clazzResponse
+     * @param streamType
+     * @return
+     */
+    @Override
+    public <T, R> Mono<StreamingUploadResult<R>> performPublisherPut(WebClient webClient, URI uri,
+            Flux<T> requestBody, Class<? extends T> clazzRequest, Class<? extends R> clazzResponse,
+            @NonNull MediaType streamType, Map<String, List<String>> headerFields,
+            MultiValueMap<String, String> params) {
+
+        return performStreamingUpload(webClient, HttpMethod.PUT, uri, requestBody, clazzRequest, clazzResponse,
+                streamType, headerFields, params);
+    }
+
+    /**
+     * The shared codecs encode each element into its own buffer as it is requested, and
+     * Reactor Netty only requests more while the channel is writable, so the encoded bytes
+     * waiting for the socket stay under the channel's write buffer high water mark. Ahead
+     * of the encoder at most {@link #STREAM_PREFETCH} elements are held, however long the
+     * stream is.
+     */
+    private <T, R> Mono<StreamingUploadResult<R>> performStreamingUpload(WebClient webClient, HttpMethod method,
+            URI uri, Flux<T> requestBody, Class<? extends T> clazzRequest, Class<? extends R> clazzResponse,
+            MediaType streamType, Map<String, List<String>> headerFields, MultiValueMap<String, String> params) {
+
+        if (!isStreamType(streamType)) {
+            return ErrorPublisher.raiseBadRequestException("invalid.streamType", new Object[]{streamType});
+        }
+
+        return Mono.defer(() -> {
+            LongAdder written = new LongAdder();
+
+            return webClient.method(method)
+                    .uri(uriBuilder -> uriBuilder.scheme(uri.getScheme()).host(uri.getHost()).port(uri.getPort())
+                    .path(uri.getPath()).queryParams(params).build())
+                    .headers(headers -> {
+                        if (MapUtils.isNotEmpty(headerFields)) {
+                            headers.putAll(headerFields);
+                        }
+                    })
+                    .contentType(streamType)
+                    .body(requestBody.limitRate(STREAM_PREFETCH).doOnNext(element -> written.increment()), clazzRequest)
+                    .exchangeToMono(clientResponse -> processResponse(clientResponse, clazzResponse)
+                    .map(response -> new StreamingUploadResult<R>(response, written.sum()))
+                    .switchIfEmpty(Mono.fromSupplier(() -> new StreamingUploadResult<>(null, written.sum()))));
+        });
+    }
+
     /**
      *
      * @param <T>
@@ -316,7 +448,7 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
             List<Cookie> listOfCookies) {
 
         return webClient.get()
-                .uri(uriBuilder -> uriBuilder.path(path).queryParams(params).build(templateVar))
+                .uri(path, uriBuilder -> uriBuilder.queryParams(params).build(templateVar))
                 // .header("X-B3-TRACEID", ThreadContext.get("X-B3-TRACEID"))
                 .headers(headers -> {
                     if (MapUtils.isNotEmpty(headerFields)) {
@@ -348,8 +480,10 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
         validateMethodType(methodType);
 
         return webClient.method(methodType)
-                .uri(uriBuilder -> uriBuilder.path(path).queryParams(params).build(templateVar))
-                .body(BodyInserters.fromValue(requestBody)).headers(headers -> {
+                .uri(path, uriBuilder -> uriBuilder.queryParams(params).build(templateVar))
+                .body(BodyInserters.fromValue(requestBody))
+                .attribute(ReplayableBodies.REPLAYABLE_BODY, true)
+                .headers(headers -> {
             if (MapUtils.isNotEmpty(headerFields)) {
                 headers.putAll(headerFields);
             }
@@ -379,7 +513,7 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
         validateMethodType(methodType);
 
         return webClient.method(methodType)
-                .uri(uriBuilder -> uriBuilder.path(path).queryParams(params).build(templateVar))
+                .uri(path, uriBuilder -> uriBuilder.queryParams(params).build(templateVar))
                 .body(monoData, clazzRequest).headers(headers -> {
             if (MapUtils.isNotEmpty(headerFields)) {
                 headers.putAll(headerFields);
@@ -392,6 +526,42 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
 
     }
 
+    /**
+     *
+     * @param templateVar
+     * @param fluxData
+     * @param streamType
+     * @param path
+     * @param headerFields
+     * @param listOfCookies
+     * @param methodType
+     * @return
+     */
+    @Override
+    public <T> ResponseSpec doPublisherPostOrPutOrPatch(WebClient webClient, @NonNull Map<String, Object> templateVar,
+            @NonNull Flux<T> fluxData, Class<? extends T> clazzRequest, @NonNull MediaType streamType,
+            @NonNull String path, @NonNull MultiValueMap<String, String> params,
+            Map<String, List<String>> headerFields, List<Cookie> listOfCookies, @NonNull HttpMethod methodType) {
+
+        validateMethodType(methodType);
+        validateStreamType(streamType);
+
+        return webClient.method(methodType)
+                .uri(path, uriBuilder -> uriBuilder.queryParams(params).build(templateVar))
+                .headers(headers -> {
+                    if (MapUtils.isNotEmpty(headerFields)) {
+                        headers.putAll(headerFields);
+                    }
+                })
+                .contentType(streamType)
+                .body(fluxData.limitRate(STREAM_PREFETCH), clazzRequest)
+                .cookies(cookie -> {
+                    if (CollectionUtils.isNotEmpty(listOfCookies)) {
+                        listOfCookies.forEach(p -> cookie.add(p.name(), p.value()));
+                    }
+                }).retrieve();
+    }
+
     /**
      *
      * @param templateVar
@@ -410,7 +580,7 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
         validateMethodType(methodType);
 
         return webClient.method(methodType)
-                .uri(uriBuilder -> uriBuilder.path(path).build(templateVar)).body(BodyInserters.fromFormData(formData))
+                .uri(path, uriBuilder -> uriBuilder.build(templateVar)).body(BodyInserters.fromFormData(formData))
                 .headers(headers -> {
                     if (MapUtils.isNotEmpty(headerFields)) {
                         headers.putAll(headerFields);
@@ -443,7 +613,7 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
         BodyInserter<?, ? super ClientHttpRequest> multipartData = BodyInserters.fromMultipartData(multipart);
 
         return webClient.method(methodType)
-                .uri(uriBuilder -> uriBuilder.path(path).build(templateVar)).body(multipartData).headers(headers -> {
+                .uri(path, uriBuilder -> uriBuilder.build(templateVar)).body(multipartData).headers(headers -> {
             if (MapUtils.isNotEmpty(headerFields)) {
                 headers.putAll(headerFields);
             }
@@ -467,7 +637,7 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
             MultiValueMap<String, String> params, Map<String, List<String>> headerFields, List<Cookie> listOfCookies) {
 
         return webClient.delete()
-                .uri(uriBuilder -> uriBuilder.path(path).queryParams(params).build(templateVar)).headers(headers -> {
+                .uri(path, uriBuilder -> uriBuilder.queryParams(params).build(templateVar)).headers(headers -> {
             if (MapUtils.isNotEmpty(headerFields)) {
                 headers.putAll(headerFields);
             }
@@ -479,11 +649,27 @@ public class ReactiveWebClientImpl implements ReactiveClientInterface {
 
     }
 
+    /**
+     * Throws rather than publishes the error: callers return a {@code ResponseSpec}, built
+     * before anything is subscribed.
+     */
     private void validateMethodType(HttpMethod methodType) {
 
         if (!(methodType.matches("POST") || methodType.matches("PUT") || methodType.matches("PATCH"))) {
-            ErrorPublisher.raiseBadRequestException("invalid.methodType", new Object[]{methodType});
+            throw new BadRequestException(new Object[]{methodType});
         }
     }
 
+    private void validateStreamType(MediaType streamType) {
+
+        if (!isStreamType(streamType)) {
+            throw new BadRequestException(new Object[]{streamType});
+        }
+    }
+
+    private static boolean isStreamType(MediaType streamType) {
+        return MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(streamType)
+                || MediaType.APPLICATION_JSON.equalsTypeAndSubtype(streamType);
+    }
+
 }
@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientRequest;
+
+/**
+ * Tells filters whether a request can be sent again, for those that retry or replay it.
+ * <p>
+ * Sending a request again writes its body again. A request without a body can always be
+ * sent again, and so can one whose body is a value, which its builder marks with
+ * {@link #REPLAYABLE_BODY}. A body built from a publisher may be one-shot and is not
+ * marked.
+ *
+ * @author samueladebowale
+ */
+public final class ReplayableBodies {
+
+    /**
+     * Request attribute marking a body that can be written more than once.
+     */
+    public static final String REPLAYABLE_BODY = ReplayableBodies.class.getName() + ".replayableBody";
+
+    private ReplayableBodies() {
+    }
+
+    /**
+     *
+     * @param request
+     * @return
+     */
+    public static boolean isReplayable(ClientRequest request) {
+        return request.body() == BodyInserters.empty()
+                || Boolean.TRUE.equals(request.attribute(REPLAYABLE_BODY).orElse(Boolean.FALSE));
+    }
+}
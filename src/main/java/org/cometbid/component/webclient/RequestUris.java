@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * Builds request URIs from {@link URI}s that are already encoded, such as next-page links
+ * or resume locations, without encoding them a second time.
+ * <p>
+ * A {@code WebClient} only applies its base URL to URIs built through its
+ * {@link UriBuilder}, which encodes whatever path and query it is given. Relative URIs are
+ * therefore appended to the built base URL with their raw, encoded components instead.
+ *
+ * @author samueladebowale
+ */
+public final class RequestUris {
+
+    private RequestUris() {
+    }
+
+    /**
+     *
+     * @param baseUriBuilder the client's builder, holding its base URL
+     * @param uri an encoded URI, absolute or relative to the base URL
+     * @return
+     */
+    public static URI resolve(UriBuilder baseUriBuilder, URI uri) {
+        return resolve(baseUriBuilder, uri, new LinkedMultiValueMap<>());
+    }
+
+    /**
+     *
+     * @param baseUriBuilder the client's builder, holding its base URL
+     * @param uri an encoded URI, absolute or relative to the base URL
+     * @param params query parameters to add, not yet encoded
+     * @return
+     */
+    public static URI resolve(UriBuilder baseUriBuilder, URI uri, MultiValueMap<String, String> params) {
+        UriComponentsBuilder builder = uri.isAbsolute() ? UriComponentsBuilder.fromUri(uri)
+                : UriComponentsBuilder.fromUri(baseUriBuilder.build())
+                        .path(uri.getRawPath())
+                        .query(uri.getRawQuery());
+        return builder.queryParams(encode(params)).build(true).toUri();
+    }
+
+    /**
+     * Encodes every character outside the unreserved set, including the {@code +} and
+     * {@code &} that a template encoding would leave as they are.
+     *
+     * @param value
+     * @return
+     */
+    public static String encode(String value) {
+        return UriUtils.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     *
+     * @param params
+     * @return
+     */
+    public static MultiValueMap<String, String> encode(MultiValueMap<String, String> params) {
+        MultiValueMap<String, String> encoded = new LinkedMultiValueMap<>(params.size());
+        params.forEach((name, values) -> values
+                .forEach(value -> encoded.add(encode(name), value == null ? null : encode(value))));
+        return encoded;
+    }
+}
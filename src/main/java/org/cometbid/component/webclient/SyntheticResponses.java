@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import java.net.URI;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Flux;
+
+/**
+ * Builds responses that filters answer with instead of the downstream, tied to the
+ * original request so that {@code createException()} and the exception handlers describe
+ * them like real ones.
+ *
+ * @author samueladebowale
+ */
+public final class SyntheticResponses {
+
+    private SyntheticResponses() {
+    }
+
+    /**
+     *
+     * @param request
+     * @param status
+     * @param strategies the codecs the response is decoded with
+     * @return
+     */
+    public static ClientResponse.Builder builder(ClientRequest request, HttpStatusCode status,
+            ExchangeStrategies strategies) {
+        return ClientResponse.create(status, strategies).request(asHttpRequest(request));
+    }
+
+    /**
+     * A body that can be subscribed to any number of times.
+     *
+     * @param bytes
+     * @return
+     */
+    public static Flux<DataBuffer> body(byte[] bytes) {
+        return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes)));
+    }
+
+    private static HttpRequest asHttpRequest(ClientRequest request) {
+        return new HttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return request.method();
+            }
+
+            @Override
+            public URI getURI() {
+                return request.url();
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return request.headers();
+            }
+        };
+    }
+}
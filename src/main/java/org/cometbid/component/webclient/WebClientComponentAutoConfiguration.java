@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import org.cometbid.component.webclient.codec.WebClientCodecs;
+import org.cometbid.component.webclient.download.RangeDownloader;
+import org.cometbid.component.webclient.pagination.ReactivePaginator;
+import org.cometbid.component.webclient.proxy.ReactiveClientProxyFactory;
+import org.cometbid.component.webclient.scatter.ScatterGather;
+import org.cometbid.component.webclient.sse.ReactiveSseClient;
+import org.cometbid.component.webclient.warmup.WebClientWarmup;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Registers the component's beans without component scanning, so that applications only
+ * need the jar on their classpath and Spring AOT sees every bean up front.
+ * <p>
+ * Each bean backs off when the application defines its own. The classes carry no
+ * stereotype annotations, so scanning the component's package adds nothing. Connection
+ * pools and the Jackson setup are only created when a client first needs them.
+ *
+ * @author samueladebowale
+ */
+@AutoConfiguration(after = WebClientAutoConfiguration.class)
+@ConditionalOnClass(WebClient.class)
+@EnableConfigurationProperties(WebClientProperties.class)
+@ImportRuntimeHints(WebClientRuntimeHints.class)
+public class WebClientComponentAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public WebClientCodecs webClientCodecs(WebClientProperties properties) {
+        return new WebClientCodecs(properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DownstreamWebClients downstreamWebClients(WebClientProperties properties,
+            ObjectProvider<WebClient.Builder> webClientBuilder, WebClientCodecs webClientCodecs) {
+        return new DownstreamWebClients(properties, webClientBuilder, webClientCodecs);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(ReactiveClientInterface.class)
+    public ReactiveWebClientImpl reactiveWebClientImpl() {
+        return new ReactiveWebClientImpl();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactiveWebClient reactiveWebClient(ReactiveClientInterface clientInterface) {
+        return new ReactiveWebClient(clientInterface);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactivePaginator reactivePaginator(WebClientCodecs webClientCodecs) {
+        return new ReactivePaginator(webClientCodecs);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactiveClientProxyFactory reactiveClientProxyFactory(DownstreamWebClients downstreamWebClients) {
+        return new ReactiveClientProxyFactory(downstreamWebClients);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ScatterGather scatterGather(DownstreamWebClients downstreamWebClients) {
+        return new ScatterGather(downstreamWebClients);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RangeDownloader rangeDownloader() {
+        return new RangeDownloader();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReactiveSseClient reactiveSseClient() {
+        return new ReactiveSseClient();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public WebClientWarmup webClientWarmup(WebClientProperties properties,
+            DownstreamWebClients downstreamWebClients) {
+        return new WebClientWarmup(properties, downstreamWebClients);
+    }
+}
@@ -28,8 +28,8 @@ import java.util.function.Function;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import static org.springframework.http.HttpStatus.*;
 import lombok.extern.log4j.Log4j2;
@@ -121,6 +121,21 @@ public class WebClientExceptionHandler {
         return respObj;
     }
 
+    /**
+     * Maps an error response to the same exceptions {@link #processResponse} raises, for use
+     * as a {@code WebClient.Builder#defaultStatusHandler} so that {@code retrieve()} based
+     * callers get them too.
+     *
+     * @param clientResponse
+     * @return
+     */
+    public static Mono<? extends Throwable> mapErrorResponse(ClientResponse clientResponse) {
+        boolean clientError = clientResponse.statusCode().is4xxClientError();
+
+        return clientResponse.createException()
+                .map(ex -> clientError ? handle4xxException(ex) : handle5xxException(ex));
+    }
+
     public static Throwable handle5xxException(Throwable ex) {
 
         if (!(ex instanceof WebClientResponseException)) {
@@ -155,6 +170,31 @@ public class WebClientExceptionHandler {
         }
     }
 
+    /**
+     * Whether a response status means the endpoint itself is unhealthy, i.e. one that
+     * {@link #handle5xxException(Throwable)} maps to {@link ServiceUnavailableException} or
+     * {@link ServerTimeoutRequestException}.
+     *
+     * @param status
+     * @return
+     */
+    public static boolean isEndpointFailure(HttpStatusCode status) {
+        int value = status.value();
+
+        return value == INTERNAL_SERVER_ERROR.value() || value == SERVICE_UNAVAILABLE.value()
+                || value == GATEWAY_TIMEOUT.value();
+    }
+
+    /**
+     *
+     * @param ex
+     * @return
+     */
+    public static boolean isEndpointFailure(Throwable ex) {
+        return ex instanceof WebClientRequestException || ex instanceof ServiceUnavailableException
+                || ex instanceof ServerTimeoutRequestException;
+    }
+
     public static Throwable handle4xxException(Throwable ex) {
 
         if (!(ex instanceof WebClientResponseException)) {
@@ -187,7 +227,6 @@ public class WebClientExceptionHandler {
     }
 
     static String getErrorMessage(WebClientResponseException ex) {
-        ObjectMapper mapper = new ObjectMapper();
         // try {
         //AppResponse appResponse = mapper.readValue(ex.getResponseBodyAsString(), AppResponse.class);
 
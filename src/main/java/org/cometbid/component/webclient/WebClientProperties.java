@@ -0,0 +1,569 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.cometbid.component.webclient.codec.WireFormat;
+import lombok.Data;
+
+/**
+ * Downstream definitions shared by the component, bound from
+ * {@code cometbid.webclient.*}.
+ *
+ * @author samueladebowale
+ */
+@Data
+@ConfigurationProperties(prefix = "cometbid.webclient")
+public class WebClientProperties {
+
+    /**
+     * Downstreams keyed by logical name.
+     */
+    private Map<String, Downstream> downstreams = new LinkedHashMap<>();
+
+    private Warmup warmup = new Warmup();
+
+    private Codecs codecs = new Codecs();
+
+    /**
+     * OAuth2 client registrations keyed by name, referenced from a downstream's
+     * {@code auth.registration}.
+     */
+    private Map<String, OAuth2Registration> oauth2 = new LinkedHashMap<>();
+
+    private AccessLog accessLog = new AccessLog();
+
+    /**
+     * Isolation groups keyed by name, referenced from a downstream's {@code bulkhead}.
+     */
+    private Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Downstream {
+
+        private String baseUrl;
+
+        /**
+         * Base URLs of the replicas behind this downstream; when set, requests are spread
+         * across them by the latency-aware load balancer instead of going to {@code baseUrl}.
+         */
+        private List<String> endpoints = new ArrayList<>();
+
+        private LoadBalancer loadBalancer = new LoadBalancer();
+
+        private int maxConnections = 500;
+
+        /**
+         * Pending acquisition limit, the Reactor Netty default applies when unset.
+         */
+        private Integer pendingAcquireMaxCount;
+
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(45);
+
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Connections opened per downstream before the application reports ready.
+         */
+        private int warmupConnections = 0;
+
+        /**
+         * Optional path requested once during warm-up so that the response codecs are
+         * loaded and compiled before real traffic arrives.
+         */
+        private String warmupPath;
+
+        private Dns dns = new Dns();
+
+        /**
+         * Preferred wire format, negotiated per request with a fallback to JSON.
+         */
+        private WireFormat codec = WireFormat.JSON;
+
+        private Cookies cookies = new Cookies();
+
+        private Auth auth = new Auth();
+
+        /**
+         * Name of the bulkhead this downstream is isolated in; it shares the Reactor Netty
+         * defaults when blank.
+         */
+        private String bulkhead;
+
+        private Cache cache = new Cache();
+
+        private Idempotency idempotency = new Idempotency();
+
+        private Priority priority = new Priority();
+
+        private Faults faults = new Faults();
+
+        private LeakDetection leakDetection = new LeakDetection();
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class LoadBalancer {
+
+        /**
+         * Time constant of the latency moving average.
+         */
+        private Duration decay = Duration.ofSeconds(10);
+
+        private int ejectAfterConsecutiveErrors = 5;
+
+        /**
+         * Minimum time an ejected endpoint stays out before it is probed.
+         */
+        private Duration ejectionTime = Duration.ofSeconds(30);
+
+        private Duration probeInterval = Duration.ofSeconds(5);
+
+        private String probePath = "/";
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Auth {
+
+        /**
+         * Name of the OAuth2 registration whose tokens are attached as bearer tokens, none
+         * when blank.
+         */
+        private String registration;
+
+        /**
+         * Audience the tokens are requested for; tokens are cached per audience.
+         */
+        private String audience;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class OAuth2Registration {
+
+        private String tokenUri;
+
+        private String clientId;
+
+        private String clientSecret;
+
+        private String scope;
+
+        /**
+         * How long before expiry a token is refreshed, capped at half its lifetime.
+         */
+        private Duration refreshBefore = Duration.ofSeconds(60);
+
+        /**
+         * Use the refresh token the server returned, when there is one, instead of
+         * repeating the client-credentials grant.
+         */
+        private boolean refreshTokens = false;
+
+        private Duration timeout = Duration.ofSeconds(10);
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Cookies {
+
+        /**
+         * Keep the cookies set by the downstream and send them back on later requests.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Oldest cookies are evicted once a domain holds more than this.
+         */
+        private int maxPerDomain = 50;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Dns {
+
+        /**
+         * Use the caching asynchronous resolver instead of the Reactor Netty default.
+         */
+        private boolean enabled = false;
+
+        private Duration minTtl = Duration.ofSeconds(5);
+
+        private Duration maxTtl = Duration.ofMinutes(5);
+
+        private Duration negativeTtl = Duration.ofSeconds(10);
+
+        /**
+         * How long before expiry an entry is refreshed in the background.
+         */
+        private Duration refreshBeforeExpiry = Duration.ofSeconds(2);
+
+        /**
+         * How long past expiry an entry may still be served when the resolver fails.
+         */
+        private Duration maxStale = Duration.ofMinutes(5);
+
+        private Duration queryTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Name servers as {@code host:port}, the platform defaults apply when empty.
+         */
+        private List<String> nameServers = new ArrayList<>();
+
+        /**
+         * Domains appended to names with fewer than {@code ndots} dots, e.g.
+         * {@code svc.cluster.local}; the {@code search} line of {@code /etc/resolv.conf}
+         * when unset.
+         */
+        private List<String> searchDomains;
+
+        /**
+         * Dots a name needs to be tried as it is before the search domains; the
+         * {@code ndots} option of {@code /etc/resolv.conf}, or 1, when unset.
+         */
+        private Integer ndots;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * Serve GET responses of the configured routes from a two-tier cache.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Directory of the on-disk tier, one subdirectory per downstream; defaults to
+         * {@code webclient-cache} under {@code java.io.tmpdir}.
+         */
+        private String directory;
+
+        /**
+         * Entries kept on the heap; the disk tier holds every entry.
+         */
+        private int hotEntries = 10_000;
+
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Larger responses are passed through without being cached.
+         */
+        private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+        /**
+         * Entries older than this are never served and are dropped by compaction.
+         */
+        private Duration maxAge = Duration.ofDays(1);
+
+        private Duration compactionInterval = Duration.ofMinutes(5);
+
+        /**
+         * Sealed segments whose live data falls below this fraction are compacted.
+         */
+        private double compactionThreshold = 0.5;
+
+        private List<CacheRoute> routes = new ArrayList<>();
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class CacheRoute {
+
+        /**
+         * Path pattern, e.g. {@code /countries/**}.
+         */
+        private String path;
+
+        /**
+         * How long a response is served without contacting the downstream.
+         */
+        private Duration ttl = Duration.ofMinutes(1);
+
+        /**
+         * How long past {@code ttl} a response is still served while it is refreshed in the
+         * background.
+         */
+        private Duration staleWhileRevalidate = Duration.ZERO;
+
+        /**
+         * How long past {@code ttl} a response is served when the downstream fails.
+         */
+        private Duration staleIfError = Duration.ZERO;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Idempotency {
+
+        private boolean enabled = false;
+
+        private String headerName = "Idempotency-Key";
+
+        /**
+         * Path patterns whose POST, PUT, PATCH and DELETE requests get a generated key when
+         * the caller did not supply one.
+         */
+        private List<String> routes = new ArrayList<>();
+
+        /**
+         * Retries of a keyed request after a connection failure or a 500, 503 or 504.
+         */
+        private int maxRetries = 2;
+
+        private Duration retryBackoff = Duration.ofMillis(100);
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Priority {
+
+        private boolean enabled = false;
+
+        /**
+         * Calls admitted to the pool at once; defaults to {@code maxConnections}, so that
+         * waiting happens in the priority lanes rather than in the pool's FIFO queue.
+         */
+        private Integer maxInFlight;
+
+        /**
+         * Waiting time after which a call is served ahead of higher lanes, so that bulk
+         * work is delayed but never starved.
+         */
+        private Duration agingThreshold = Duration.ofMillis(500);
+
+        /**
+         * Calls waiting per lane beyond which new ones are rejected.
+         */
+        private int maxQueuedPerLane = 1_000;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Faults {
+
+        /**
+         * Installs the fault-injection filter; when false the downstream's client does not
+         * contain it at all.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Whether the rules apply from startup, they can be switched at runtime either way.
+         */
+        private boolean active = false;
+
+        private List<FaultRule> rules = new ArrayList<>();
+    }
+
+    /**
+     * A fault and the calls it applies to; every criterion left unset matches all calls.
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class FaultRule {
+
+        /**
+         * Path pattern, e.g. {@code /orders/**}.
+         */
+        private String path;
+
+        private List<String> methods = new ArrayList<>();
+
+        private String headerName;
+
+        /**
+         * Required value of {@code headerName}; any value matches when blank.
+         */
+        private String headerValue;
+
+        private Duration delay = Duration.ZERO;
+
+        private double delayProbability = 0d;
+
+        /**
+         * Status answered instead of calling the downstream.
+         */
+        private Integer status;
+
+        private double statusProbability = 0d;
+
+        /**
+         * Probability of failing the call as if the connection had been reset.
+         */
+        private double abortProbability = 0d;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class LeakDetection {
+
+        private boolean enabled = false;
+
+        /**
+         * How long a response body may stay unconsumed before its connection is reported as
+         * leaked. Subscribed event streams are exempt, their SSE idle timeout applies.
+         */
+        private Duration leakTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Releases the connection of a leaked response, so the pool recovers on its own.
+         */
+        private boolean forceRelease = true;
+
+        /**
+         * Fraction of calls whose call site is captured, stack traces being expensive.
+         */
+        private double callSiteSampleRate = 0.01;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Bulkhead {
+
+        /**
+         * Event loop threads dedicated to the group's downstreams.
+         */
+        private int eventLoopThreads = 2;
+
+        /**
+         * Calls in flight across the group beyond which new calls are rejected.
+         */
+        private int maxInFlight = 256;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class AccessLog {
+
+        private boolean enabled = false;
+
+        /**
+         * Fraction of successful, fast calls that are logged; errors and slow calls are
+         * always logged.
+         */
+        private double sampleRate = 0.01;
+
+        private Duration slowThreshold = Duration.ofSeconds(1);
+
+        /**
+         * Capture the start of request and response bodies into logged entries.
+         */
+        private boolean captureBodies = false;
+
+        private DataSize maxBodySize = DataSize.ofKilobytes(2);
+
+        /**
+         * Entries waiting to be written; further entries are dropped while it is full.
+         */
+        private int queueCapacity = 10_000;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Codecs {
+
+        /**
+         * Largest body the codecs buffer when decoding to a single object.
+         */
+        private DataSize maxInMemorySize = DataSize.ofKilobytes(256);
+
+        /**
+         * Register the Blackbird module, which replaces reflective property access with
+         * generated lambdas; needs {@code jackson-module-blackbird} on the classpath.
+         */
+        private boolean blackbird = false;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Data
+    public static class Warmup {
+
+        private boolean enabled = true;
+
+        /**
+         * Upper bound on the whole warm-up phase, readiness is reported once it elapses.
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+    }
+}
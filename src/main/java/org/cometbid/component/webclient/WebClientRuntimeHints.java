@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import org.cometbid.component.api.auth.exceptions.AuthenticationError;
+import org.cometbid.component.api.auth.exceptions.TooManyRequestException;
+import org.cometbid.component.api.generic.exceptions.ApiResponseException;
+import org.cometbid.component.api.generic.exceptions.BadRequestException;
+import org.cometbid.component.api.generic.exceptions.ResourceNotFoundException;
+import org.cometbid.component.api.generic.exceptions.ServerTimeoutRequestException;
+import org.cometbid.component.api.generic.exceptions.ServiceUnavailableException;
+import org.cometbid.component.api.response.model.AppResponse;
+import org.cometbid.component.webclient.accesslog.AccessLogEntry;
+import org.cometbid.component.webclient.bulkhead.BulkheadMetrics;
+import org.cometbid.component.webclient.codec.WireFormat;
+import org.cometbid.component.webclient.dns.DnsCacheMetrics;
+import org.cometbid.component.webclient.download.DownloadResult;
+import org.cometbid.component.webclient.leak.PoolDiagnostics;
+import org.cometbid.component.webclient.priority.LaneMetrics;
+import org.cometbid.component.webclient.scatter.CallOutcome;
+import org.cometbid.component.webclient.scatter.ScatterResult;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection the component needs at runtime that Spring AOT cannot infer, for native
+ * images and AOT-processed applications.
+ * <p>
+ * The results and diagnostics it hands out are registered for Jackson binding, as
+ * applications commonly render them as JSON, together with the error body of
+ * downstreams. The exceptions {@link WebClientExceptionHandler} raises keep their
+ * constructors and accessors for the error handlers that render them. The optional codec
+ * classes are registered so that their presence checks still see them in a native image.
+ * <p>
+ * Interfaces given to {@code ReactiveClientProxyFactory} are the application's own: it has
+ * to register them as JDK proxy hints.
+ *
+ * @author samueladebowale
+ */
+public class WebClientRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] BINDING_TYPES = {
+        AppResponse.class,
+        StreamingUploadResult.class,
+        DownloadResult.class,
+        ScatterResult.class,
+        CallOutcome.class,
+        PoolDiagnostics.class,
+        LaneMetrics.class,
+        BulkheadMetrics.class,
+        DnsCacheMetrics.class,
+        AccessLogEntry.class
+    };
+
+    private static final Class<?>[] EXCEPTION_TYPES = {
+        ApiResponseException.class,
+        BadRequestException.class,
+        ResourceNotFoundException.class,
+        ServerTimeoutRequestException.class,
+        ServiceUnavailableException.class,
+        TooManyRequestException.class,
+        AuthenticationError.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), BINDING_TYPES);
+
+        for (Class<?> type : EXCEPTION_TYPES) {
+            hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        for (WireFormat format : WireFormat.values()) {
+            if (format.getRequiredClass() != null) {
+                hints.reflection().registerType(TypeReference.of(format.getRequiredClass()));
+            }
+        }
+    }
+}
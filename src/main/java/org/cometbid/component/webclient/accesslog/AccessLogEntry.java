@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.accesslog;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * One completed downstream call.
+ *
+ * @author samueladebowale
+ */
+@Value
+@Builder
+public class AccessLogEntry {
+
+    String downstream;
+
+    String method;
+
+    /**
+     * The URI template the call was made with, or its path when no template was used.
+     */
+    String uri;
+
+    /**
+     * The response status, {@code 0} when no response was received.
+     */
+    int status;
+
+    long durationMillis;
+
+    long bytesIn;
+
+    long bytesOut;
+
+    String error;
+
+    /**
+     * The captured start of the request body, {@code null} unless body capture is enabled.
+     */
+    String requestBody;
+
+    String responseBody;
+}
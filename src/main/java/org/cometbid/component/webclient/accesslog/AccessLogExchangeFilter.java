@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.accesslog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.cometbid.component.webclient.ExchangeTermination;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records method, URI template, status, duration and bytes exchanged for every call to a
+ * downstream and hands the calls chosen for logging to the {@link AccessLogWriter}.
+ * <p>
+ * A call is complete when its response body has been consumed, when the exchange fails or
+ * is cancelled, or, for a body nobody subscribed to, when the exchange on the connection
+ * ends. Errors, {@code 4xx}/{@code 5xx} responses and calls slower than
+ * {@code slowThreshold} are always logged, the rest at {@code sampleRate}. Whether a call
+ * is sampled is decided before it is sent: body capture copies at most
+ * {@code maxBodySize} bytes of each body, only for sampled calls and for error responses,
+ * and every other call allocates nothing beyond its byte counters.
+ *
+ * @author samueladebowale
+ */
+public class AccessLogExchangeFilter implements ExchangeFilterFunction {
+
+    private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+
+    private final String downstream;
+
+    private final WebClientProperties.AccessLog properties;
+
+    private final AccessLogWriter writer;
+
+    private final long slowThresholdNanos;
+
+    private final int maxBodySize;
+
+    public AccessLogExchangeFilter(String downstream, WebClientProperties.AccessLog properties,
+            AccessLogWriter writer) {
+        this.downstream = downstream;
+        this.properties = properties;
+        this.writer = writer;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.maxBodySize = properties.isCaptureBodies() ? (int) properties.getMaxBodySize().toBytes() : 0;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Exchange exchange = new Exchange(request,
+                    ThreadLocalRandom.current().nextDouble() < properties.getSampleRate());
+
+            ClientRequest counted = ClientRequest.from(request)
+                    .body((outputMessage, context) -> request.body().insert(exchange.decorate(outputMessage), context))
+                    .httpRequest(ExchangeTermination.onTerminate(exchange::ended))
+                    .build();
+
+            return next.exchange(counted)
+                    .map(exchange::responded)
+                    .doOnError(exchange::complete)
+                    .doOnCancel(exchange::cancelled);
+        });
+    }
+
+    /**
+     * Counts, and optionally captures, the bytes flowing one way through an exchange.
+     */
+    private final class Body {
+
+        private long bytes;
+
+        private byte[] captured;
+
+        private int capturedLength;
+
+        private boolean capturing;
+
+        void add(DataBuffer buffer) {
+            int readable = buffer.readableByteCount();
+            bytes += readable;
+
+            if (capturing && capturedLength < maxBodySize) {
+                if (captured == null) {
+                    captured = new byte[maxBodySize];
+                }
+                int length = Math.min(readable, maxBodySize - capturedLength);
+                int position = buffer.readPosition();
+                for (int i = 0; i < length; i++) {
+                    captured[capturedLength++] = buffer.getByte(position + i);
+                }
+            }
+        }
+
+        String captured() {
+            return captured == null ? null : new String(captured, 0, capturedLength, StandardCharsets.UTF_8);
+        }
+    }
+
+    private final class Exchange {
+
+        private final ClientRequest request;
+
+        private final boolean sampled;
+
+        private final long start = System.nanoTime();
+
+        private final Body in = new Body();
+
+        private final Body out = new Body();
+
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private volatile int status;
+
+        private volatile boolean bodySubscribed;
+
+        Exchange(ClientRequest request, boolean sampled) {
+            this.request = request;
+            this.sampled = sampled;
+            this.out.capturing = sampled && maxBodySize > 0;
+        }
+
+        ClientHttpRequest decorate(ClientHttpRequest outputMessage) {
+            return new ClientHttpRequestDecorator(outputMessage) {
+                @Override
+                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                    return super.writeWith(Flux.from(body).doOnNext(out::add));
+                }
+
+                @Override
+                public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                    return super.writeAndFlushWith(Flux.from(body).map(inner -> Flux.from(inner).doOnNext(out::add)));
+                }
+            };
+        }
+
+        ClientResponse responded(ClientResponse response) {
+            status = response.statusCode().value();
+            in.capturing = maxBodySize > 0 && (sampled || status >= 400);
+
+            return response.mutate()
+                    .body(body -> body.doOnSubscribe(subscription -> bodySubscribed = true)
+                            .doOnNext(in::add)
+                            .doFinally(signal -> complete(null)))
+                    .build();
+        }
+
+        /**
+         * The exchange on the connection ended; a body that is being read completes the
+         * call itself, with all of its bytes counted.
+         */
+        void ended() {
+            if (status != 0 && !bodySubscribed) {
+                complete(null);
+            }
+        }
+
+        void cancelled() {
+            if (status == 0) {
+                write(null, "cancelled");
+            }
+        }
+
+        void complete(Throwable error) {
+            write(error, error == null ? null : error.toString());
+        }
+
+        private void write(Throwable error, String errorDescription) {
+            if (!completed.compareAndSet(false, true)) {
+                return;
+            }
+
+            long duration = System.nanoTime() - start;
+            if (!sampled && error == null && status < 400 && duration < slowThresholdNanos) {
+                return;
+            }
+
+            writer.offer(AccessLogEntry.builder()
+                    .downstream(downstream)
+                    .method(request.method().name())
+                    .uri(request.attribute(URI_TEMPLATE_ATTRIBUTE).map(Object::toString)
+                            .orElseGet(() -> request.url().getRawPath()))
+                    .status(status)
+                    .durationMillis(duration / 1_000_000)
+                    .bytesIn(in.bytes)
+                    .bytesOut(out.bytes)
+                    .error(errorDescription)
+                    .requestBody(out.captured())
+                    .responseBody(in.captured())
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.accesslog;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.StringMapMessage;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Writes access log entries from a single background thread, so the event loops only pay
+ * for a non-blocking queue offer.
+ * <p>
+ * Entries are logged as structured {@link StringMapMessage}s to the
+ * {@code org.cometbid.component.webclient.accesslog} logger. When the queue is full new
+ * entries are dropped and counted rather than slowing down the calls being logged.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class AccessLogWriter implements AutoCloseable {
+
+    private static final Logger ACCESS_LOG = LogManager.getLogger("org.cometbid.component.webclient.accesslog");
+
+    private final BlockingQueue<AccessLogEntry> queue;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final Thread writer;
+
+    public AccessLogWriter(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = Thread.ofPlatform()
+                .name("webclient-access-log")
+                .daemon(true)
+                .start(this::drain);
+    }
+
+    /**
+     *
+     * @param entry
+     */
+    public void offer(AccessLogEntry entry) {
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     *
+     * @return the number of entries dropped because the queue was full
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                write(queue.take());
+            }
+        } catch (InterruptedException ex) {
+            AccessLogEntry entry;
+            while ((entry = queue.poll()) != null) {
+                write(entry);
+            }
+        }
+    }
+
+    private static void write(AccessLogEntry entry) {
+        try {
+            StringMapMessage message = new StringMapMessage()
+                    .with("downstream", entry.getDownstream())
+                    .with("method", entry.getMethod())
+                    .with("uri", entry.getUri())
+                    .with("status", entry.getStatus())
+                    .with("durationMs", entry.getDurationMillis())
+                    .with("bytesIn", entry.getBytesIn())
+                    .with("bytesOut", entry.getBytesOut());
+            if (entry.getError() != null) {
+                message.with("error", entry.getError());
+            }
+            if (entry.getRequestBody() != null) {
+                message.with("requestBody", entry.getRequestBody());
+            }
+            if (entry.getResponseBody() != null) {
+                message.with("responseBody", entry.getResponseBody());
+            }
+
+            ACCESS_LOG.info(message);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to write access log entry: {}", ex.toString());
+        }
+    }
+
+    @Override
+    public void close() {
+        writer.interrupt();
+    }
+}
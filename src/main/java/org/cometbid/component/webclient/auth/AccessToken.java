@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.auth;
+
+import java.time.Instant;
+import lombok.Value;
+
+/**
+ * An access token as issued by the authorization server.
+ *
+ * @author samueladebowale
+ */
+@Value
+public class AccessToken {
+
+    String value;
+
+    /**
+     * The refresh token issued alongside, {@code null} when there was none.
+     */
+    String refreshToken;
+
+    Instant expiresAt;
+
+    /**
+     * When a proactive refresh should start, ahead of {@link #getExpiresAt()}.
+     */
+    Instant refreshAt;
+
+    /**
+     *
+     * @param now
+     * @return
+     */
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(expiresAt);
+    }
+
+    /**
+     *
+     * @param now
+     * @return
+     */
+    public boolean isDueForRefresh(Instant now) {
+        return !now.isBefore(refreshAt);
+    }
+}
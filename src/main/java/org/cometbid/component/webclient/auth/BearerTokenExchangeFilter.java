@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.auth;
+
+import org.cometbid.component.webclient.ReplayableBodies;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Mono;
+
+/**
+ * Attaches a bearer token from a {@link ReactiveTokenProvider} to requests that carry no
+ * {@code Authorization} header of their own.
+ * <p>
+ * A {@code 401}, which {@code processResponse} would otherwise surface as an
+ * {@code AuthenticationError}, invalidates the token and the request is sent once more with
+ * a fresh one; only a second rejection reaches the caller. The retry writes the body again,
+ * so only {@link ReplayableBodies#isReplayable(ClientRequest) replayable} requests are
+ * retried; for others the {@code 401} reaches the caller and the next request gets the
+ * fresh token.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class BearerTokenExchangeFilter implements ExchangeFilterFunction {
+
+    private final ReactiveTokenProvider tokenProvider;
+
+    private final String audience;
+
+    public BearerTokenExchangeFilter(ReactiveTokenProvider tokenProvider, String audience) {
+        this.tokenProvider = tokenProvider;
+        this.audience = audience;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (request.headers().containsKey(HttpHeaders.AUTHORIZATION)) {
+            return next.exchange(request);
+        }
+
+        return tokenProvider.getToken(audience)
+                .flatMap(token -> next.exchange(withToken(request, token))
+                .flatMap(response -> {
+                    if (response.statusCode().value() != HttpStatus.UNAUTHORIZED.value()) {
+                        return Mono.just(response);
+                    }
+
+                    log.debug("Token rejected by {}, refreshing it", request.url().getHost());
+                    tokenProvider.invalidate(audience, token);
+                    if (!ReplayableBodies.isReplayable(request)) {
+                        return Mono.just(response);
+                    }
+
+                    return response.releaseBody()
+                            .then(tokenProvider.getToken(audience))
+                            .flatMap(fresh -> next.exchange(withToken(request, fresh)));
+                }));
+    }
+
+    private static ClientRequest withToken(ClientRequest request, String token) {
+        return ClientRequest.from(request)
+                .headers(headers -> headers.setBearerAuth(token))
+                .build();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.auth;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.lang3.StringUtils;
+import org.cometbid.component.webclient.WebClientProperties.OAuth2Registration;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Mono;
+import static org.cometbid.component.webclient.WebClientExceptionHandler.processResponse;
+
+/**
+ * {@link ReactiveTokenProvider} for the OAuth2 client-credentials grant, optionally
+ * renewing through the refresh-token grant.
+ * <p>
+ * Tokens are cached per audience. Once a token enters its refresh window the request that
+ * notices it starts a background refresh and is still served the current token; only when
+ * no valid token is left do callers wait. Either way at most one token request per audience
+ * is in flight, and every concurrent caller shares its result.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class ClientCredentialsTokenProvider implements ReactiveTokenProvider {
+
+    /**
+     * Lifetime assumed when the server does not return {@code expires_in}.
+     */
+    private static final Duration DEFAULT_LIFETIME = Duration.ofMinutes(5);
+
+    private final String registration;
+
+    private final OAuth2Registration properties;
+
+    private final WebClient webClient;
+
+    private final Map<String, CachedToken> tokens = new ConcurrentHashMap<>();
+
+    public ClientCredentialsTokenProvider(String registration, OAuth2Registration properties, WebClient webClient) {
+        if (StringUtils.isBlank(properties.getTokenUri())) {
+            throw new IllegalArgumentException("No token-uri configured for OAuth2 registration '"
+                    + registration + "'");
+        }
+        this.registration = registration;
+        this.properties = properties;
+        this.webClient = webClient;
+    }
+
+    @Override
+    public Mono<String> getToken(String audience) {
+        return tokens.computeIfAbsent(StringUtils.defaultString(audience), CachedToken::new).get();
+    }
+
+    @Override
+    public void invalidate(String audience, String token) {
+        CachedToken cached = tokens.get(StringUtils.defaultString(audience));
+        if (cached != null) {
+            cached.invalidate(token);
+        }
+    }
+
+    private Mono<AccessToken> requestToken(String audience, String refreshToken) {
+        boolean refresh = properties.isRefreshTokens() && refreshToken != null;
+
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        if (refresh) {
+            form.add("grant_type", "refresh_token");
+            form.add("refresh_token", refreshToken);
+        } else {
+            form.add("grant_type", "client_credentials");
+        }
+        if (StringUtils.isNotBlank(properties.getScope())) {
+            form.add("scope", properties.getScope());
+        }
+        if (StringUtils.isNotBlank(audience)) {
+            form.add("audience", audience);
+        }
+
+        Mono<AccessToken> request = webClient.post()
+                .uri(properties.getTokenUri())
+                .headers(headers -> {
+                    if (StringUtils.isNotBlank(properties.getClientId())) {
+                        headers.setBasicAuth(properties.getClientId(),
+                                StringUtils.defaultString(properties.getClientSecret()));
+                    }
+                })
+                .accept(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromFormData(form))
+                .exchangeToMono(clientResponse -> processResponse(clientResponse, JsonNode.class))
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Empty token response")))
+                .map(json -> toAccessToken(json, refreshToken))
+                .timeout(properties.getTimeout())
+                .doOnNext(token -> log.debug("Obtained token for registration '{}', audience '{}', expiring at {}",
+                registration, audience, token.getExpiresAt()));
+
+        if (refresh) {
+            return request.onErrorResume(ex -> {
+                log.debug("Refresh grant for registration '{}' failed, falling back to client credentials: {}",
+                        registration, ex.toString());
+
+                return requestToken(audience, null);
+            });
+        }
+        return request;
+    }
+
+    private AccessToken toAccessToken(JsonNode json, String previousRefreshToken) {
+        String value = json.path("access_token").asText(null);
+        if (StringUtils.isBlank(value)) {
+            throw new IllegalStateException("Token response for registration '" + registration
+                    + "' has no access_token");
+        }
+
+        Duration lifetime = json.hasNonNull("expires_in")
+                ? Duration.ofSeconds(json.get("expires_in").asLong()) : DEFAULT_LIFETIME;
+        Duration refreshBefore = properties.getRefreshBefore().compareTo(lifetime.dividedBy(2)) < 0
+                ? properties.getRefreshBefore() : lifetime.dividedBy(2);
+
+        Instant expiresAt = Instant.now().plus(lifetime);
+
+        return new AccessToken(value, json.path("refresh_token").asText(previousRefreshToken), expiresAt,
+                expiresAt.minus(refreshBefore));
+    }
+
+    private final class CachedToken {
+
+        private final String audience;
+
+        private final AtomicReference<AccessToken> token = new AtomicReference<>();
+
+        private final AtomicReference<Mono<AccessToken>> inFlight = new AtomicReference<>();
+
+        /**
+         * Kept apart from {@link #token} so that it survives an invalidation.
+         */
+        private volatile String refreshToken;
+
+        CachedToken(String audience) {
+            this.audience = audience;
+        }
+
+        Mono<String> get() {
+            AccessToken current = token.get();
+            Instant now = Instant.now();
+
+            if (current != null && !current.isExpired(now)) {
+                if (current.isDueForRefresh(now) && inFlight.get() == null) {
+                    refresh().subscribe(null, ex -> log.warn("Proactive token refresh for registration '{}' failed: {}",
+                            registration, ex.toString()));
+                }
+                return Mono.just(current.getValue());
+            }
+            return refresh().map(AccessToken::getValue);
+        }
+
+        void invalidate(String value) {
+            AccessToken current = token.get();
+            if (current != null && current.getValue().equals(value)) {
+                token.compareAndSet(current, null);
+            }
+        }
+
+        private Mono<AccessToken> refresh() {
+            while (true) {
+                Mono<AccessToken> existing = inFlight.get();
+                if (existing != null) {
+                    return existing;
+                }
+
+                // cleared before the result is signalled, so that a caller reacting to it,
+                // such as a 401 retry, starts a new request rather than joining this one
+                Mono<AccessToken> request = requestToken(audience, refreshToken)
+                        .doOnNext(fresh -> {
+                            refreshToken = fresh.getRefreshToken();
+                            token.set(fresh);
+                        })
+                        .doOnSuccess(fresh -> inFlight.set(null))
+                        .doOnError(ex -> inFlight.set(null))
+                        .cache();
+
+                if (inFlight.compareAndSet(null, request)) {
+                    return request;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.auth;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Source of bearer tokens for outgoing requests.
+ * <p>
+ * Implementations are expected to cache tokens and to refresh them without stampeding the
+ * authorization server; {@link BearerTokenExchangeFilter} calls {@link #getToken(String)}
+ * on every request.
+ *
+ * @author samueladebowale
+ */
+public interface ReactiveTokenProvider {
+
+    /**
+     *
+     * @param audience the audience the token is for, {@code null} for the provider default
+     * @return
+     */
+    Mono<String> getToken(String audience);
+
+    /**
+     * Drops {@code token} after the downstream rejected it, so that the next
+     * {@link #getToken(String)} fetches a fresh one. A no-op when the cached token has
+     * already been replaced.
+     *
+     * @param audience
+     * @param token
+     */
+    void invalidate(String audience, String token);
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.bulkhead;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.cometbid.component.api.generic.exceptions.ServiceUnavailableException;
+import org.cometbid.component.webclient.ExchangeTermination;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Mono;
+
+/**
+ * Admits a call only while its {@link BulkheadGroup} is below the in-flight limit, and
+ * fails it fast with a {@link ServiceUnavailableException} otherwise.
+ * <p>
+ * The permit is held until the response body has been consumed, or the exchange fails or
+ * is cancelled, since the connection stays busy until then. A body nobody subscribes to
+ * returns the permit when the exchange on its connection ends, see
+ * {@link ExchangeTermination}.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class BulkheadExchangeFilter implements ExchangeFilterFunction {
+
+    private final BulkheadGroup group;
+
+    public BulkheadExchangeFilter(BulkheadGroup group) {
+        this.group = group;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            if (!group.tryAcquire()) {
+                log.debug("Bulkhead '{}' is full, rejecting {} {}", group.getName(), request.method(), request.url());
+
+                return Mono.error(new ServiceUnavailableException(new Object[]{"Bulkhead '" + group.getName()
+                    + "' is at its in-flight limit"}));
+            }
+
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    group.release();
+                }
+            };
+
+            return next.exchange(ClientRequest.from(request)
+                    .httpRequest(ExchangeTermination.onTerminate(release))
+                    .build())
+                    .map(response -> response.mutate()
+                            .body(body -> body.doFinally(signal -> release.run()))
+                            .build())
+                    .doOnError(ex -> release.run())
+                    .doOnCancel(release);
+        });
+    }
+}
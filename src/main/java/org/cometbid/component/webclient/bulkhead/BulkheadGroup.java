@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.bulkhead;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.cometbid.component.webclient.WebClientProperties;
+import lombok.Getter;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * An isolation group of downstreams.
+ * <p>
+ * The group's downstreams run on their own event loops, so a downstream that floods its
+ * loops with slow responses cannot delay I/O for downstreams in other groups, and share a
+ * limit on calls in flight, so it cannot hold an unbounded number of callers either. Every
+ * downstream keeps its own connection pool as before, which isolates the pools as well.
+ *
+ * @author samueladebowale
+ */
+public class BulkheadGroup implements AutoCloseable {
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final LoopResources loopResources;
+
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder admitted = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public BulkheadGroup(String name, WebClientProperties.Bulkhead properties) {
+        this.name = name;
+        this.maxInFlight = properties.getMaxInFlight();
+        this.loopResources = LoopResources.create("bulkhead-" + name, properties.getEventLoopThreads(), true);
+    }
+
+    /**
+     * Takes a permit without waiting.
+     *
+     * @return {@code false} when the group is at its in-flight limit
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     *
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public BulkheadMetrics metrics() {
+        return new BulkheadMetrics(name, inFlight.get(), maxInFlight, admitted.sum(), rejected.sum());
+    }
+
+    @Override
+    public void close() {
+        loopResources.dispose();
+    }
+}
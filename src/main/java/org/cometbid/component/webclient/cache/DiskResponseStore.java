@@ -0,0 +1,358 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.springframework.http.HttpHeaders;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * The on-disk tier of the {@link ResponseCache}: an append-only log of responses spread
+ * over memory-mapped segment files, with an in-memory index from key to record.
+ * <p>
+ * Every record is {@code [length][crc32][payload]}, and the length is written last, so a
+ * record torn by a crash is either never seen (length still zero) or fails its checksum.
+ * On start-up the segments are scanned in order and the index is rebuilt from the valid
+ * records, later records replacing earlier ones; scanning a segment stops at the first
+ * invalid record and appends resume there. Reads copy straight out of the mapping without
+ * a system call. Replaced and expired records stay behind as garbage until
+ * {@link #compact(double)} copies the live records of a sparse segment forward and deletes
+ * the segment.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class DiskResponseStore implements AutoCloseable {
+
+    private static final int RECORD_HEADER = 8;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{10})\\.log");
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final long maxAgeMillis;
+
+    private final Map<String, Location> index = new ConcurrentHashMap<>();
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    private final Object compactionLock = new Object();
+
+    /**
+     * The segment appended to, guarded by {@code this}.
+     */
+    private Segment active;
+
+    public DiskResponseStore(Path directory, int segmentSize, long maxAgeMillis) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxAgeMillis = maxAgeMillis;
+
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+
+        long now = System.currentTimeMillis();
+        for (Path file : files) {
+            Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+            matcher.matches();
+
+            Segment segment = Segment.open(file, Long.parseLong(matcher.group(1)), segmentSize);
+            recover(segment, now);
+            segments.add(segment);
+        }
+
+        active = segments.isEmpty() ? createSegment(0) : segments.get(segments.size() - 1);
+
+        log.info("Opened response cache at {}: {} entries in {} segment(s)", directory, index.size(),
+                segments.size());
+    }
+
+    /**
+     *
+     * @param key
+     * @return the stored response, {@code null} when there is none or it is older than the
+     * maximum age
+     */
+    public CachedResponse get(String key) {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - location.storedAt() > maxAgeMillis) {
+            index.remove(key, location);
+            return null;
+        }
+        return decode(location.segment().view(location.offset() + RECORD_HEADER, location.length()));
+    }
+
+    /**
+     * Appends {@code response}; responses that do not fit in a segment are not stored.
+     *
+     * @param response
+     */
+    public void put(CachedResponse response) throws IOException {
+        byte[] payload = encode(response);
+        if (RECORD_HEADER + payload.length > segmentSize) {
+            return;
+        }
+        index.put(response.getKey(), append(payload, response.getStoredAt()));
+    }
+
+    /**
+     *
+     * @return
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Rewrites every sealed segment whose live records make up less than
+     * {@code threshold} of its written bytes, dropping expired entries on the way.
+     *
+     * @param threshold
+     */
+    public void compact(double threshold) throws IOException {
+        synchronized (compactionLock) {
+            long now = System.currentTimeMillis();
+
+            Map<Segment, Long> live = new HashMap<>();
+            index.forEach((key, location) -> {
+                if (now - location.storedAt() > maxAgeMillis) {
+                    index.remove(key, location);
+                } else {
+                    live.merge(location.segment(), (long) RECORD_HEADER + location.length(), Long::sum);
+                }
+            });
+
+            for (Segment segment : segments) {
+                if (segment == currentSegment()) {
+                    continue;
+                }
+                long liveBytes = live.getOrDefault(segment, 0L);
+                if (segment.writePosition > 0 && (double) liveBytes / segment.writePosition >= threshold) {
+                    continue;
+                }
+
+                int moved = 0;
+                for (Map.Entry<String, Location> entry : index.entrySet()) {
+                    Location location = entry.getValue();
+                    if (location.segment() != segment) {
+                        continue;
+                    }
+                    ByteBuffer record = segment.view(location.offset() + RECORD_HEADER, location.length());
+                    byte[] payload = new byte[location.length()];
+                    record.get(payload);
+
+                    if (index.replace(entry.getKey(), location, append(payload, location.storedAt()))) {
+                        moved++;
+                    }
+                }
+
+                segments.remove(segment);
+                segment.close();
+                Files.deleteIfExists(segment.path);
+
+                log.debug("Compacted response cache segment {}, moved {} live entries", segment.path, moved);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        active.buffer.force();
+        segments.forEach(Segment::close);
+    }
+
+    private synchronized Segment currentSegment() {
+        return active;
+    }
+
+    private synchronized Location append(byte[] payload, long storedAt) throws IOException {
+        if (active.writePosition + RECORD_HEADER + payload.length > active.buffer.capacity()) {
+            active.buffer.force();
+            active = createSegment(active.id + 1);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        int offset = active.writePosition;
+        active.buffer.put(offset + RECORD_HEADER, payload);
+        active.buffer.putInt(offset + 4, (int) crc.getValue());
+        active.buffer.putInt(offset, payload.length);
+        active.writePosition = offset + RECORD_HEADER + payload.length;
+
+        return new Location(active, offset, payload.length, storedAt);
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        Segment segment = Segment.open(directory.resolve(String.format("segment-%010d.log", id)), id, segmentSize);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void recover(Segment segment, long now) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+
+        while (position + RECORD_HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER + length > buffer.capacity()) {
+                break;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(segment.view(position + RECORD_HEADER, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("Corrupt record at {} of {}, ignoring the rest of the segment", position, segment.path);
+                break;
+            }
+
+            ByteBuffer record = segment.view(position + RECORD_HEADER, length);
+            long storedAt = record.getLong();
+            record.getInt();
+            String key = readString(record);
+
+            if (now - storedAt <= maxAgeMillis) {
+                index.put(key, new Location(segment, position, length, storedAt));
+            } else {
+                index.remove(key);
+            }
+            position += RECORD_HEADER + length;
+        }
+        segment.writePosition = position;
+    }
+
+    private static byte[] encode(CachedResponse response) {
+        byte[] key = response.getKey().getBytes(StandardCharsets.UTF_8);
+
+        StringBuilder headers = new StringBuilder();
+        response.getHeaders().forEach((name, values) -> values.forEach(value
+                -> headers.append(name).append(':').append(value).append('\n')));
+        byte[] headerBytes = headers.toString().getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer payload = ByteBuffer.allocate(8 + 4 + 4 + key.length + 4 + headerBytes.length + 4
+                + response.getBody().length);
+        payload.putLong(response.getStoredAt())
+                .putInt(response.getStatus())
+                .putInt(key.length).put(key)
+                .putInt(headerBytes.length).put(headerBytes)
+                .putInt(response.getBody().length).put(response.getBody());
+
+        return payload.array();
+    }
+
+    private static CachedResponse decode(ByteBuffer record) {
+        long storedAt = record.getLong();
+        int status = record.getInt();
+        String key = readString(record);
+
+        HttpHeaders headers = new HttpHeaders();
+        for (String line : readString(record).split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.add(line.substring(0, colon), line.substring(colon + 1));
+            }
+        }
+
+        byte[] body = new byte[record.getInt()];
+        record.get(body);
+
+        return new CachedResponse(key, status, HttpHeaders.readOnlyHttpHeaders(headers), body, storedAt);
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getInt()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Location(Segment segment, int offset, int length, long storedAt) {
+
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+
+        private final long id;
+
+        private final FileChannel channel;
+
+        private final MappedByteBuffer buffer;
+
+        private volatile int writePosition;
+
+        private Segment(Path path, long id, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long id, int segmentSize) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long size = Math.max(channel.size(), segmentSize);
+
+            return new Segment(path, id, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        ByteBuffer view(int offset, int length) {
+            return buffer.slice(offset, length);
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.warn("Failed to close {}: {}", path, ex.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.StringUtils;
+import org.cometbid.component.webclient.WebClientProperties;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Two-tier response cache of one downstream: a bounded on-heap tier in front of the
+ * {@link DiskResponseStore}, which holds every entry and survives restarts.
+ * <p>
+ * Lookups that miss the heap are served from the disk tier and promoted. Disk reads and
+ * writes both run on bounded-elastic threads, writes after the entry already reached the
+ * heap, so the event loops never wait on the page cache. The heap tier evicts arbitrary
+ * entries once it exceeds its size, they remain available from disk. Compaction of the
+ * disk tier runs in the background at the configured interval.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class ResponseCache implements AutoCloseable {
+
+    private final Map<String, CachedResponse> hot = new ConcurrentHashMap<>();
+
+    private final int hotEntries;
+
+    private final long maxAgeMillis;
+
+    private final DiskResponseStore disk;
+
+    private final Disposable compaction;
+
+    public ResponseCache(String name, WebClientProperties.Cache properties) {
+        this.hotEntries = properties.getHotEntries();
+        this.maxAgeMillis = properties.getMaxAge().toMillis();
+
+        Path directory = Path.of(StringUtils.defaultIfBlank(properties.getDirectory(),
+                Path.of(System.getProperty("java.io.tmpdir"), "webclient-cache").toString()), name);
+        try {
+            this.disk = new DiskResponseStore(directory, (int) properties.getSegmentSize().toBytes(), maxAgeMillis);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open response cache at " + directory, ex);
+        }
+
+        this.compaction = Flux.interval(properties.getCompactionInterval(), Schedulers.boundedElastic())
+                .subscribe(tick -> {
+                    try {
+                        disk.compact(properties.getCompactionThreshold());
+                    } catch (IOException | RuntimeException ex) {
+                        log.warn("Compaction of response cache '{}' failed: {}", name, ex.toString());
+                    }
+                });
+    }
+
+    /**
+     * Looks {@code key} up in the heap tier on the calling thread and, on a miss, in the
+     * disk tier on a bounded-elastic thread: a read of a page that has been evicted from the
+     * page cache faults on the disk, which must not happen on an event loop.
+     *
+     * @param key
+     * @return the stored response, empty when there is none
+     */
+    public Mono<CachedResponse> lookup(String key) {
+        CachedResponse response = hot.get(key);
+        if (response != null) {
+            if (response.ageMillis(System.currentTimeMillis()) <= maxAgeMillis) {
+                return Mono.just(response);
+            }
+            hot.remove(key, response);
+        }
+
+        return Mono.fromCallable(() -> disk.get(key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(this::putHot);
+    }
+
+    /**
+     *
+     * @param response
+     */
+    public void put(CachedResponse response) {
+        putHot(response);
+
+        Mono.fromRunnable(() -> {
+            try {
+                disk.put(response);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        })
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(null, ex -> log.warn("Failed to store '{}' on disk: {}", response.getKey(), ex.toString()));
+    }
+
+    /**
+     *
+     * @return the number of entries in the disk tier
+     */
+    public int size() {
+        return disk.size();
+    }
+
+    private void putHot(CachedResponse response) {
+        hot.put(response.getKey(), response);
+
+        if (hot.size() > hotEntries) {
+            Iterator<String> keys = hot.keySet().iterator();
+            while (hot.size() > hotEntries && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        compaction.dispose();
+        disk.close();
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.cometbid.component.webclient.SyntheticResponses;
+import org.cometbid.component.webclient.WebClientExceptionHandler;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves GET requests of the configured routes from a {@link ResponseCache}.
+ * <p>
+ * Per route, a response younger than {@code ttl} is served without contacting the
+ * downstream. Up to {@code staleWhileRevalidate} past that it is still served while a single
+ * background request refreshes it. Up to {@code staleIfError} past {@code ttl} it replaces
+ * the answer when the downstream fails with what {@link WebClientExceptionHandler} treats
+ * as an endpoint failure, so callers see stale data instead of a
+ * {@code ServiceUnavailableException}. Only {@code 200} responses without
+ * {@code Cache-Control: no-store} or {@code private} and within {@code maxEntrySize} are
+ * stored; cookies and hop-by-hop headers are not. A response of unknown length is passed
+ * on as it streams and stored once it completed within the limit. Requests carrying
+ * {@code Authorization} or {@code Cookie} are never served from or stored in the cache,
+ * and responses are keyed by URL and the {@code Accept} headers, so a response that varies
+ * on anything else is not stored.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class ResponseCacheExchangeFilter implements ExchangeFilterFunction {
+
+    private static final List<String> UNCACHED_HEADERS = List.of(HttpHeaders.SET_COOKIE, HttpHeaders.CONNECTION,
+            HttpHeaders.TRANSFER_ENCODING, "Keep-Alive");
+
+    /**
+     * Request headers that are part of the key, so responses may vary on them.
+     */
+    private static final List<String> KEY_HEADERS = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING,
+            HttpHeaders.ACCEPT_LANGUAGE);
+
+    private final ResponseCache cache;
+
+    private final ExchangeStrategies strategies;
+
+    private final List<Policy> policies;
+
+    private final int maxEntrySize;
+
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    public ResponseCacheExchangeFilter(ResponseCache cache, WebClientProperties.Cache properties,
+            ExchangeStrategies strategies) {
+        this.cache = cache;
+        this.strategies = strategies;
+        this.maxEntrySize = (int) properties.getMaxEntrySize().toBytes();
+
+        PathPatternParser parser = new PathPatternParser();
+        this.policies = properties.getRoutes().stream()
+                .map(route -> new Policy(parser.parse(route.getPath()), route.getTtl().toMillis(),
+                route.getTtl().plus(route.getStaleWhileRevalidate()).toMillis(),
+                route.getTtl().plus(route.getStaleIfError()).toMillis()))
+                .toList();
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        Policy policy = request.method() == HttpMethod.GET ? policy(request) : null;
+        if (policy == null || hasCredentials(request.headers())) {
+            return next.exchange(request);
+        }
+
+        String key = key(request);
+
+        return cache.lookup(key)
+                .flatMap(cached -> serve(request, next, policy, key, cached))
+                .switchIfEmpty(Mono.defer(() -> fetch(request, next, key)));
+    }
+
+    private Mono<ClientResponse> serve(ClientRequest request, ExchangeFunction next, Policy policy, String key,
+            CachedResponse cached) {
+        long age = cached.ageMillis(System.currentTimeMillis());
+
+        if (age <= policy.ttl()) {
+            return Mono.just(toResponse(cached, request, age));
+        }
+        if (age <= policy.staleWhileRevalidate()) {
+            revalidate(request, next, key);
+            return Mono.just(toResponse(cached, request, age));
+        }
+
+        Mono<ClientResponse> fetched = fetch(request, next, key);
+        if (age > policy.staleIfError()) {
+            return fetched;
+        }
+
+        return fetched
+                .flatMap(response -> {
+                    if (!WebClientExceptionHandler.isEndpointFailure(response.statusCode())) {
+                        return Mono.just(response);
+                    }
+                    log.debug("Serving stale '{}' after {} from the downstream", key, response.statusCode());
+
+                    return response.releaseBody().thenReturn(toResponse(cached, request, age));
+                })
+                .onErrorResume(ex -> WebClientExceptionHandler.isEndpointFailure(ex) || ex instanceof TimeoutException,
+                        ex -> {
+                            log.debug("Serving stale '{}' after {}", key, ex.toString());
+
+                            return Mono.just(toResponse(cached, request, age));
+                        });
+    }
+
+    private Mono<ClientResponse> fetch(ClientRequest request, ExchangeFunction next, String key) {
+        return next.exchange(request).flatMap(response -> {
+            HttpHeaders headers = response.headers().asHttpHeaders();
+            long length = headers.getContentLength();
+
+            if (response.statusCode().value() != HttpStatus.OK.value() || length > maxEntrySize
+                    || !isStorable(headers)) {
+                return Mono.just(response);
+            }
+
+            if (length < 0) {
+                // Unknown length: hand the live response on and keep a copy of what the caller
+                // reads, storing it only if the whole body fits.
+                return Mono.just(response.mutate()
+                        .body(body -> copy(body, copy -> store(key, response.statusCode(), headers, copy)))
+                        .build());
+            }
+
+            return DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers()), maxEntrySize)
+                    .map(buffer -> {
+                        byte[] body = new byte[buffer.readableByteCount()];
+                        buffer.read(body);
+                        DataBufferUtils.release(buffer);
+                        return body;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .map(body -> toResponse(store(key, response.statusCode(), headers, body), request, 0));
+        });
+    }
+
+    private Flux<DataBuffer> copy(Flux<DataBuffer> body, Consumer<byte[]> complete) {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        AtomicBoolean overflowed = new AtomicBoolean();
+
+        return body
+                .doOnNext(buffer -> {
+                    if (overflowed.get()) {
+                        return;
+                    }
+                    if (copy.size() + buffer.readableByteCount() > maxEntrySize) {
+                        overflowed.set(true);
+                        copy.reset();
+                        return;
+                    }
+                    try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                        while (iterator.hasNext()) {
+                            ByteBuffer chunk = iterator.next();
+                            byte[] bytes = new byte[chunk.remaining()];
+                            chunk.get(bytes);
+                            copy.writeBytes(bytes);
+                        }
+                    }
+                })
+                .doOnComplete(() -> {
+                    if (!overflowed.get()) {
+                        complete.accept(copy.toByteArray());
+                    }
+                });
+    }
+
+    private CachedResponse store(String key, HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        HttpHeaders stored = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (UNCACHED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                stored.addAll(name, values);
+            }
+        });
+
+        CachedResponse cached = new CachedResponse(key, status.value(), HttpHeaders.readOnlyHttpHeaders(stored),
+                body, System.currentTimeMillis());
+        cache.put(cached);
+
+        return cached;
+    }
+
+    private void revalidate(ClientRequest request, ExchangeFunction next, String key) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+
+        fetch(request, next, key)
+                .flatMap(ClientResponse::releaseBody)
+                .doFinally(signal -> revalidating.remove(key))
+                .subscribe(null, ex -> log.debug("Revalidation of '{}' failed: {}", key, ex.toString()));
+    }
+
+    private ClientResponse toResponse(CachedResponse cached, ClientRequest request, long ageMillis) {
+        return SyntheticResponses.builder(request, HttpStatusCode.valueOf(cached.getStatus()), strategies)
+                .headers(headers -> {
+                    headers.addAll(cached.getHeaders());
+                    headers.set(HttpHeaders.AGE, Long.toString(ageMillis / 1000));
+                })
+                .body(SyntheticResponses.body(cached.getBody()))
+                .build();
+    }
+
+    private Policy policy(ClientRequest request) {
+        PathContainer path = PathContainer.parsePath(request.url().getRawPath());
+        for (Policy policy : policies) {
+            if (policy.pattern().matches(path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasCredentials(HttpHeaders headers) {
+        return headers.containsKey(HttpHeaders.AUTHORIZATION) || headers.containsKey(HttpHeaders.COOKIE);
+    }
+
+    /**
+     * A response is stored unless it is {@code no-store} or {@code private}, or varies on
+     * a request header that is not part of the key.
+     */
+    private static boolean isStorable(HttpHeaders headers) {
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("private"))) {
+            return false;
+        }
+        return headers.getVary().stream()
+                .allMatch(name -> KEY_HEADERS.stream().anyMatch(name::equalsIgnoreCase));
+    }
+
+    private static String key(ClientRequest request) {
+        StringBuilder key = new StringBuilder(request.url().toString());
+        for (String name : KEY_HEADERS) {
+            List<String> values = request.headers().getOrEmpty(name);
+            if (!values.isEmpty()) {
+                key.append(' ').append(name).append('=').append(String.join(",", values));
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Cut-off ages in millis, all measured from when the response was stored.
+     */
+    private record Policy(PathPattern pattern, long ttl, long staleWhileRevalidate, long staleIfError) {
+
+    }
+}
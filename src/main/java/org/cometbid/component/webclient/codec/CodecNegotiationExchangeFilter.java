@@ -0,0 +1,138 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.codec;
+
+import java.time.Duration;
+import java.util.List;
+import org.cometbid.component.webclient.ReplayableBodies;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Mono;
+
+/**
+ * Asks a downstream for its binary {@link WireFormat} through {@code Accept} and, for
+ * JSON request bodies, {@code Content-Type}, keeping JSON as the accepted fallback.
+ * <p>
+ * Only requests that would otherwise be plain JSON are rewritten, so form, multipart and
+ * explicitly typed requests pass through untouched. The response codec is picked from the
+ * {@code Content-Type} the downstream answers with, so {@code processResponse} and the Flux
+ * methods decode either format. Requests marked {@link #STREAMED_RESPONSE} are only offered
+ * formats that can be decoded element by element. A downstream answering {@code 406} or {@code 415} is not
+ * offered the binary format again for a while, and the original JSON request is sent again
+ * when it {@link ReplayableBodies#isReplayable(ClientRequest) can be}. Other requests see
+ * the {@code 406} or {@code 415} unchanged.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class CodecNegotiationExchangeFilter implements ExchangeFilterFunction {
+
+    /**
+     * Request attribute marking a response the caller decodes as a stream rather than as one value.
+     */
+    public static final String STREAMED_RESPONSE = CodecNegotiationExchangeFilter.class.getName()
+            + ".streamedResponse";
+
+    private static final long RETRY_BINARY_AFTER_NANOS = Duration.ofMinutes(5).toNanos();
+
+    private final String downstream;
+
+    private final WireFormat format;
+
+    private final List<MediaType> accept;
+
+    private volatile long jsonOnlyUntil;
+
+    private volatile boolean jsonOnly;
+
+    public CodecNegotiationExchangeFilter(String downstream, WireFormat format) {
+        this.downstream = downstream;
+        this.format = format;
+        this.accept = List.of(format.getMediaType(), MediaType.parseMediaType("application/json;q=0.9"));
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (jsonOnly && System.nanoTime() - jsonOnlyUntil < 0) {
+            return next.exchange(request);
+        }
+
+        ClientRequest negotiated = negotiate(request);
+        if (negotiated == request) {
+            return next.exchange(request);
+        }
+
+        return next.exchange(negotiated).flatMap(response -> {
+            int status = response.statusCode().value();
+            if (status != HttpStatus.NOT_ACCEPTABLE.value() && status != HttpStatus.UNSUPPORTED_MEDIA_TYPE.value()) {
+                return Mono.just(response);
+            }
+
+            log.warn("Downstream '{}' rejected {} with {}, falling back to JSON", downstream, format, status);
+            jsonOnlyUntil = System.nanoTime() + RETRY_BINARY_AFTER_NANOS;
+            jsonOnly = true;
+
+            if (!ReplayableBodies.isReplayable(request)) {
+                return Mono.just(response);
+            }
+            return response.releaseBody().then(next.exchange(request));
+        });
+    }
+
+    private static boolean isStreamed(ClientRequest request) {
+        return Boolean.TRUE.equals(request.attribute(STREAMED_RESPONSE).orElse(Boolean.FALSE));
+    }
+
+    private ClientRequest negotiate(ClientRequest request) {
+        HttpHeaders headers = request.headers();
+
+        List<MediaType> requested = headers.getAccept();
+        boolean rewriteAccept = (requested.isEmpty()
+                || (requested.size() == 1 && MediaType.APPLICATION_JSON.equalsTypeAndSubtype(requested.get(0))))
+                && (format.isStreamedResponses() || !isStreamed(request));
+
+        MediaType contentType = headers.getContentType();
+        boolean rewriteContentType = format.isRequestBodies() && contentType != null
+                && MediaType.APPLICATION_JSON.equalsTypeAndSubtype(contentType);
+
+        if (!rewriteAccept && !rewriteContentType) {
+            return request;
+        }
+
+        return ClientRequest.from(request).headers(h -> {
+            if (rewriteAccept) {
+                h.setAccept(accept);
+            }
+            if (rewriteContentType) {
+                h.setContentType(format.getMediaType());
+            }
+        }).build();
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.core.codec.CodecException;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpInputMessage;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.HttpMessageReader;
+import org.springframework.http.codec.json.AbstractJackson2Decoder;
+import org.springframework.web.reactive.function.BodyExtractor;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import reactor.core.publisher.Mono;
+
+/**
+ * The parts of a JSON response a caller actually reads.
+ * <p>
+ * Declared as JSON pointers, where a {@code *} segment stands for every element of an
+ * array (e.g. {@code /items/*}{@code /id}), or derived from the target type: the
+ * components of a record, recursively for record-typed components, or the instance fields
+ * of a class, honouring {@code @JsonProperty} names. The response is parsed token by
+ * token and members outside the projection are skipped without being turned into
+ * objects, so a three-field DTO read from a large document costs little more than the
+ * tokenizing itself.
+ * <p>
+ * With {@link #withFieldsParam(String)} the projection is also sent to the downstream, as
+ * a comma separated list of slash separated paths, for APIs that support partial
+ * responses.
+ *
+ * @author samueladebowale
+ */
+public final class JsonProjection {
+
+    private final ProjectionTokenFilter root;
+
+    private final List<String> paths;
+
+    private final String fieldsParam;
+
+    private JsonProjection(ProjectionTokenFilter root, List<String> paths, String fieldsParam) {
+        this.root = root;
+        this.paths = List.copyOf(paths);
+        this.fieldsParam = fieldsParam;
+    }
+
+    /**
+     *
+     * @param pointers
+     * @return
+     */
+    public static JsonProjection ofPointers(String... pointers) {
+        ProjectionTokenFilter root = new ProjectionTokenFilter();
+        List<String> paths = new ArrayList<>();
+
+        for (String pointer : pointers) {
+            JsonPointer segment = JsonPointer.compile(pointer);
+            if (segment.matches()) {
+                throw new IllegalArgumentException("The empty pointer selects the whole document");
+            }
+
+            ProjectionTokenFilter node = root;
+            List<String> path = new ArrayList<>();
+            while (!segment.matches() && !node.isLeaf()) {
+                node = node.child(segment.getMatchingProperty());
+                if (!ProjectionTokenFilter.ANY_ELEMENT.equals(segment.getMatchingProperty())) {
+                    path.add(segment.getMatchingProperty());
+                }
+                segment = segment.tail();
+            }
+            node.markLeaf();
+            paths.add(String.join("/", path));
+        }
+        return new JsonProjection(root, paths, null);
+    }
+
+    /**
+     *
+     * @param type a record or a class with the fields to keep
+     * @return
+     */
+    public static JsonProjection ofType(Class<?> type) {
+        List<String> pointers = new ArrayList<>();
+        collectPointers(type, "", pointers, 0);
+
+        return ofPointers(pointers.toArray(String[]::new));
+    }
+
+    /**
+     *
+     * @param name query parameter, e.g. {@code fields}
+     * @return
+     */
+    public JsonProjection withFieldsParam(String name) {
+        return new JsonProjection(root, paths, name);
+    }
+
+    /**
+     *
+     * @return {@code null} unless the projection is sent to the downstream
+     */
+    public String getFieldsParam() {
+        return fieldsParam;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public String getFieldsValue() {
+        return String.join(",", paths);
+    }
+
+    /**
+     * Decodes a response body into {@code type} through the projection, with the
+     * {@code ObjectMapper} and in-memory limit of the client's JSON decoder. Malformed input
+     * fails with a {@link DecodingException}, as it does with the decoder itself.
+     *
+     * @param <T>
+     * @param type
+     * @return
+     */
+    public <T> BodyExtractor<Mono<T>, ReactiveHttpInputMessage> toMono(Class<? extends T> type) {
+        return (message, context) -> {
+            AbstractJackson2Decoder decoder = jsonDecoder(context.messageReaders());
+
+            return DataBufferUtils.join(message.getBody(), decoder.getMaxInMemorySize())
+                    .flatMap(buffer -> {
+                        try (InputStream body = buffer.asInputStream(true)) {
+                            return Mono.justOrEmpty(read(decoder.getObjectMapper(), body, type));
+                        } catch (InvalidDefinitionException ex) {
+                            return Mono.error(new CodecException("Type definition error: " + ex.getType(), ex));
+                        } catch (JsonProcessingException ex) {
+                            return Mono.error(new DecodingException("JSON decoding error: " + ex.getOriginalMessage(),
+                                    ex));
+                        } catch (IOException ex) {
+                            return Mono.error(new DecodingException("I/O error while parsing input stream", ex));
+                        }
+                    });
+        };
+    }
+
+    /**
+     *
+     * @param <T>
+     * @param objectMapper
+     * @param body
+     * @param type
+     * @return {@code null} when nothing in the body matches the projection
+     * @throws IOException
+     */
+    public <T> T read(ObjectMapper objectMapper, InputStream body, Class<? extends T> type) throws IOException {
+        try (JsonParser parser = new FilteringParserDelegate(objectMapper.createParser(body), root,
+                TokenFilter.Inclusion.INCLUDE_ALL_AND_PATH, true)) {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return objectMapper.readerFor(type).readValue(parser);
+        }
+    }
+
+    private static AbstractJackson2Decoder jsonDecoder(List<HttpMessageReader<?>> readers) {
+        for (HttpMessageReader<?> reader : readers) {
+            if (reader instanceof DecoderHttpMessageReader<?> decoderReader
+                    && decoderReader.getDecoder() instanceof AbstractJackson2Decoder decoder
+                    && decoder.getDecodableMimeTypes().contains(MediaType.APPLICATION_JSON)) {
+                return decoder;
+            }
+        }
+        throw new IllegalStateException("No Jackson JSON decoder among the client's codecs");
+    }
+
+    private static void collectPointers(Class<?> type, String prefix, List<String> pointers, int depth) {
+        if (depth > 8) {
+            throw new IllegalArgumentException("Projection of " + type.getName() + " nests too deeply");
+        }
+
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                String pointer = prefix + "/" + escape(jsonName(component.getName(),
+                        component.getAnnotation(JsonProperty.class)));
+
+                if (component.getType().isRecord()) {
+                    collectPointers(component.getType(), pointer, pointers, depth + 1);
+                } else {
+                    pointers.add(pointer);
+                }
+            }
+            return;
+        }
+
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                    pointers.add(prefix + "/" + escape(jsonName(field.getName(),
+                            field.getAnnotation(JsonProperty.class))));
+                }
+            }
+        }
+        if (pointers.isEmpty()) {
+            throw new IllegalArgumentException(type.getName() + " declares no fields to project on");
+        }
+    }
+
+    private static String jsonName(String name, JsonProperty property) {
+        return property != null && !property.value().isEmpty() ? property.value() : name;
+    }
+
+    private static String escape(String name) {
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+
+    @Override
+    public String toString() {
+        return "JsonProjection" + paths;
+    }
+}
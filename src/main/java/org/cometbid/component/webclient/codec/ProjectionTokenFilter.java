@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.codec;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.fasterxml.jackson.core.filter.TokenFilter;
+
+/**
+ * One node of a {@link JsonProjection}'s path tree: a leaf includes the whole value, an
+ * inner node only the members and elements that lead to its children, so every other
+ * subtree is skipped by the parser without being read into objects.
+ *
+ * @author samueladebowale
+ */
+final class ProjectionTokenFilter extends TokenFilter {
+
+    static final String ANY_ELEMENT = "*";
+
+    private final Map<String, ProjectionTokenFilter> children = new LinkedHashMap<>();
+
+    private boolean leaf;
+
+    ProjectionTokenFilter child(String segment) {
+        return children.computeIfAbsent(segment, key -> new ProjectionTokenFilter());
+    }
+
+    void markLeaf() {
+        leaf = true;
+        children.clear();
+    }
+
+    boolean isLeaf() {
+        return leaf;
+    }
+
+    Map<String, ProjectionTokenFilter> children() {
+        return children;
+    }
+
+    @Override
+    public TokenFilter includeProperty(String name) {
+        return include(children.get(name));
+    }
+
+    @Override
+    public TokenFilter includeElement(int index) {
+        ProjectionTokenFilter child = children.get(Integer.toString(index));
+
+        return include(child != null ? child : children.get(ANY_ELEMENT));
+    }
+
+    @Override
+    protected boolean _includeScalar() {
+        return leaf;
+    }
+
+    private TokenFilter include(ProjectionTokenFilter child) {
+        if (leaf) {
+            return TokenFilter.INCLUDE_ALL;
+        }
+        if (child == null) {
+            return null;
+        }
+        return child.leaf ? TokenFilter.INCLUDE_ALL : child;
+    }
+}
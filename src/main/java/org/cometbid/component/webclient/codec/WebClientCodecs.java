@@ -0,0 +1,250 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.codec;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.springframework.core.NativeDetector;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.codec.ClientCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.MimeType;
+import org.springframework.util.function.SingletonSupplier;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * The single Jackson setup used by the component's clients. It is applied only to the
+ * builders the component creates, never to the application's own {@code WebClient.Builder}.
+ * <p>
+ * The mapper skips work the clients never need: unknown properties are ignored rather than
+ * raised, field names are not interned and numbers use Jackson's fast parsers. Object
+ * readers and writers are cached per target type, both for the codecs registered here and
+ * for code that (de)serializes outside of {@code bodyToMono}/{@code bodyToFlux}. The binary
+ * {@link WireFormat formats} share the same settings through copies of the mapper.
+ * <p>
+ * The mapper is only built when a client first needs it, keeping Jackson's setup out of
+ * the application's startup.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class WebClientCodecs {
+
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+
+    private final SingletonSupplier<ObjectMapper> objectMapper;
+
+    private final int maxInMemorySize;
+
+    private final Map<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final Map<JavaType, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    private final Map<WireFormat, ObjectMapper> formatMappers = new ConcurrentHashMap<>();
+
+    public WebClientCodecs(WebClientProperties properties) {
+        WebClientProperties.Codecs codecs = properties.getCodecs();
+
+        this.objectMapper = SingletonSupplier.of(() -> objectMapper(codecs));
+        long maxInMemorySize = codecs.getMaxInMemorySize().toBytes();
+        if (maxInMemorySize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("codecs.max-in-memory-size must be below 2GB, was "
+                    + codecs.getMaxInMemorySize());
+        }
+        this.maxInMemorySize = (int) maxInMemorySize;
+    }
+
+    private static ObjectMapper objectMapper(WebClientProperties.Codecs codecs) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .factory(JsonFactory.builder()
+                        .disable(JsonFactory.Feature.INTERN_FIELD_NAMES)
+                        .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+                        .enable(StreamReadFeature.USE_FAST_BIG_NUMBER_PARSER)
+                        .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+                        .build())
+                // the builder already ignores unknown properties, but writes dates as timestamps
+                .featuresToDisable(SerializationFeature.FAIL_ON_EMPTY_BEANS,
+                        SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        if (codecs.isBlackbird()) {
+            if (NativeDetector.inNativeImage()) {
+                // Blackbird generates classes at runtime, which a native image cannot load
+                log.debug("Blackbird is not supported in a native image, using reflection");
+            } else if (ClassUtils.isPresent(BLACKBIRD_MODULE, WebClientCodecs.class.getClassLoader())) {
+                builder.modulesToInstall(Blackbird.module());
+            } else {
+                log.warn("Blackbird requested but {} is not on the classpath, using reflection", BLACKBIRD_MODULE);
+            }
+        }
+
+        return builder.build();
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper.obtain();
+    }
+
+    /**
+     *
+     * @param type
+     * @return
+     */
+    public ObjectReader reader(Class<?> type) {
+        return reader(getObjectMapper().constructType(type));
+    }
+
+    /**
+     *
+     * @param type
+     * @return
+     */
+    public ObjectReader reader(JavaType type) {
+        return readers.computeIfAbsent(type, getObjectMapper()::readerFor);
+    }
+
+    /**
+     *
+     * @param type
+     * @return
+     */
+    public ObjectWriter writer(Class<?> type) {
+        return writer(getObjectMapper().constructType(type));
+    }
+
+    /**
+     *
+     * @param type
+     * @return
+     */
+    public ObjectWriter writer(JavaType type) {
+        return writers.computeIfAbsent(type, getObjectMapper()::writerFor);
+    }
+
+    /**
+     * The mapper of a Jackson-based format, a copy of the JSON one on that format's factory.
+     *
+     * @param format
+     * @return {@code null} for formats Jackson does not encode
+     */
+    public ObjectMapper getObjectMapper(WireFormat format) {
+        if (format == WireFormat.JSON) {
+            return getObjectMapper();
+        }
+        return formatMappers.computeIfAbsent(format, f -> f.copyOf(getObjectMapper()));
+    }
+
+    /**
+     *
+     * @param configurer
+     */
+    public void configure(ClientCodecConfigurer configurer) {
+        ClientCodecConfigurer.ClientDefaultCodecs defaults = configurer.defaultCodecs();
+
+        defaults.maxInMemorySize(maxInMemorySize);
+        defaults.jackson2JsonDecoder(new CachingJackson2JsonDecoder());
+        defaults.jackson2JsonEncoder(new CachingJackson2JsonEncoder());
+    }
+
+    /**
+     * Registers a binary format's codecs next to the JSON ones, sharing their settings.
+     *
+     * @param configurer
+     * @param format
+     */
+    public void configure(ClientCodecConfigurer configurer, WireFormat format) {
+        configure(configurer);
+        if (format != WireFormat.JSON) {
+            format.registerCodecs(configurer, getObjectMapper(format));
+        }
+    }
+
+    /**
+     * Hands out the cached reader for the target type instead of the one the decoder has
+     * just created, so that readers (and their prefetched root deserializers) are reused.
+     */
+    private final class CachingJackson2JsonDecoder extends Jackson2JsonDecoder {
+
+        CachingJackson2JsonDecoder() {
+            super(WebClientCodecs.this.getObjectMapper());
+        }
+
+        @Override
+        protected ObjectReader customizeReader(ObjectReader reader, ResolvableType elementType,
+                Map<String, Object> hints) {
+            if (hints != null && hints.containsKey(JSON_VIEW_HINT)) {
+                return reader;
+            }
+            return readers.computeIfAbsent(reader.getValueType(), type -> reader);
+        }
+    }
+
+    /**
+     * Hands out the cached writer for container types, whose writers the encoder creates
+     * typed (prefetching their root serializer) on every call. Other values are written
+     * with an untyped writer that resolves their runtime type, which there is no point in
+     * caching.
+     */
+    private final class CachingJackson2JsonEncoder extends Jackson2JsonEncoder {
+
+        CachingJackson2JsonEncoder() {
+            super(WebClientCodecs.this.getObjectMapper());
+        }
+
+        @Override
+        protected ObjectWriter customizeWriter(ObjectWriter writer, MimeType mimeType, ResolvableType elementType,
+                Map<String, Object> hints) {
+            JavaType type = writer.getTypeFactory().constructType(elementType.getType());
+            ObjectWriter shared = writer;
+            if (type.isContainerType() && (hints == null || !hints.containsKey(JSON_VIEW_HINT))) {
+                shared = writers.computeIfAbsent(type, key -> writer);
+            }
+            return super.customizeWriter(shared, mimeType, elementType, hints);
+        }
+    }
+
+    /**
+     * Isolates the optional Blackbird reference so it is only loaded when enabled.
+     */
+    private static final class Blackbird {
+
+        static Module module() {
+            return new BlackbirdModule();
+        }
+    }
+}
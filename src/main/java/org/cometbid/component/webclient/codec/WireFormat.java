@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.codec;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ClientCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.codec.protobuf.ProtobufDecoder;
+import org.springframework.http.codec.protobuf.ProtobufEncoder;
+import org.springframework.util.ClassUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Wire formats a downstream can be asked to speak.
+ * <p>
+ * Smile encodes and decodes any Jackson-mappable object element by element, so it can
+ * replace JSON for request bodies and the Flux methods alike. Spring's CBOR codec neither
+ * encodes nor decodes streams, so it is only negotiated for responses decoded as one value.
+ * Protobuf only applies to generated {@code Message} types, so it is only negotiated for
+ * responses.
+ *
+ * @author samueladebowale
+ */
+public enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON, true, true, null),
+    CBOR(MediaType.APPLICATION_CBOR, false, false, "com.fasterxml.jackson.dataformat.cbor.CBORFactory"),
+    SMILE(new MediaType("application", "x-jackson-smile"), true, true,
+            "com.fasterxml.jackson.dataformat.smile.SmileFactory"),
+    PROTOBUF(MediaType.APPLICATION_PROTOBUF, false, true, "com.google.protobuf.Message");
+
+    private final MediaType mediaType;
+
+    private final boolean requestBodies;
+
+    private final boolean streamedResponses;
+
+    private final String requiredClass;
+
+    WireFormat(MediaType mediaType, boolean requestBodies, boolean streamedResponses, String requiredClass) {
+        this.mediaType = mediaType;
+        this.requestBodies = requestBodies;
+        this.streamedResponses = streamedResponses;
+        this.requiredClass = requiredClass;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * The class whose presence enables this format, {@code null} for JSON.
+     *
+     * @return
+     */
+    public String getRequiredClass() {
+        return requiredClass;
+    }
+
+    /**
+     * Whether JSON request bodies can be re-encoded in this format.
+     *
+     * @return
+     */
+    public boolean isRequestBodies() {
+        return requestBodies;
+    }
+
+    /**
+     * Whether responses in this format can be decoded element by element, as the Flux
+     * methods do.
+     *
+     * @return
+     */
+    public boolean isStreamedResponses() {
+        return streamedResponses;
+    }
+
+    /**
+     * A copy of the JSON mapper, with its settings and modules, on this format's factory.
+     *
+     * @param jsonMapper
+     * @return {@code null} for formats Jackson does not encode
+     */
+    ObjectMapper copyOf(ObjectMapper jsonMapper) {
+        requirePresent();
+        return switch (this) {
+            case JSON ->
+                jsonMapper;
+            case CBOR ->
+                jsonMapper.copyWith(new CBORFactory());
+            case SMILE ->
+                jsonMapper.copyWith(new SmileFactory());
+            default ->
+                null;
+        };
+    }
+
+    /**
+     * Adds this format's encoder and decoder next to the default JSON codecs.
+     *
+     * @param configurer
+     * @param objectMapper this format's mapper, see {@code WebClientCodecs#getObjectMapper(WireFormat)}
+     */
+    public void registerCodecs(ClientCodecConfigurer configurer, ObjectMapper objectMapper) {
+        if (this == JSON) {
+            return;
+        }
+        requirePresent();
+
+        ClientCodecConfigurer.ClientDefaultCodecs defaults = configurer.defaultCodecs();
+        switch (this) {
+            // without explicit mime types the Jackson codecs fall back to the JSON ones
+            case CBOR -> {
+                configurer.customCodecs().register(new Jackson2CborEncoder(objectMapper, mediaType));
+                configurer.customCodecs().register(new Jackson2CborDecoder(objectMapper, mediaType));
+            }
+            case SMILE -> {
+                defaults.jackson2SmileEncoder(new Jackson2SmileEncoder(objectMapper, mediaType));
+                defaults.jackson2SmileDecoder(new Jackson2SmileDecoder(objectMapper, mediaType));
+            }
+            case PROTOBUF -> {
+                defaults.protobufDecoder(new ProtobufDecoder());
+                configurer.customCodecs().register(new ProtobufEncoder());
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void requirePresent() {
+        if (requiredClass != null && !ClassUtils.isPresent(requiredClass, WireFormat.class.getClassLoader())) {
+            throw new IllegalStateException("Wire format " + this + " requires " + requiredClass + " on the classpath");
+        }
+    }
+}
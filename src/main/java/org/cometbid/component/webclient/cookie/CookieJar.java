@@ -0,0 +1,278 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.cookie;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.ResponseCookie;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Thread-safe store of the cookies a downstream has set, following the domain, path,
+ * secure and expiry rules of RFC 6265.
+ * <p>
+ * Cookies are bucketed by domain, and each bucket holds an immutable snapshot that writers
+ * replace with a compare-and-set, so the request path never locks. Reads vastly outnumber
+ * writes, and when every cookie in a bucket is scoped to {@code /}, the {@code Cookie}
+ * header value is precomputed once per snapshot instead of being assembled per request.
+ * <p>
+ * There is no public suffix list; a {@code Domain} attribute naming a bare top-level
+ * domain, or one the response host does not belong to, is rejected.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class CookieJar {
+
+    private final Map<String, DomainCookies> domains = new ConcurrentHashMap<>();
+
+    private final int maxPerDomain;
+
+    public CookieJar(int maxPerDomain) {
+        this.maxPerDomain = maxPerDomain;
+    }
+
+    /**
+     * The {@code Cookie} header value to send to {@code uri}, {@code null} when no stored
+     * cookie applies.
+     *
+     * @param uri
+     * @return
+     */
+    public String cookieHeader(URI uri) {
+        String host = host(uri);
+        if (host == null || domains.isEmpty()) {
+            return null;
+        }
+
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        String path = StringUtils.defaultIfEmpty(uri.getRawPath(), "/");
+        long now = System.currentTimeMillis();
+
+        String header = null;
+        StringBuilder joined = null;
+        boolean hostOnly = true;
+        for (String domain = host; domain != null; domain = parent(domain), hostOnly = false) {
+            DomainCookies cookies = domains.get(domain);
+            String part = cookies == null ? null : cookies.header(path, secure, hostOnly, now);
+            if (part == null) {
+                continue;
+            }
+            if (header == null) {
+                header = part;
+            } else {
+                if (joined == null) {
+                    joined = new StringBuilder(header);
+                }
+                joined.append("; ").append(part);
+            }
+        }
+        return joined != null ? joined.toString() : header;
+    }
+
+    /**
+     * Stores, replaces or, for an expired {@code Max-Age}, removes the cookies a response
+     * from {@code uri} has set.
+     *
+     * @param uri
+     * @param cookies
+     */
+    public void store(URI uri, Collection<ResponseCookie> cookies) {
+        String host = host(uri);
+        if (host == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (ResponseCookie cookie : cookies) {
+            String domain = host;
+            boolean hostOnly = true;
+
+            if (StringUtils.isNotBlank(cookie.getDomain())) {
+                domain = StringUtils.removeStart(cookie.getDomain().toLowerCase(Locale.ROOT), ".");
+                if (!domainMatches(host, domain) || (domain.indexOf('.') < 0 && !domain.equals(host))) {
+                    log.debug("Rejected cookie '{}' from {} for domain {}", cookie.getName(), host, domain);
+                    continue;
+                }
+                hostOnly = false;
+            }
+
+            String path = StringUtils.startsWith(cookie.getPath(), "/") ? cookie.getPath() : defaultPath(uri);
+            long maxAge = cookie.getMaxAge().getSeconds();
+            long expiresAt = maxAge < 0 ? Long.MAX_VALUE : now + maxAge * 1000;
+
+            StoredCookie stored = new StoredCookie(cookie.getName(), path, cookie.getName() + "=" + cookie.getValue(),
+                    hostOnly, cookie.isSecure(), expiresAt);
+
+            domains.computeIfAbsent(domain, key -> new DomainCookies()).put(stored, now);
+        }
+    }
+
+    /**
+     *
+     * @return the number of cookies currently held, including any not yet pruned after expiry
+     */
+    public int size() {
+        return domains.values().stream().mapToInt(cookies -> cookies.snapshot.get().cookies().size()).sum();
+    }
+
+    /**
+     *
+     */
+    public void clear() {
+        domains.clear();
+    }
+
+    private static String host(URI uri) {
+        return uri.getHost() == null ? null : uri.getHost().toLowerCase(Locale.ROOT);
+    }
+
+    private static String parent(String domain) {
+        int dot = domain.indexOf('.');
+        return dot < 0 || domain.indexOf('.', dot + 1) < 0 ? null : domain.substring(dot + 1);
+    }
+
+    private static boolean domainMatches(String host, String domain) {
+        return host.equals(domain) || (host.endsWith(domain)
+                && host.charAt(host.length() - domain.length() - 1) == '.'
+                && !Character.isDigit(host.charAt(host.length() - 1)));
+    }
+
+    private static boolean pathMatches(String requestPath, String cookiePath) {
+        return requestPath.startsWith(cookiePath) && (requestPath.length() == cookiePath.length()
+                || cookiePath.endsWith("/") || requestPath.charAt(cookiePath.length()) == '/');
+    }
+
+    private static String defaultPath(URI uri) {
+        String path = uri.getRawPath();
+        int slash = path == null ? -1 : path.lastIndexOf('/');
+
+        return slash <= 0 ? "/" : path.substring(0, slash);
+    }
+
+    private record StoredCookie(String name, String path, String pair, boolean hostOnly, boolean secure,
+            long expiresAt) {
+
+        boolean sameAs(StoredCookie other) {
+            return name.equals(other.name) && path.equals(other.path);
+        }
+    }
+
+    /**
+     * An immutable view of one domain's cookies. {@code headers} is indexed by
+     * {@code secure << 1 | hostOnly} and only set when every cookie has the root path.
+     */
+    private record Snapshot(List<StoredCookie> cookies, long nextExpiry, String[] headers) {
+
+        static final Snapshot EMPTY = new Snapshot(List.of(), Long.MAX_VALUE, null);
+
+        static Snapshot of(List<StoredCookie> cookies) {
+            long nextExpiry = Long.MAX_VALUE;
+            boolean rootOnly = true;
+            for (StoredCookie cookie : cookies) {
+                nextExpiry = Math.min(nextExpiry, cookie.expiresAt());
+                rootOnly &= cookie.path().equals("/");
+            }
+
+            String[] headers = null;
+            if (rootOnly) {
+                headers = new String[4];
+                for (int i = 0; i < headers.length; i++) {
+                    headers[i] = join(cookies, "/", (i & 2) != 0, (i & 1) != 0);
+                }
+            }
+            return new Snapshot(List.copyOf(cookies), nextExpiry, headers);
+        }
+
+        static String join(List<StoredCookie> cookies, String path, boolean secure, boolean hostOnly) {
+            StringBuilder header = null;
+            for (StoredCookie cookie : cookies) {
+                if ((cookie.secure() && !secure) || (cookie.hostOnly() && !hostOnly)
+                        || !pathMatches(path, cookie.path())) {
+                    continue;
+                }
+                if (header == null) {
+                    header = new StringBuilder(cookie.pair());
+                } else {
+                    header.append("; ").append(cookie.pair());
+                }
+            }
+            return header == null ? null : header.toString();
+        }
+    }
+
+    private final class DomainCookies {
+
+        private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+        String header(String path, boolean secure, boolean hostOnly, long now) {
+            Snapshot current = snapshot.get();
+            if (now >= current.nextExpiry()) {
+                current = update(null, now);
+            }
+            if (current.headers() != null) {
+                return current.headers()[(secure ? 2 : 0) | (hostOnly ? 1 : 0)];
+            }
+            return Snapshot.join(current.cookies(), path, secure, hostOnly);
+        }
+
+        void put(StoredCookie cookie, long now) {
+            update(cookie, now);
+        }
+
+        /**
+         * Copy-on-write update that drops expired cookies and, when {@code cookie} is given,
+         * replaces any cookie with the same name and path by it.
+         */
+        private Snapshot update(StoredCookie cookie, long now) {
+            while (true) {
+                Snapshot current = snapshot.get();
+                List<StoredCookie> cookies = new ArrayList<>(current.cookies().size() + 1);
+                for (StoredCookie existing : current.cookies()) {
+                    if (existing.expiresAt() > now && (cookie == null || !existing.sameAs(cookie))) {
+                        cookies.add(existing);
+                    }
+                }
+                if (cookie != null && cookie.expiresAt() > now) {
+                    cookies.add(cookie);
+                }
+                while (cookies.size() > maxPerDomain) {
+                    cookies.remove(0);
+                }
+
+                Snapshot next = Snapshot.of(cookies);
+                if (snapshot.compareAndSet(current, next)) {
+                    return next;
+                }
+            }
+        }
+    }
+}
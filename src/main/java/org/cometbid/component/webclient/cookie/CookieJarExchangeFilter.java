@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.cookie;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import io.netty.handler.codec.http.cookie.ClientCookieDecoder;
+import io.netty.handler.codec.http.cookie.Cookie;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends the {@link CookieJar}'s cookies with every request and stores the cookies every
+ * response sets.
+ * <p>
+ * Cookies passed explicitly on the request are folded into the same {@code Cookie} header,
+ * ahead of the stored ones, so the downstream always sees a single header. The filter runs
+ * before load balancing, so cookies are scoped to the downstream's logical host rather than
+ * to whichever endpoint served the request.
+ * <p>
+ * {@code Set-Cookie} headers are decoded here rather than read from
+ * {@link ClientResponse#cookies()}, which reports a cookie whose {@code Expires} date has
+ * passed as a session cookie instead of a deleted one.
+ *
+ * @author samueladebowale
+ */
+public class CookieJarExchangeFilter implements ExchangeFilterFunction {
+
+    private final CookieJar cookieJar;
+
+    public CookieJarExchangeFilter(CookieJar cookieJar) {
+        this.cookieJar = cookieJar;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String stored = cookieJar.cookieHeader(request.url());
+
+        ClientRequest outgoing = request;
+        if (stored != null) {
+            StringBuilder header = new StringBuilder();
+            request.cookies().forEach((name, values) -> values.forEach(value
+                    -> header.append(name).append('=').append(value).append("; ")));
+            request.headers().getOrEmpty(HttpHeaders.COOKIE).forEach(value -> header.append(value).append("; "));
+            header.append(stored);
+
+            outgoing = ClientRequest.from(request)
+                    .cookies(cookies -> cookies.clear())
+                    .headers(headers -> headers.set(HttpHeaders.COOKIE, header.toString()))
+                    .build();
+        }
+
+        return next.exchange(outgoing).doOnNext(response -> {
+            List<String> setCookies = response.headers().header(HttpHeaders.SET_COOKIE);
+            if (!setCookies.isEmpty()) {
+                cookieJar.store(request.url(), decode(setCookies));
+            }
+        });
+    }
+
+    private static List<ResponseCookie> decode(List<String> setCookies) {
+        List<ResponseCookie> cookies = new ArrayList<>(setCookies.size());
+        for (String setCookie : setCookies) {
+            Cookie cookie = ClientCookieDecoder.LAX.decode(setCookie);
+            if (cookie == null) {
+                continue;
+            }
+
+            // Netty turns Expires into a Max-Age, negative once the date has passed
+            long maxAge = cookie.maxAge() == Cookie.UNDEFINED_MAX_AGE ? -1 : Math.max(cookie.maxAge(), 0);
+            cookies.add(ResponseCookie.fromClientResponse(cookie.name(), cookie.value())
+                    .domain(cookie.domain())
+                    .path(cookie.path())
+                    .maxAge(maxAge)
+                    .secure(cookie.isSecure())
+                    .httpOnly(cookie.isHttpOnly())
+                    .build());
+        }
+        return cookies;
+    }
+}
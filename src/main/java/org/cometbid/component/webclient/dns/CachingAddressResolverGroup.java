@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.dns;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import io.netty.resolver.AddressResolver;
+import io.netty.resolver.AddressResolverGroup;
+import io.netty.resolver.InetNameResolver;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Promise;
+
+/**
+ * Adapts a {@link CachingDnsResolver} to the resolver SPI used by Reactor Netty's
+ * {@code HttpClient#resolver(AddressResolverGroup)}.
+ *
+ * @author samueladebowale
+ */
+public class CachingAddressResolverGroup extends AddressResolverGroup<InetSocketAddress> {
+
+    private final CachingDnsResolver dnsResolver;
+
+    public CachingAddressResolverGroup(CachingDnsResolver dnsResolver) {
+        this.dnsResolver = dnsResolver;
+    }
+
+    @Override
+    protected AddressResolver<InetSocketAddress> newResolver(EventExecutor executor) {
+        return new CachingNameResolver(executor, dnsResolver).asAddressResolver();
+    }
+
+    private static final class CachingNameResolver extends InetNameResolver {
+
+        private final CachingDnsResolver dnsResolver;
+
+        CachingNameResolver(EventExecutor executor, CachingDnsResolver dnsResolver) {
+            super(executor);
+            this.dnsResolver = dnsResolver;
+        }
+
+        @Override
+        protected void doResolve(String inetHost, Promise<InetAddress> promise) {
+            dnsResolver.resolveAll(inetHost).whenComplete((addresses, ex) -> {
+                if (ex != null) {
+                    promise.tryFailure(ex);
+                } else {
+                    promise.trySuccess(addresses.get(0));
+                }
+            });
+        }
+
+        @Override
+        protected void doResolveAll(String inetHost, Promise<List<InetAddress>> promise) {
+            dnsResolver.resolveAll(inetHost).whenComplete((addresses, ex) -> {
+                if (ex != null) {
+                    promise.tryFailure(ex);
+                } else {
+                    promise.trySuccess(addresses);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,425 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.dns;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.cometbid.component.webclient.WebClientProperties.Dns;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.codec.dns.DefaultDnsQuestion;
+import io.netty.handler.codec.dns.DnsRawRecord;
+import io.netty.handler.codec.dns.DnsRecord;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.resolver.HostsFileEntriesResolver;
+import io.netty.resolver.ResolvedAddressTypes;
+import io.netty.resolver.dns.DnsNameResolver;
+import io.netty.resolver.dns.DnsNameResolverBuilder;
+import io.netty.resolver.dns.DnsNameResolverTimeoutException;
+import io.netty.resolver.dns.DnsServerAddressStreamProviders;
+import io.netty.resolver.dns.NoopDnsCache;
+import io.netty.resolver.dns.SequentialDnsServerAddressStreamProvider;
+import io.netty.util.NetUtil;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Asynchronous DNS resolver with its own TTL-aware cache, one instance per downstream.
+ * <p>
+ * Record TTLs are clamped to the configured min/max bounds. Entries are refreshed in the
+ * background shortly before they expire, so callers on the hot path rarely wait on a
+ * query, and an expired entry keeps being served for up to {@code maxStale} while the name
+ * servers fail. Unknown hosts are cached for {@code negativeTtl}. Concurrent lookups of
+ * the same host share one in-flight query.
+ * <p>
+ * Like the platform resolver, names with fewer than {@code ndots} dots are tried with each
+ * search domain first, so short service names keep resolving; both default to
+ * {@code /etc/resolv.conf}.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class CachingDnsResolver implements AutoCloseable {
+
+    private static final String RESOLV_CONF = "/etc/resolv.conf";
+
+    private final Dns settings;
+
+    private final EventLoopGroup eventLoopGroup;
+
+    private final DnsNameResolver resolver;
+
+    private final List<String> searchDomains;
+
+    private final int ndots;
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<Entry>> inflight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder backgroundRefreshes = new LongAdder();
+    private final LongAdder queryFailures = new LongAdder();
+
+    public CachingDnsResolver(String name, Dns settings) {
+        this.settings = settings;
+        this.eventLoopGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("dns-" + name, true));
+
+        DnsNameResolverBuilder builder = new DnsNameResolverBuilder(eventLoopGroup.next())
+                .channelType(NioDatagramChannel.class)
+                .queryTimeoutMillis(settings.getQueryTimeout().toMillis())
+                .resolveCache(NoopDnsCache.INSTANCE)
+                .recursionDesired(true);
+
+        if (settings.getNameServers().isEmpty()) {
+            builder.nameServerProvider(DnsServerAddressStreamProviders.platformDefault());
+        } else {
+            builder.nameServerProvider(new SequentialDnsServerAddressStreamProvider(
+                    settings.getNameServers().stream().map(CachingDnsResolver::toSocketAddress).toList()));
+        }
+        this.resolver = builder.build();
+
+        ResolverConfig platform = settings.getSearchDomains() == null || settings.getNdots() == null
+                ? ResolverConfig.read(Path.of(RESOLV_CONF)) : null;
+        this.searchDomains = settings.getSearchDomains() != null ? List.copyOf(settings.getSearchDomains())
+                : platform.searchDomains();
+        this.ndots = settings.getNdots() != null ? settings.getNdots() : platform.ndots();
+    }
+
+    /**
+     *
+     * @param host
+     * @return
+     */
+    public CompletableFuture<List<InetAddress>> resolveAll(String host) {
+        InetAddress literal = NetUtil.createInetAddressFromIpAddressString(host);
+        if (literal == null) {
+            literal = HostsFileEntriesResolver.DEFAULT.address(host, ResolvedAddressTypes.IPV4_PREFERRED);
+        }
+        if (literal != null) {
+            return CompletableFuture.completedFuture(Collections.singletonList(literal));
+        }
+
+        long now = System.nanoTime();
+        Entry entry = cache.get(host);
+
+        if (entry != null && now - entry.expiresAt < 0) {
+            if (entry.isNegative()) {
+                negativeHits.increment();
+            } else {
+                hits.increment();
+                if (now - entry.refreshAt >= 0 && entry.refreshing.compareAndSet(false, true)) {
+                    backgroundRefreshes.increment();
+                    query(host);
+                }
+            }
+            return entry.toFuture();
+        }
+
+        misses.increment();
+        return query(host).thenCompose(Entry::toFuture);
+    }
+
+    /**
+     *
+     * @return
+     */
+    public DnsCacheMetrics metrics() {
+        return new DnsCacheMetrics(hits.sum(), misses.sum(), negativeHits.sum(), staleServed.sum(),
+                backgroundRefreshes.sum(), queryFailures.sum(), cache.size());
+    }
+
+    private CompletableFuture<Entry> query(String host) {
+        CompletableFuture<Entry> pending = inflight.get(host);
+        if (pending != null) {
+            return pending;
+        }
+
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        pending = inflight.putIfAbsent(host, created);
+        if (pending != null) {
+            return pending;
+        }
+
+        queryCandidates(host, candidates(host), 0, null)
+                .whenComplete((entry, ex) -> {
+                    inflight.remove(host);
+                    if (ex == null) {
+                        cache.put(host, entry);
+                        created.complete(entry);
+                    } else {
+                        created.complete(onQueryFailure(host, ex));
+                    }
+                });
+        return created;
+    }
+
+    /**
+     * Tries the names in order until one has addresses, the way the platform resolver walks
+     * its search list; a name that does not exist moves on to the next, any other failure,
+     * such as a timed out query, ends the lookup.
+     */
+    private CompletableFuture<Entry> queryCandidates(String host, List<String> names, int index, Entry negative) {
+        if (index == names.size()) {
+            // as a failed query, so that stale addresses are still served
+            return CompletableFuture.failedFuture(negative.failure);
+        }
+
+        String name = names.get(index);
+        return queryName(host, name)
+                .exceptionallyCompose(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    return cause instanceof UnknownHostException unknownHost
+                            && ExceptionUtils.indexOfType(cause, DnsNameResolverTimeoutException.class) < 0
+                            ? CompletableFuture.completedFuture(Entry.negative(unknownHost,
+                                    System.nanoTime() + settings.getNegativeTtl().toNanos()))
+                            : CompletableFuture.failedFuture(cause);
+                })
+                .thenCompose(entry -> entry.isNegative()
+                        ? queryCandidates(host, names, index + 1, negative != null ? negative : entry)
+                        : CompletableFuture.completedFuture(entry));
+    }
+
+    private CompletableFuture<Entry> queryName(String host, String name) {
+        return queryRecords(host, name, DnsRecordType.A).thenCompose(entry -> entry.isNegative()
+                ? queryRecords(host, name, DnsRecordType.AAAA) : CompletableFuture.completedFuture(entry));
+    }
+
+    /**
+     * The names to query for {@code host}: with fewer than {@code ndots} dots the search
+     * domains are tried first and the name itself last, otherwise the other way round. A
+     * trailing dot marks a fully qualified name, which is queried as it is.
+     */
+    List<String> candidates(String host) {
+        if (host.endsWith(".")) {
+            return List.of(host.substring(0, host.length() - 1));
+        }
+
+        List<String> searched = searchDomains.stream()
+                .map(domain -> host + "." + StringUtils.removeEnd(domain, "."))
+                .toList();
+        List<String> names = new ArrayList<>(searched.size() + 1);
+        if (StringUtils.countMatches(host, '.') >= ndots) {
+            names.add(host);
+            names.addAll(searched);
+        } else {
+            names.addAll(searched);
+            names.add(host);
+        }
+        return names;
+    }
+
+    private CompletableFuture<Entry> queryRecords(String host, String name, DnsRecordType type) {
+        CompletableFuture<Entry> result = new CompletableFuture<>();
+
+        resolver.resolveAll(new DefaultDnsQuestion(name, type)).addListener(future -> {
+            if (!future.isSuccess()) {
+                result.completeExceptionally(future.cause());
+                return;
+            }
+
+            @SuppressWarnings("unchecked")
+            List<DnsRecord> records = (List<DnsRecord>) future.getNow();
+            try {
+                result.complete(toEntry(host, type, records));
+            } catch (UnknownHostException ex) {
+                result.completeExceptionally(ex);
+            } finally {
+                records.forEach(ReferenceCountUtil::release);
+            }
+        });
+        return result;
+    }
+
+    private Entry toEntry(String host, DnsRecordType type, List<DnsRecord> records) throws UnknownHostException {
+        List<InetAddress> addresses = new ArrayList<>(records.size());
+        long ttlSeconds = Long.MAX_VALUE;
+
+        for (DnsRecord record : records) {
+            if (record.type() == type && record instanceof DnsRawRecord raw) {
+                ByteBuf content = raw.content();
+                byte[] bytes = new byte[content.readableBytes()];
+                content.getBytes(content.readerIndex(), bytes);
+
+                addresses.add(InetAddress.getByAddress(host, bytes));
+                ttlSeconds = Math.min(ttlSeconds, record.timeToLive());
+            }
+        }
+
+        long now = System.nanoTime();
+        if (addresses.isEmpty()) {
+            return Entry.negative(new UnknownHostException("No " + type + " record for " + host),
+                    now + settings.getNegativeTtl().toNanos());
+        }
+
+        long ttlNanos = Math.max(settings.getMinTtl().toNanos(),
+                Math.min(settings.getMaxTtl().toNanos(), ttlSeconds * 1_000_000_000L));
+        long expiresAt = now + ttlNanos;
+        long refreshAt = expiresAt - Math.min(settings.getRefreshBeforeExpiry().toNanos(), ttlNanos / 2);
+
+        return Entry.positive(Collections.unmodifiableList(addresses), refreshAt, expiresAt,
+                expiresAt + settings.getMaxStale().toNanos());
+    }
+
+    private Entry onQueryFailure(String host, Throwable failed) {
+        Throwable ex = failed instanceof CompletionException && failed.getCause() != null ? failed.getCause() : failed;
+        queryFailures.increment();
+
+        Entry previous = cache.get(host);
+        if (previous != null && !previous.isNegative() && System.nanoTime() - previous.staleUntil < 0) {
+            log.warn("DNS query for {} failed ({}), serving stale addresses", host, ex.toString());
+            staleServed.increment();
+            previous.refreshing.set(false);
+
+            return previous;
+        }
+
+        if (ex instanceof UnknownHostException unknownHost) {
+            Entry negative = Entry.negative(unknownHost, System.nanoTime() + settings.getNegativeTtl().toNanos());
+            cache.put(host, negative);
+
+            return negative;
+        }
+
+        UnknownHostException failure = new UnknownHostException("Failed to resolve " + host);
+        failure.initCause(ex);
+
+        return Entry.negative(failure, System.nanoTime());
+    }
+
+    private static InetSocketAddress toSocketAddress(String hostAndPort) {
+        String host = StringUtils.substringBeforeLast(hostAndPort, ":");
+        String port = StringUtils.substringAfterLast(hostAndPort, ":");
+
+        return new InetSocketAddress(host, StringUtils.isNumeric(port) ? Integer.parseInt(port) : 53);
+    }
+
+    @Override
+    public void close() {
+        resolver.close();
+        eventLoopGroup.shutdownGracefully();
+    }
+
+    private static final class Entry {
+
+        final List<InetAddress> addresses;
+
+        final UnknownHostException failure;
+
+        final long refreshAt;
+
+        final long expiresAt;
+
+        final long staleUntil;
+
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(List<InetAddress> addresses, UnknownHostException failure, long refreshAt, long expiresAt,
+                long staleUntil) {
+            this.addresses = addresses;
+            this.failure = failure;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+            this.staleUntil = staleUntil;
+        }
+
+        static Entry positive(List<InetAddress> addresses, long refreshAt, long expiresAt, long staleUntil) {
+            return new Entry(addresses, null, refreshAt, expiresAt, staleUntil);
+        }
+
+        static Entry negative(UnknownHostException failure, long expiresAt) {
+            return new Entry(null, failure, expiresAt, expiresAt, expiresAt);
+        }
+
+        boolean isNegative() {
+            return addresses == null;
+        }
+
+        CompletableFuture<List<InetAddress>> toFuture() {
+            return isNegative() ? CompletableFuture.failedFuture(failure) : CompletableFuture.completedFuture(addresses);
+        }
+    }
+
+    /**
+     * The {@code search} (or {@code domain}) and {@code options ndots:} lines of a
+     * resolv.conf; no search domains and {@code ndots:1} when it cannot be read.
+     */
+    record ResolverConfig(List<String> searchDomains, int ndots) {
+
+        static ResolverConfig read(Path file) {
+            List<String> searchDomains = List.of();
+            int ndots = 1;
+
+            if (!Files.isReadable(file)) {
+                return new ResolverConfig(searchDomains, ndots);
+            }
+            try {
+                for (String line : Files.readAllLines(file)) {
+                    String[] tokens = StringUtils.split(line.trim());
+                    if (tokens.length < 2) {
+                        continue;
+                    }
+                    switch (tokens[0]) {
+                        case "search", "domain" ->
+                            searchDomains = List.of(tokens).subList(1, tokens.length);
+                        case "options" -> {
+                            for (String option : tokens) {
+                                if (option.startsWith("ndots:")) {
+                                    ndots = Math.min(15, NumberUtils.toInt(option.substring(6), ndots));
+                                }
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                }
+            } catch (IOException ex) {
+                log.warn("Cannot read {}, resolving without search domains: {}", file, ex.toString());
+            }
+            return new ResolverConfig(searchDomains, ndots);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.download;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.springframework.util.unit.DataSize;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Describes a download for {@link RangeDownloader}.
+ *
+ * @author samueladebowale
+ */
+@Value
+@Builder
+public class RangeDownloadSpec {
+
+    /**
+     * The object, absolute or relative to the WebClient base URL.
+     */
+    @NonNull
+    URI uri;
+
+    @NonNull
+    Path target;
+
+    @Builder.Default
+    Map<String, List<String>> headerFields = Collections.emptyMap();
+
+    @Builder.Default
+    DataSize rangeSize = DataSize.ofMegabytes(8);
+
+    /**
+     * Ranges fetched at the same time, each over its own pooled connection.
+     */
+    @Builder.Default
+    int concurrency = 4;
+
+    @Builder.Default
+    int rangeRetries = 3;
+
+    @Builder.Default
+    Duration retryBackoff = Duration.ofMillis(200);
+
+    /**
+     * Hex encoded digest the downloaded file must match, skipped when {@code null}.
+     */
+    String expectedChecksum;
+
+    @Builder.Default
+    String checksumAlgorithm = "SHA-256";
+}
@@ -0,0 +1,290 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.download;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.apache.commons.collections4.MapUtils;
+import org.cometbid.component.webclient.RequestUris;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+import static org.cometbid.component.webclient.WebClientExceptionHandler.isEndpointFailure;
+import static org.cometbid.component.webclient.WebClientExceptionHandler.processResponse;
+
+/**
+ * Downloads large objects as concurrent HTTP range requests.
+ * <p>
+ * A {@code HEAD} probe reads {@code Accept-Ranges}, {@code Content-Length} and the
+ * {@code ETag}. When ranges are supported the object is split into
+ * {@link RangeDownloadSpec#getRangeSize() rangeSize} pieces fetched
+ * {@link RangeDownloadSpec#getConcurrency() concurrency} at a time, each written straight
+ * into its offset of the target file with positional writes, so no range is ever held in
+ * memory. A range that fails or arrives short is retried on its own, from its first byte
+ * not yet written; {@code If-Range} makes the downstream answer {@code 200} instead of
+ * {@code 206} if the object changed in the meantime, which aborts the download. It carries
+ * the {@code ETag} when that is strong and {@code Last-Modified} otherwise, since a weak
+ * {@code ETag} never matches and would abort every download. Downstreams without range
+ * support are read as a single stream. The final file length, and optionally its checksum, is verified.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class RangeDownloader {
+
+    /**
+     *
+     * @param webClient
+     * @param spec
+     * @return
+     */
+    public Mono<DownloadResult> download(WebClient webClient, RangeDownloadSpec spec) {
+        return probe(webClient, spec).flatMap(headers -> {
+            long length = headers.getContentLength();
+            boolean ranged = length > 0 && headers.getOrEmpty(HttpHeaders.ACCEPT_RANGES).stream()
+                    .anyMatch(value -> value.contains("bytes"));
+            List<Range> ranges = ranged ? split(length, spec.getRangeSize().toBytes()) : List.of();
+
+            return Mono.using(() -> open(spec.getTarget()),
+                    channel -> (ranged ? fetchRanges(webClient, spec, channel, ranges, validator(headers))
+                            : fetchWhole(webClient, spec, channel))
+                            .then(verify(spec, channel, length, ranged ? ranges.size() : 1)),
+                    RangeDownloader::close);
+        });
+    }
+
+    private Mono<HttpHeaders> probe(WebClient webClient, RangeDownloadSpec spec) {
+        return request(webClient.head(), spec.getUri())
+                .headers(addHeaders(spec))
+                .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                ? response.releaseBody().thenReturn(response.headers().asHttpHeaders())
+                : processResponse(response, HttpHeaders.class));
+    }
+
+    /**
+     * The {@code If-Range} value: a strong {@code ETag}, else {@code Last-Modified}, else none.
+     */
+    private static String validator(HttpHeaders headers) {
+        String etag = headers.getETag();
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return headers.getFirst(HttpHeaders.LAST_MODIFIED);
+    }
+
+    private Mono<Long> fetchRanges(WebClient webClient, RangeDownloadSpec spec, AsynchronousFileChannel channel,
+            List<Range> ranges, String validator) {
+
+        return Flux.fromIterable(ranges)
+                .flatMap(range -> fetchRange(webClient, spec, channel, range, validator, new AtomicLong())
+                        .retryWhen(Retry.backoff(spec.getRangeRetries(), spec.getRetryBackoff())
+                                .filter(RangeDownloader::isRetryable)
+                                .doBeforeRetry(signal -> log.warn("Retrying range {} of {}: {}", range, spec.getUri(),
+                                        signal.failure().toString()))), spec.getConcurrency())
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Each attempt asks only for the bytes of the range not yet written, so a range cut off
+     * part way resumes where it stopped.
+     */
+    private Mono<Long> fetchRange(WebClient webClient, RangeDownloadSpec spec, AsynchronousFileChannel channel,
+            Range range, String validator, AtomicLong written) {
+
+        return Mono.defer(() -> {
+            long from = range.start() + written.get();
+
+            return request(webClient.get(), spec.getUri())
+                    .headers(addHeaders(spec))
+                    .headers(headers -> {
+                        headers.set(HttpHeaders.RANGE, "bytes=" + from + "-" + range.end());
+                        if (validator != null) {
+                            headers.set(HttpHeaders.IF_RANGE, validator);
+                        }
+                    })
+                    .exchangeToMono(response -> receive(response, spec, channel, range, from, written));
+        });
+    }
+
+    private static Mono<Long> receive(ClientResponse response, RangeDownloadSpec spec,
+            AsynchronousFileChannel channel, Range range, long from, AtomicLong written) {
+
+        if (response.statusCode().value() == HttpStatus.PARTIAL_CONTENT.value()) {
+            return write(response, channel, from, written)
+                    .map(total -> {
+                        if (total != range.length()) {
+                            throw new IncompleteRangeException(range, total);
+                        }
+                        return total;
+                    });
+        }
+        if (response.statusCode().is2xxSuccessful()) {
+            return response.releaseBody().then(Mono.error(new IllegalStateException(
+                    "Downstream ignored range " + range + " of " + spec.getUri()
+                    + ", the object changed or ranges are not honoured")));
+        }
+        return processResponse(response, Long.class);
+    }
+
+    private Mono<Long> fetchWhole(WebClient webClient, RangeDownloadSpec spec, AsynchronousFileChannel channel) {
+        return request(webClient.get(), spec.getUri())
+                .headers(addHeaders(spec))
+                .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                ? write(response, channel, 0, new AtomicLong())
+                : processResponse(response, Long.class));
+    }
+
+    /**
+     * Counts a buffer into {@code written} once it is on disk, never when merely received.
+     */
+    private static Mono<Long> write(ClientResponse response, AsynchronousFileChannel channel, long position,
+            AtomicLong written) {
+
+        return DataBufferUtils.write(response.bodyToFlux(DataBuffer.class), channel, position)
+                .doOnNext(buffer -> {
+                    written.addAndGet(buffer.readableByteCount());
+                    DataBufferUtils.release(buffer);
+                })
+                .then(Mono.fromSupplier(written::get));
+    }
+
+    private Mono<DownloadResult> verify(RangeDownloadSpec spec, AsynchronousFileChannel channel, long length,
+            int ranges) {
+
+        return Mono.fromCallable(() -> {
+            channel.force(false);
+
+            long size = channel.size();
+            if (length >= 0 && size != length) {
+                throw new IllegalStateException("Downloaded " + size + " bytes of " + spec.getUri()
+                        + ", expected " + length);
+            }
+
+            String checksum = null;
+            if (spec.getExpectedChecksum() != null) {
+                checksum = checksum(spec.getTarget(), spec.getChecksumAlgorithm());
+                if (!checksum.equalsIgnoreCase(spec.getExpectedChecksum())) {
+                    throw new IllegalStateException(spec.getChecksumAlgorithm() + " of " + spec.getTarget()
+                            + " is " + checksum + ", expected " + spec.getExpectedChecksum());
+                }
+            }
+            return new DownloadResult(spec.getTarget(), size, ranges, checksum);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static String checksum(Path path, String algorithm) throws IOException, NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance(algorithm);
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (file.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static List<Range> split(long length, long rangeSize) {
+        List<Range> ranges = new ArrayList<>((int) (length / rangeSize) + 1);
+        for (long start = 0; start < length; start += rangeSize) {
+            ranges.add(new Range(start, Math.min(start + rangeSize, length) - 1));
+        }
+        return ranges;
+    }
+
+    private static boolean isRetryable(Throwable ex) {
+        return ex instanceof IncompleteRangeException || ex instanceof IOException || isEndpointFailure(ex);
+    }
+
+    private static WebClient.RequestHeadersSpec<?> request(WebClient.RequestHeadersUriSpec<?> method, URI uri) {
+        return method.uri(uriBuilder -> RequestUris.resolve(uriBuilder, uri));
+    }
+
+    private static Consumer<HttpHeaders> addHeaders(RangeDownloadSpec spec) {
+        return headers -> {
+            if (MapUtils.isNotEmpty(spec.getHeaderFields())) {
+                headers.putAll(spec.getHeaderFields());
+            }
+        };
+    }
+
+    private static AsynchronousFileChannel open(Path target) {
+        try {
+            return AsynchronousFileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void close(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            log.warn("Failed to close download channel: {}", ex.toString());
+        }
+    }
+
+    private record Range(long start, long end) {
+
+        long length() {
+            return end - start + 1;
+        }
+
+        @Override
+        public String toString() {
+            return start + "-" + end;
+        }
+    }
+
+    private static final class IncompleteRangeException extends RuntimeException {
+
+        IncompleteRangeException(Range range, long written) {
+            super("Range " + range + " ended after " + written + " of " + range.length() + " bytes");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.fault;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import org.cometbid.component.webclient.SyntheticResponses;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Mono;
+
+/**
+ * Injects latency, error statuses and connection aborts into a downstream's calls while
+ * its {@link FaultInjector} is active.
+ * <p>
+ * The first rule matching a call decides its faults, each drawn with its own probability:
+ * an abort fails the call with the {@link WebClientRequestException} a reset connection
+ * would raise, a status answers it with an empty response without contacting the
+ * downstream, and a delay holds the real response, and so its pooled connection, before
+ * handing it on. All of them then go through {@code processResponse} and the exception
+ * handlers exactly like real failures.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class FaultInjectionExchangeFilter implements ExchangeFilterFunction {
+
+    private final FaultInjector injector;
+
+    private final ExchangeStrategies strategies;
+
+    public FaultInjectionExchangeFilter(FaultInjector injector, ExchangeStrategies strategies) {
+        this.injector = injector;
+        this.strategies = strategies;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!injector.isActive()) {
+            return next.exchange(request);
+        }
+
+        WebClientProperties.FaultRule rule = match(request);
+        if (rule == null) {
+            return next.exchange(request);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (random.nextDouble() < rule.getAbortProbability()) {
+            injector.aborted();
+            log.debug("Injecting abort into {} {} of '{}'", request.method(), request.url(), injector.getName());
+
+            return Mono.error(new WebClientRequestException(new IOException("Connection reset by peer (injected)"),
+                    request.method(), request.url(), request.headers()));
+        }
+
+        if (rule.getStatus() != null && random.nextDouble() < rule.getStatusProbability()) {
+            injector.failed();
+            log.debug("Injecting status {} into {} {} of '{}'", rule.getStatus(), request.method(), request.url(),
+                    injector.getName());
+
+            return Mono.just(SyntheticResponses.builder(request, HttpStatusCode.valueOf(rule.getStatus()), strategies)
+                    .build());
+        }
+
+        if (!rule.getDelay().isZero() && random.nextDouble() < rule.getDelayProbability()) {
+            injector.delayed();
+
+            return next.exchange(request).flatMap(response -> Mono.delay(rule.getDelay())
+                    .thenReturn(response)
+                    .doOnCancel(() -> response.releaseBody().onErrorResume(ex -> Mono.empty()).subscribe()));
+        }
+
+        return next.exchange(request);
+    }
+
+    private WebClientProperties.FaultRule match(ClientRequest request) {
+        for (FaultMatcher matcher : injector.rules()) {
+            if (matcher.matches(request)) {
+                return matcher.getRule();
+            }
+        }
+        return null;
+    }
+}
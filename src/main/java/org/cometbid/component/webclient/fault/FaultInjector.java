@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.fault;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import org.cometbid.component.webclient.WebClientProperties;
+import lombok.Getter;
+
+/**
+ * The runtime switch and rules of a downstream's {@link FaultInjectionExchangeFilter}.
+ * <p>
+ * Both are read once per call, with a single volatile read when inactive, and can be
+ * changed at any time, e.g. from a test or an actuator endpoint, without rebuilding the
+ * client.
+ *
+ * @author samueladebowale
+ */
+public class FaultInjector {
+
+    @Getter
+    private final String name;
+
+    private volatile boolean active;
+
+    private volatile List<FaultMatcher> rules;
+
+    private final LongAdder delayed = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder aborted = new LongAdder();
+
+    public FaultInjector(String name, WebClientProperties.Faults properties) {
+        this.name = name;
+        this.active = properties.isActive();
+        this.rules = compile(properties.getRules());
+    }
+
+    /**
+     *
+     */
+    public void activate() {
+        active = true;
+    }
+
+    /**
+     *
+     */
+    public void deactivate() {
+        active = false;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Replaces the rules; calls already in flight keep the faults they were given.
+     *
+     * @param rules
+     */
+    public void setRules(List<WebClientProperties.FaultRule> rules) {
+        this.rules = compile(rules);
+    }
+
+    List<FaultMatcher> rules() {
+        return rules;
+    }
+
+    void delayed() {
+        delayed.increment();
+    }
+
+    void failed() {
+        failed.increment();
+    }
+
+    void aborted() {
+        aborted.increment();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public long getDelayed() {
+        return delayed.sum();
+    }
+
+    /**
+     *
+     * @return calls answered with an injected status
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public long getAborted() {
+        return aborted.sum();
+    }
+
+    private static List<FaultMatcher> compile(List<WebClientProperties.FaultRule> rules) {
+        return rules.stream().map(FaultMatcher::new).toList();
+    }
+}
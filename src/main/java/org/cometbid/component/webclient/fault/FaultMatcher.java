@@ -0,0 +1,69 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.fault;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import lombok.Getter;
+
+/**
+ * A {@link WebClientProperties.FaultRule} with its path pattern parsed.
+ *
+ * @author samueladebowale
+ */
+@Getter
+class FaultMatcher {
+
+    private final PathPattern path;
+
+    private final Set<HttpMethod> methods;
+
+    private final WebClientProperties.FaultRule rule;
+
+    FaultMatcher(WebClientProperties.FaultRule rule) {
+        this.rule = rule;
+        this.path = StringUtils.isBlank(rule.getPath()) ? null : PathPatternParser.defaultInstance.parse(rule.getPath());
+        this.methods = rule.getMethods().stream().map(HttpMethod::valueOf).collect(Collectors.toUnmodifiableSet());
+    }
+
+    boolean matches(ClientRequest request) {
+        if (!methods.isEmpty() && !methods.contains(request.method())) {
+            return false;
+        }
+        if (StringUtils.isNotBlank(rule.getHeaderName())) {
+            String value = request.headers().getFirst(rule.getHeaderName());
+            if (value == null || StringUtils.isNotBlank(rule.getHeaderValue()) && !rule.getHeaderValue().equals(value)) {
+                return false;
+            }
+        }
+        return path == null || path.matches(PathContainer.parsePath(request.url().getRawPath()));
+    }
+}
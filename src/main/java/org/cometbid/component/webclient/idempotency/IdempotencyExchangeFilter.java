@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.idempotency;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cometbid.component.api.generic.exceptions.ApiResponseException;
+import org.cometbid.component.webclient.ReplayableBodies;
+import org.cometbid.component.webclient.WebClientExceptionHandler;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Makes non-idempotent requests safe to retry by tagging them with an idempotency key.
+ * <p>
+ * POST, PUT, PATCH and DELETE requests to the configured routes get a random key unless the
+ * caller already supplied one, on any route, through the request headers. Only keyed
+ * requests are retried, and only when their body
+ * {@link ReplayableBodies#isReplayable(ClientRequest) can be written again}, on connection
+ * failures and on the statuses
+ * {@link WebClientExceptionHandler#isEndpointFailure(org.springframework.http.HttpStatusCode)}
+ * accepts, since the downstream can then recognise a repeat of a request it already
+ * processed. The last response is returned as is once the retries run out.
+ * <p>
+ * A second request carrying a key that is still in flight in this process fails with a
+ * {@code 409} {@link ApiResponseException} instead of reaching the downstream.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class IdempotencyExchangeFilter implements ExchangeFilterFunction {
+
+    private static final Set<HttpMethod> UNSAFE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH,
+            HttpMethod.DELETE);
+
+    private final String name;
+
+    private final String headerName;
+
+    private final List<PathPattern> routes;
+
+    private final int maxRetries;
+
+    private final WebClientProperties.Idempotency properties;
+
+    private final Map<String, Boolean> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyExchangeFilter(String name, WebClientProperties.Idempotency properties) {
+        this.name = name;
+        this.properties = properties;
+        this.headerName = properties.getHeaderName();
+        this.maxRetries = properties.getMaxRetries();
+
+        PathPatternParser parser = new PathPatternParser();
+        this.routes = properties.getRoutes().stream().map(parser::parse).toList();
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!UNSAFE_METHODS.contains(request.method())) {
+            return next.exchange(request);
+        }
+
+        String key = request.headers().getFirst(headerName);
+        if (key == null) {
+            if (!matches(request)) {
+                return next.exchange(request);
+            }
+            key = UUID.randomUUID().toString();
+        }
+
+        String idempotencyKey = key;
+        ClientRequest keyed = ClientRequest.from(request)
+                .headers(headers -> headers.set(headerName, idempotencyKey))
+                .build();
+
+        return Mono.defer(() -> {
+            if (inFlight.putIfAbsent(idempotencyKey, Boolean.TRUE) != null) {
+                return Mono.error(new ApiResponseException("A request with " + headerName + " '" + idempotencyKey
+                        + "' is already in flight", HttpStatus.CONFLICT, null));
+            }
+
+            int retries = ReplayableBodies.isReplayable(request) ? maxRetries : 0;
+            return exchangeWithRetries(keyed, next, idempotencyKey, retries)
+                    .doFinally(signal -> inFlight.remove(idempotencyKey));
+        });
+    }
+
+    private Mono<ClientResponse> exchangeWithRetries(ClientRequest request, ExchangeFunction next, String key,
+            int retries) {
+        AtomicInteger attempts = new AtomicInteger();
+
+        return Mono.defer(() -> {
+            int attempt = attempts.getAndIncrement();
+
+            return next.exchange(request).flatMap(response -> {
+                if (attempt >= retries || !WebClientExceptionHandler.isEndpointFailure(response.statusCode())) {
+                    return Mono.just(response);
+                }
+
+                return response.releaseBody().then(Mono.error(new RetryableStatusException(response)));
+            });
+        })
+                .retryWhen(Retry.backoff(retries, properties.getRetryBackoff())
+                        .filter(ex -> ex instanceof RetryableStatusException || ex instanceof WebClientRequestException)
+                        .doBeforeRetry(signal -> log.debug("Retrying {} {} to '{}' with {} '{}' after {}",
+                        request.method(), request.url().getPath(), name, headerName, key,
+                        signal.failure().getMessage()))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private boolean matches(ClientRequest request) {
+        PathContainer path = PathContainer.parsePath(request.url().getRawPath());
+
+        return routes.stream().anyMatch(route -> route.matches(path));
+    }
+
+    /**
+     * Carries a retryable status through {@code retryWhen}; never reaches the caller, as the
+     * final attempt hands back the response itself.
+     */
+    private static final class RetryableStatusException extends RuntimeException {
+
+        RetryableStatusException(ClientResponse response) {
+            super("status " + response.statusCode().value(), null, false, false);
+        }
+    }
+}
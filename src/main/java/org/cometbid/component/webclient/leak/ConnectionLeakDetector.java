@@ -0,0 +1,288 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.leak;
+
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Tracks a downstream's calls from subscription until their response body is consumed, and
+ * reports, and by default releases, responses whose body is not subscribed within the leak
+ * timeout or, once subscribed, emits nothing for that long.
+ * <p>
+ * A response holds its pooled connection until its body is read or released, so a caller
+ * that drops the body of a {@code ResponseSpec} slowly drains the pool until acquisitions
+ * fail with {@code PoolAcquirePendingLimitException}. A body that keeps streaming is not a
+ * leak however long it takes, and neither is a subscribed {@code text/event-stream} body,
+ * which may stay quiet between events for longer than the leak timeout and is watched by
+ * the idle timeout of its SSE client instead. Every call is registered as a lease with its method and
+ * route, and a sampled fraction also with the stack it was subscribed from, so that the
+ * warning, and {@link #diagnostics()}, point at the code responsible.
+ * <p>
+ * Registered as the pool's {@link ConnectionProvider.MeterRegistrar} as well, the detector
+ * adds the acquired, idle and pending-acquire counts of each pool to the diagnostics.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class ConnectionLeakDetector implements ConnectionProvider.MeterRegistrar, AutoCloseable {
+
+    private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+
+    private static final int CALL_SITE_FRAMES = 12;
+
+    @Getter
+    private final String name;
+
+    private final long leakTimeoutNanos;
+
+    private final boolean forceRelease;
+
+    private final double callSiteSampleRate;
+
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final LongAdder leaksDetected = new LongAdder();
+
+    private final LongAdder forceReleased = new LongAdder();
+
+    private final Disposable reaper;
+
+    public ConnectionLeakDetector(String name, WebClientProperties.LeakDetection properties) {
+        this.name = name;
+        this.leakTimeoutNanos = properties.getLeakTimeout().toNanos();
+        this.forceRelease = properties.isForceRelease();
+        this.callSiteSampleRate = properties.getCallSiteSampleRate();
+
+        Duration period = properties.getLeakTimeout().dividedBy(4);
+        this.reaper = Flux.interval(period, period, Schedulers.parallel())
+                .subscribe(tick -> reap(), ex -> log.warn("Leak detection of '{}' stopped: {}", name, ex.toString()));
+    }
+
+    /**
+     *
+     * @return
+     */
+    public PoolDiagnostics diagnostics() {
+        long now = System.nanoTime();
+
+        List<PoolDiagnostics.Lease> active = leases.values().stream()
+                .sorted(Comparator.comparingLong(Lease::startNanos))
+                .map(lease -> lease.snapshot(now))
+                .toList();
+
+        List<PoolDiagnostics.Pool> poolStats = pools.entrySet().stream()
+                .map(entry -> new PoolDiagnostics.Pool(entry.getKey(), entry.getValue().acquiredSize(),
+                entry.getValue().idleSize(), entry.getValue().pendingAcquireSize(),
+                entry.getValue().maxAllocatedSize(), entry.getValue().maxPendingAcquireSize()))
+                .toList();
+
+        return new PoolDiagnostics(name, active, poolStats, leaksDetected.sum(), forceReleased.sum());
+    }
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+            ConnectionPoolMetrics metrics) {
+        pools.put(remoteAddress.toString(), metrics);
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        pools.remove(remoteAddress.toString());
+    }
+
+    Lease open(ClientRequest request) {
+        Throwable callSite = ThreadLocalRandom.current().nextDouble() < callSiteSampleRate
+                ? new Throwable("Subscribed at") : null;
+        String route = request.attribute(URI_TEMPLATE_ATTRIBUTE).map(Object::toString)
+                .orElseGet(() -> request.url().getRawPath());
+
+        Lease lease = new Lease(ids.incrementAndGet(), request.method().name(), route, System.nanoTime(), callSite);
+        leases.put(lease.id, lease);
+        return lease;
+    }
+
+    void close(Lease lease) {
+        if (lease.closed.compareAndSet(false, true)) {
+            leases.remove(lease.id);
+        }
+    }
+
+    private void reap() {
+        long now = System.nanoTime();
+
+        for (Lease lease : leases.values()) {
+            ClientResponse response = lease.response;
+            // a body that keeps emitting is a long download, not a leak
+            if (response == null || now - lease.lastActivityNanos < leakTimeoutNanos
+                    || (lease.subscribed && lease.eventStream) || !lease.reported.compareAndSet(false, true)) {
+                continue;
+            }
+
+            leaksDetected.increment();
+            log.warn("Response of {} {} from '{}' {} for {} ms{}{}", lease.method, lease.route, name,
+                    lease.subscribed ? "stalled" : "not subscribed", Duration.ofNanos(leakTimeoutNanos).toMillis(),
+                    forceRelease ? ", releasing its connection" : "",
+                    lease.callSite == null ? "" : "; subscribed at\n" + format(lease.callSite));
+
+            if (forceRelease) {
+                close(lease);
+                forceReleased.increment();
+                // cuts a body that is subscribed but stalled, drains one nobody subscribed to
+                lease.released.tryEmitEmpty();
+                response.releaseBody().onErrorResume(ex -> Mono.empty()).subscribe();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        reaper.dispose();
+        leases.clear();
+    }
+
+    private static String format(Throwable callSite) {
+        return Arrays.stream(callSite.getStackTrace())
+                .filter(frame -> !isFramework(frame.getClassName()))
+                .limit(CALL_SITE_FRAMES)
+                .map(frame -> "\tat " + frame)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static boolean isFramework(String className) {
+        return className.startsWith("reactor.") || className.startsWith("org.springframework.")
+                || className.startsWith("io.netty.") || className.startsWith("java.")
+                || className.startsWith("jdk.") || className.startsWith(ConnectionLeakDetector.class.getPackageName());
+    }
+
+    /**
+     * One call, from subscription until its body is consumed or released.
+     */
+    static final class Lease {
+
+        private final long id;
+
+        private final String method;
+
+        private final String route;
+
+        private final long startNanos;
+
+        private final Throwable callSite;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private final AtomicBoolean reported = new AtomicBoolean();
+
+        private final Sinks.Empty<Void> released = Sinks.empty();
+
+        private volatile ClientResponse response;
+
+        private volatile boolean subscribed;
+
+        private volatile boolean eventStream;
+
+        /**
+         * When the response arrived, the body was subscribed or it last emitted.
+         */
+        private volatile long lastActivityNanos;
+
+        Lease(long id, String method, String route, long startNanos, Throwable callSite) {
+            this.id = id;
+            this.method = method;
+            this.route = route;
+            this.startNanos = startNanos;
+            this.callSite = callSite;
+        }
+
+        long startNanos() {
+            return startNanos;
+        }
+
+        boolean hasResponse() {
+            return response != null;
+        }
+
+        /**
+         * The body, cut short with an error if the lease is released as leaked.
+         */
+        Flux<DataBuffer> guard(Flux<DataBuffer> body) {
+            return body
+                    .doOnSubscribe(subscription -> {
+                        lastActivityNanos = System.nanoTime();
+                        subscribed = true;
+                    })
+                    .doOnNext(buffer -> lastActivityNanos = System.nanoTime())
+                    .takeUntilOther(released.asMono())
+                    .concatWith(Mono.defer(() -> reported.get()
+                    ? Mono.error(new IllegalStateException("Response body released after the leak timeout"))
+                    : Mono.empty()));
+        }
+
+        void responded(ClientResponse response) {
+            this.lastActivityNanos = System.nanoTime();
+            this.eventStream = response.headers().contentType()
+                    .filter(MediaType.TEXT_EVENT_STREAM::isCompatibleWith)
+                    .isPresent();
+            this.response = response;
+        }
+
+        PoolDiagnostics.Lease snapshot(long now) {
+            PoolDiagnostics.LeaseState state = response == null ? PoolDiagnostics.LeaseState.AWAITING_RESPONSE
+                    : subscribed ? PoolDiagnostics.LeaseState.BODY_STREAMING : PoolDiagnostics.LeaseState.BODY_PENDING;
+
+            return new PoolDiagnostics.Lease(id, state, method, route,
+                    Duration.ofNanos(now - startNanos).toMillis(), callSite == null ? null : format(callSite));
+        }
+    }
+}
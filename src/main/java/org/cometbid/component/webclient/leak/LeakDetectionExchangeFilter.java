@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.leak;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registers every call with a {@link ConnectionLeakDetector} until the body of its response
+ * has been consumed, released or cancelled, or the exchange has failed.
+ * <p>
+ * Installed as the outermost filter, so that a forced release runs the body completion
+ * of every filter inside it, returning bulkhead and priority permits along with the
+ * connection.
+ *
+ * @author samueladebowale
+ */
+public class LeakDetectionExchangeFilter implements ExchangeFilterFunction {
+
+    private final ConnectionLeakDetector detector;
+
+    public LeakDetectionExchangeFilter(ConnectionLeakDetector detector) {
+        this.detector = detector;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            ConnectionLeakDetector.Lease lease = detector.open(request);
+
+            return next.exchange(request)
+                    .map(response -> {
+                        lease.responded(response);
+
+                        return response.mutate()
+                                .body(body -> lease.guard(body).doFinally(signal -> detector.close(lease)))
+                                .build();
+                    })
+                    .doOnError(ex -> detector.close(lease))
+                    .doOnCancel(() -> {
+                        if (!lease.hasResponse()) {
+                            detector.close(lease);
+                        }
+                    });
+        });
+    }
+}
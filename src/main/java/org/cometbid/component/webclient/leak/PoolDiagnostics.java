@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.leak;
+
+import java.util.List;
+import lombok.Value;
+
+/**
+ * Point-in-time view of a downstream's calls in flight and connection pools, from
+ * {@link ConnectionLeakDetector#diagnostics()}.
+ *
+ * @author samueladebowale
+ */
+@Value
+public class PoolDiagnostics {
+
+    String name;
+
+    /**
+     * Oldest first.
+     */
+    List<Lease> leases;
+
+    /**
+     * One per remote address the downstream has connected to.
+     */
+    List<Pool> pools;
+
+    long leaksDetected;
+
+    long forceReleased;
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    public enum LeaseState {
+        /**
+         * Waiting for a connection, for a filter such as the bulkhead, or for the response.
+         */
+        AWAITING_RESPONSE,
+        /**
+         * The response arrived and holds its connection, its body not yet subscribed.
+         */
+        BODY_PENDING,
+        /**
+         * The body is subscribed and holds the connection until it completes.
+         */
+        BODY_STREAMING
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Value
+    public static class Lease {
+
+        long id;
+
+        LeaseState state;
+
+        String method;
+
+        /**
+         * The URI template when the call used one, the path otherwise.
+         */
+        String route;
+
+        long ageMillis;
+
+        /**
+         * Where the call was subscribed, {@code null} when not sampled.
+         */
+        String callSite;
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    @Value
+    public static class Pool {
+
+        String remoteAddress;
+
+        int acquired;
+
+        int idle;
+
+        int pendingAcquire;
+
+        int maxConnections;
+
+        int maxPendingAcquire;
+    }
+}
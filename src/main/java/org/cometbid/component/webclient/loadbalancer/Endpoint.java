@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.loadbalancer;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * One replica of a load-balanced downstream, tracking a time-decayed moving average of its
+ * latency, its outstanding requests and its consecutive failures.
+ *
+ * @author samueladebowale
+ */
+public class Endpoint {
+
+    private final URI baseUri;
+
+    private final double decayNanos;
+
+    private final AtomicLong ewmaBits = new AtomicLong(Double.doubleToRawLongBits(0d));
+
+    private final AtomicLong lastUpdate = new AtomicLong(System.nanoTime());
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private volatile long ejectedAt;
+
+    private volatile boolean ejected;
+
+    Endpoint(URI baseUri, long decayNanos) {
+        this.baseUri = baseUri;
+        this.decayNanos = decayNanos;
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    public double getLatencyEwmaNanos() {
+        return Double.longBitsToDouble(ewmaBits.get());
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public boolean isEjected() {
+        return ejected;
+    }
+
+    /**
+     * Expected cost of sending one more request here: the latency average weighted by the
+     * requests already queued on the endpoint.
+     */
+    double cost() {
+        return (getLatencyEwmaNanos() + 1d) * (outstanding.get() + 1);
+    }
+
+    void start() {
+        outstanding.incrementAndGet();
+    }
+
+    void finish() {
+        outstanding.decrementAndGet();
+    }
+
+    void recordLatency(long latencyNanos) {
+        long now = System.nanoTime();
+        double weight = Math.exp(-Math.max(0L, now - lastUpdate.getAndSet(now)) / decayNanos);
+
+        long current;
+        long updated;
+        do {
+            current = ewmaBits.get();
+            double ewma = Double.longBitsToDouble(current);
+            updated = Double.doubleToRawLongBits(ewma == 0d ? latencyNanos : ewma * weight + latencyNanos * (1d - weight));
+        } while (!ewmaBits.compareAndSet(current, updated));
+    }
+
+    int recordFailure() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    void recordSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    void eject() {
+        ejectedAt = System.nanoTime();
+        ejected = true;
+    }
+
+    void restore() {
+        consecutiveFailures.set(0);
+        ejected = false;
+    }
+
+    long ejectedAt() {
+        return ejectedAt;
+    }
+
+    /**
+     * Rewrites the scheme, host and port of a request URL to this endpoint, keeping the
+     * already encoded path and query.
+     */
+    URI rewrite(URI url) {
+        return UriComponentsBuilder.fromUri(url)
+                .scheme(baseUri.getScheme())
+                .host(baseUri.getHost())
+                .port(baseUri.getPort())
+                .build(true)
+                .toUri();
+    }
+
+    @Override
+    public String toString() {
+        return baseUri.toString();
+    }
+}
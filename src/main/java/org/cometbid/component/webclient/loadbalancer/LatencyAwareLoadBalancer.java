@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.loadbalancer;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.cometbid.component.webclient.WebClientProperties.LoadBalancer;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Power-of-two-choices balancer over the endpoints of one downstream.
+ * <p>
+ * Each pick samples two endpoints at random and keeps the one with the lower
+ * {@link Endpoint#cost() cost}, which tracks replica latency and load without the herding
+ * that "always pick the best" causes. Endpoints failing
+ * {@code ejectAfterConsecutiveErrors} times in a row are ejected; once
+ * {@code ejectionTime} has passed they are probed on {@code probePath} and restored when
+ * the probe answers {@code 2xx}. If every endpoint is ejected the balancer falls back to all of them.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class LatencyAwareLoadBalancer implements AutoCloseable {
+
+    private final String name;
+
+    private final Endpoint[] endpoints;
+
+    private final LoadBalancer settings;
+
+    private final HttpClient probeClient;
+
+    private final Disposable probes;
+
+    public LatencyAwareLoadBalancer(String name, List<String> endpointUrls, LoadBalancer settings,
+            HttpClient probeClient) {
+        if (endpointUrls.isEmpty()) {
+            throw new IllegalArgumentException("Downstream '" + name + "' has no endpoints to balance across");
+        }
+        this.name = name;
+        this.settings = settings;
+        this.probeClient = probeClient;
+        this.endpoints = endpointUrls.stream()
+                .map(url -> new Endpoint(URI.create(url), settings.getDecay().toNanos()))
+                .toArray(Endpoint[]::new);
+        this.probes = Flux.interval(settings.getProbeInterval(), settings.getProbeInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> probeEjected())
+                .subscribe();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public List<Endpoint> getEndpoints() {
+        return List.of(endpoints);
+    }
+
+    /**
+     *
+     * @return
+     */
+    public Endpoint choose() {
+        int size = endpoints.length;
+        if (size == 1) {
+            return endpoints[0];
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        Endpoint a = endpoints[first];
+        Endpoint b = endpoints[second];
+
+        if (a.isEjected() || b.isEjected()) {
+            if (!a.isEjected()) {
+                return a;
+            }
+            if (!b.isEjected()) {
+                return b;
+            }
+            return firstAvailable(a, b);
+        }
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+    void onResponse(Endpoint endpoint, long latencyNanos, boolean failure) {
+        endpoint.recordLatency(latencyNanos);
+
+        if (!failure) {
+            endpoint.recordSuccess();
+            return;
+        }
+
+        int failures = endpoint.recordFailure();
+        if (failures >= settings.getEjectAfterConsecutiveErrors() && !endpoint.isEjected() && tryEject(endpoint)) {
+            log.warn("Ejected endpoint {} of downstream '{}' after {} consecutive errors", endpoint, name, failures);
+        }
+    }
+
+    private Endpoint firstAvailable(Endpoint a, Endpoint b) {
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.isEjected()) {
+                return endpoint;
+            }
+        }
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+    /**
+     * Never eject the last available endpoint, there would be nothing left to fail over to.
+     * Counting and ejecting happen under one lock, so that endpoints failing concurrently
+     * cannot each see another one still available and eject them all.
+     */
+    private synchronized boolean tryEject(Endpoint endpoint) {
+        if (endpoint.isEjected()) {
+            return false;
+        }
+
+        int available = 0;
+        for (Endpoint candidate : endpoints) {
+            if (!candidate.isEjected()) {
+                available++;
+            }
+        }
+        if (available <= 1) {
+            return false;
+        }
+
+        endpoint.eject();
+        return true;
+    }
+
+    private Mono<Void> probeEjected() {
+        long now = System.nanoTime();
+        long ejectionNanos = settings.getEjectionTime().toNanos();
+
+        return Flux.fromArray(endpoints)
+                .filter(endpoint -> endpoint.isEjected() && now - endpoint.ejectedAt() >= ejectionNanos)
+                .flatMap(this::probe)
+                .then();
+    }
+
+    private Mono<Void> probe(Endpoint endpoint) {
+        String probeUri = endpoint.getBaseUri().resolve(settings.getProbePath()).toString();
+
+        return probeClient.get().uri(probeUri)
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                .timeout(settings.getProbeInterval())
+                .doOnNext(status -> {
+                    // a 404 or 401 says the replica is up but not that it serves this API
+                    if (status >= 200 && status < 300) {
+                        endpoint.restore();
+                        log.info("Restored endpoint {} of downstream '{}' after successful probe", endpoint, name);
+                    } else {
+                        endpoint.eject();
+                    }
+                })
+                .onErrorResume(ex -> {
+                    log.debug("Probe of endpoint {} failed: {}", endpoint, ex.toString());
+                    endpoint.eject();
+
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @Override
+    public void close() {
+        probes.dispose();
+    }
+}
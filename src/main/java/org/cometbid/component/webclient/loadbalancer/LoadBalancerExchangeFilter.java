@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.loadbalancer;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import static org.cometbid.component.webclient.WebClientExceptionHandler.isEndpointFailure;
+
+/**
+ * Routes each request to the endpoint picked by a {@link LatencyAwareLoadBalancer}.
+ * <p>
+ * Only the scheme, host and port of the request URL are replaced, so it applies to every
+ * {@code ReactiveClientInterface} method whether it was given an absolute {@code URI} or a
+ * path template resolved against the base URL.
+ *
+ * @author samueladebowale
+ */
+public class LoadBalancerExchangeFilter implements ExchangeFilterFunction {
+
+    private final LatencyAwareLoadBalancer loadBalancer;
+
+    public LoadBalancerExchangeFilter(LatencyAwareLoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            Endpoint endpoint = loadBalancer.choose();
+            ClientRequest routed = ClientRequest.from(request).url(endpoint.rewrite(request.url())).build();
+
+            endpoint.start();
+            long start = System.nanoTime();
+
+            return next.exchange(routed)
+                    .doOnNext(response -> loadBalancer.onResponse(endpoint, System.nanoTime() - start,
+                            isEndpointFailure(response.statusCode())))
+                    .doOnError(ex -> loadBalancer.onResponse(endpoint, System.nanoTime() - start,
+                            isEndpointFailure(ex)))
+                    .doFinally(signal -> endpoint.finish());
+        });
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.pagination;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Describes a paginated collection for {@link ReactivePaginator}.
+ *
+ * @author samueladebowale
+ * @param <T>
+ */
+@Value
+@Builder
+public class PaginationSpec<T> {
+
+    /**
+     * First page, absolute or relative to the WebClient base URL.
+     */
+    @NonNull
+    URI uri;
+
+    @NonNull
+    Class<? extends T> itemType;
+
+    @NonNull
+    @Builder.Default
+    PaginationMode mode = PaginationMode.LINK_HEADER;
+
+    @Builder.Default
+    Map<String, List<String>> headerFields = Collections.emptyMap();
+
+    @Builder.Default
+    MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+
+    /**
+     * JSON pointer to the items array, empty when the body itself is the array.
+     */
+    @Builder.Default
+    String itemsPointer = "";
+
+    /**
+     * JSON pointer to the next-page cursor, {@link PaginationMode#CURSOR} only.
+     */
+    @Builder.Default
+    String cursorPointer = "/next_cursor";
+
+    @Builder.Default
+    String cursorParam = "cursor";
+
+    @Builder.Default
+    String offsetParam = "offset";
+
+    @Builder.Default
+    String limitParam = "limit";
+
+    @Builder.Default
+    int pageSize = 100;
+
+    /**
+     * Pages fetched in parallel, {@link PaginationMode#OFFSET} only.
+     */
+    @Builder.Default
+    int concurrency = 1;
+
+    @Builder.Default
+    long maxPages = Long.MAX_VALUE;
+}
@@ -0,0 +1,187 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.pagination;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.collections4.MapUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.cometbid.component.webclient.RequestUris;
+import org.cometbid.component.webclient.codec.WebClientCodecs;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import static org.cometbid.component.webclient.WebClientExceptionHandler.processResponse;
+
+/**
+ * Streams every item of a paginated collection as one {@code Flux<T>}.
+ * <p>
+ * Pages are requested only as the subscriber asks for items: the next page is fetched
+ * while the current one is being consumed, never further ahead, and cancelling the Flux
+ * cancels the in-flight page request. Offset based collections can instead be read with
+ * {@link PaginationSpec#getConcurrency()} pages in flight, still emitted in order; reading
+ * stops at the first short page. Error responses are mapped by {@code processResponse}.
+ *
+ * @author samueladebowale
+ */
+public class ReactivePaginator {
+
+    private static final Pattern LINK = Pattern.compile("<([^>]*)>\\s*((?:;\\s*[^;,]+)*)");
+
+    private static final Pattern REL = Pattern.compile("rel\\s*=\\s*\"?([^\";,]+)\"?");
+
+    private final WebClientCodecs webClientCodecs;
+
+    public ReactivePaginator(WebClientCodecs webClientCodecs) {
+        this.webClientCodecs = webClientCodecs;
+    }
+
+    /**
+     *
+     * @param <T>
+     * @param webClient
+     * @param spec
+     * @return
+     */
+    public <T> Flux<T> paginate(WebClient webClient, PaginationSpec<T> spec) {
+        ObjectReader reader = webClientCodecs.reader(spec.getItemType());
+
+        Flux<Page<T>> pages = spec.getMode() == PaginationMode.OFFSET && spec.getConcurrency() > 1
+                ? concurrentOffsetPages(webClient, spec, reader)
+                : sequentialPages(webClient, spec, reader);
+
+        return pages.take(spec.getMaxPages()).concatMapIterable(Page::items, 1);
+    }
+
+    private <T> Flux<Page<T>> sequentialPages(WebClient webClient, PaginationSpec<T> spec, ObjectReader reader) {
+        URI first = spec.getMode() == PaginationMode.OFFSET ? offsetUri(spec, 0) : firstUri(spec);
+
+        return fetchPage(webClient, spec, reader, first, 0)
+                .expand(page -> page.next() == null ? Mono.empty()
+                : fetchPage(webClient, spec, reader, page.next(), page.offset() + spec.getPageSize()), 1);
+    }
+
+    private <T> Flux<Page<T>> concurrentOffsetPages(WebClient webClient, PaginationSpec<T> spec, ObjectReader reader) {
+        return Flux.range(0, Integer.MAX_VALUE)
+                .map(index -> (long) index * spec.getPageSize())
+                .flatMapSequential(offset -> fetchPage(webClient, spec, reader, offsetUri(spec, offset), offset),
+                        spec.getConcurrency(), 1)
+                .takeUntil(page -> page.next() == null);
+    }
+
+    private <T> Mono<Page<T>> fetchPage(WebClient webClient, PaginationSpec<T> spec, ObjectReader reader, URI uri,
+            long offset) {
+
+        return webClient.get()
+                .uri(uriBuilder -> RequestUris.resolve(uriBuilder, uri))
+                .headers(headers -> {
+                    if (MapUtils.isNotEmpty(spec.getHeaderFields())) {
+                        headers.putAll(spec.getHeaderFields());
+                    }
+                })
+                .exchangeToMono(clientResponse -> processResponse(clientResponse, JsonNode.class)
+                .map(body -> toPage(spec, reader, clientResponse.request().getURI(), offset,
+                clientResponse.headers().asHttpHeaders(), body)))
+                .defaultIfEmpty(new Page<>(Collections.emptyList(), null, offset));
+    }
+
+    private <T> Page<T> toPage(PaginationSpec<T> spec, ObjectReader reader, URI uri, long offset,
+            HttpHeaders headers, JsonNode body) {
+
+        JsonNode itemsNode = StringUtils.isEmpty(spec.getItemsPointer()) ? body : body.at(spec.getItemsPointer());
+        List<T> items = new ArrayList<>(itemsNode.size());
+        try {
+            for (JsonNode item : itemsNode) {
+                items.add(reader.readValue(item));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        URI next = switch (spec.getMode()) {
+            case LINK_HEADER ->
+                nextLink(uri, headers);
+            case CURSOR ->
+                nextCursor(spec, body);
+            case OFFSET ->
+                items.size() < spec.getPageSize() ? null : offsetUri(spec, offset + spec.getPageSize());
+        };
+        return new Page<>(items, items.isEmpty() && spec.getMode() != PaginationMode.LINK_HEADER ? null : next,
+                offset);
+    }
+
+    private static URI nextLink(URI current, HttpHeaders headers) {
+        for (String header : headers.getOrEmpty(HttpHeaders.LINK)) {
+            Matcher link = LINK.matcher(header);
+            while (link.find()) {
+                Matcher rel = REL.matcher(link.group(2));
+                if (rel.find() && List.of(StringUtils.split(rel.group(1))).contains("next")) {
+                    return current.resolve(link.group(1));
+                }
+            }
+        }
+        return null;
+    }
+
+    private static <T> URI nextCursor(PaginationSpec<T> spec, JsonNode body) {
+        JsonNode cursor = body.at(spec.getCursorPointer());
+        if (cursor.isMissingNode() || cursor.isNull() || StringUtils.isBlank(cursor.asText())) {
+            return null;
+        }
+        return UriComponentsBuilder.fromUri(firstUri(spec))
+                .replaceQueryParam(RequestUris.encode(spec.getCursorParam()), RequestUris.encode(cursor.asText()))
+                .build(true)
+                .toUri();
+    }
+
+    private static <T> URI firstUri(PaginationSpec<T> spec) {
+        return UriComponentsBuilder.fromUri(spec.getUri())
+                .queryParams(RequestUris.encode(spec.getParams()))
+                .build(true)
+                .toUri();
+    }
+
+    private static <T> URI offsetUri(PaginationSpec<T> spec, long offset) {
+        return UriComponentsBuilder.fromUri(spec.getUri())
+                .queryParams(RequestUris.encode(spec.getParams()))
+                .replaceQueryParam(RequestUris.encode(spec.getOffsetParam()), offset)
+                .replaceQueryParam(RequestUris.encode(spec.getLimitParam()), spec.getPageSize())
+                .build(true)
+                .toUri();
+    }
+
+    private record Page<T>(List<T> items, URI next, long offset) {
+
+    }
+}
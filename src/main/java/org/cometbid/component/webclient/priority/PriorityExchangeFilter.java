@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.priority;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.cometbid.component.webclient.ExchangeTermination;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Holds every call in its {@link RequestPriority} lane of {@link PriorityLanes} until it
+ * may use the connection pool.
+ * <p>
+ * As with the bulkhead, the permit is held until the response body has been consumed, or
+ * the exchange fails or is cancelled, since the connection stays busy until then. A body
+ * nobody subscribes to returns the permit when the exchange on its connection ends, see
+ * {@link ExchangeTermination}.
+ *
+ * @author samueladebowale
+ */
+public class PriorityExchangeFilter implements ExchangeFilterFunction {
+
+    private final PriorityLanes lanes;
+
+    public PriorityExchangeFilter(PriorityLanes lanes) {
+        this.lanes = lanes;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            RequestPriority priority = request.attribute(RequestPriority.KEY)
+                    .map(RequestPriority.class::cast)
+                    .orElseGet(() -> context.getOrDefault(RequestPriority.KEY, RequestPriority.DEFAULT));
+
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    lanes.release();
+                }
+            };
+
+            return lanes.acquire(priority)
+                    .then(Mono.defer(() -> next.exchange(ClientRequest.from(request)
+                    .httpRequest(ExchangeTermination.onTerminate(release))
+                    .build())
+                    .map(response -> response.mutate()
+                    .body(body -> body.doFinally(signal -> release.run()))
+                    .build())
+                    .doOnError(ex -> release.run())
+                    .doOnCancel(release)));
+        });
+    }
+}
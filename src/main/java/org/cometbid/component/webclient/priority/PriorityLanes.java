@@ -0,0 +1,235 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.priority;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import org.cometbid.component.api.generic.exceptions.ServiceUnavailableException;
+import org.cometbid.component.webclient.WebClientProperties;
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Admits a downstream's calls to its connection pool in priority order.
+ * <p>
+ * Reactor Netty serves pending acquisitions strictly first come, first served, so ordering
+ * has to happen in front of the pool: at most {@code maxInFlight} calls, by default the
+ * pool size, hold a permit, and the rest wait in one FIFO lane per
+ * {@link RequestPriority}. A freed permit goes to the head of the highest non-empty lane,
+ * unless the head of a lower lane has waited past the aging threshold, in which case the
+ * longest-waiting such call goes first.
+ *
+ * @author samueladebowale
+ */
+public class PriorityLanes {
+
+    private static final RequestPriority[] PRIORITIES = RequestPriority.values();
+
+    @Getter
+    private final String name;
+
+    private final int maxInFlight;
+
+    private final long agingNanos;
+
+    private final int maxQueuedPerLane;
+
+    private final Lane[] lanes = new Lane[PRIORITIES.length];
+
+    private int inFlight;
+
+    public PriorityLanes(String name, WebClientProperties.Priority properties, int maxConnections) {
+        this.name = name;
+        this.maxInFlight = properties.getMaxInFlight() != null ? properties.getMaxInFlight() : maxConnections;
+        this.agingNanos = properties.getAgingThreshold().toNanos();
+        this.maxQueuedPerLane = properties.getMaxQueuedPerLane();
+
+        for (RequestPriority priority : PRIORITIES) {
+            lanes[priority.ordinal()] = new Lane(priority);
+        }
+    }
+
+    /**
+     * Completes once the call holds a permit, which it must give back through
+     * {@link #release()}; cancelling while waiting leaves the lane.
+     *
+     * @param priority
+     * @return
+     */
+    public Mono<Void> acquire(RequestPriority priority) {
+        return Mono.create(sink -> {
+            Waiter waiter;
+            synchronized (this) {
+                Lane lane = lanes[priority.ordinal()];
+                if (inFlight < maxInFlight && isEmpty()) {
+                    inFlight++;
+                    lane.admitted(0, false);
+                    waiter = null;
+                } else if (lane.waiters.size() >= maxQueuedPerLane) {
+                    lane.rejected++;
+                    sink.error(new ServiceUnavailableException(new Object[]{"Priority lane " + priority
+                        + " of downstream '" + name + "' is full"}));
+                    return;
+                } else {
+                    waiter = new Waiter(sink, System.nanoTime());
+                    lane.waiters.add(waiter);
+                }
+            }
+
+            if (waiter == null) {
+                sink.success();
+            } else {
+                sink.onCancel(() -> cancel(priority, waiter));
+            }
+        });
+    }
+
+    /**
+     *
+     */
+    public void release() {
+        Waiter next;
+        synchronized (this) {
+            next = poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        // the permit passes straight to the next call
+        next.sink.success();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public synchronized List<LaneMetrics> metrics() {
+        List<LaneMetrics> metrics = new ArrayList<>(lanes.length);
+        for (Lane lane : lanes) {
+            metrics.add(lane.metrics());
+        }
+        return metrics;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    private Waiter poll() {
+        long now = System.nanoTime();
+
+        Lane chosen = null;
+        boolean promoted = false;
+        long oldest = Long.MAX_VALUE;
+        for (Lane lane : lanes) {
+            Waiter head = lane.waiters.peek();
+            if (head == null) {
+                continue;
+            }
+            if (chosen == null) {
+                chosen = lane;
+                oldest = head.enqueuedNanos;
+            } else if (now - head.enqueuedNanos >= agingNanos && head.enqueuedNanos < oldest) {
+                chosen = lane;
+                oldest = head.enqueuedNanos;
+                promoted = true;
+            }
+        }
+
+        if (chosen == null) {
+            return null;
+        }
+        Waiter waiter = chosen.waiters.poll();
+        chosen.admitted(now - waiter.enqueuedNanos, promoted);
+        return waiter;
+    }
+
+    private void cancel(RequestPriority priority, Waiter waiter) {
+        synchronized (this) {
+            if (lanes[priority.ordinal()].waiters.remove(waiter)) {
+                return;
+            }
+        }
+        // granted concurrently with the cancellation, nobody will release it
+        release();
+    }
+
+    private boolean isEmpty() {
+        for (Lane lane : lanes) {
+            if (!lane.waiters.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Waiter(MonoSink<Void> sink, long enqueuedNanos) {
+
+    }
+
+    /**
+     * Guarded by the enclosing {@link PriorityLanes}.
+     */
+    private static final class Lane {
+
+        private final RequestPriority priority;
+
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+
+        private long admitted;
+
+        private long promoted;
+
+        private long rejected;
+
+        private long totalWaitNanos;
+
+        private long maxWaitNanos;
+
+        Lane(RequestPriority priority) {
+            this.priority = priority;
+        }
+
+        void admitted(long waitNanos, boolean aged) {
+            admitted++;
+            if (aged) {
+                promoted++;
+            }
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        }
+
+        LaneMetrics metrics() {
+            return new LaneMetrics(priority, waiters.size(), admitted, promoted, rejected,
+                    admitted == 0 ? 0 : totalWaitNanos / 1e6 / admitted, maxWaitNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.priority;
+
+import reactor.util.context.Context;
+
+/**
+ * Priority class of an outbound call, highest first.
+ * <p>
+ * Set per call with {@code .attribute(RequestPriority.KEY, RequestPriority.BULK)}, or for
+ * every call of a reactive chain with {@code .contextWrite(RequestPriority.BULK.context())};
+ * the attribute wins when both are present, and calls with neither are
+ * {@link #DEFAULT}.
+ *
+ * @author samueladebowale
+ */
+public enum RequestPriority {
+
+    /**
+     * A user is waiting for the answer.
+     */
+    INTERACTIVE,
+
+    DEFAULT,
+
+    /**
+     * Background and batch work that tolerates queueing.
+     */
+    BULK;
+
+    /**
+     * Request attribute and Reactor {@code Context} key.
+     */
+    public static final String KEY = RequestPriority.class.getName();
+
+    /**
+     *
+     * @return
+     */
+    public Context context() {
+        return Context.of(KEY, this);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.proxy;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.cometbid.component.webclient.DownstreamWebClients;
+import org.cometbid.component.webclient.WebClientExceptionHandler;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.support.WebClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+/**
+ * Creates typed clients from interfaces annotated with Spring's {@code @HttpExchange}
+ * family ({@code @GetExchange}, {@code @PostExchange}, ...).
+ * <p>
+ * The URI template, headers, content types and argument resolvers of every method are
+ * resolved once, when the proxy is created, instead of being rebuilt from maps and class
+ * tokens on each call as with {@code ReactiveClientInterface}. Error responses are mapped
+ * through {@link WebClientExceptionHandler}, so callers see the same exceptions as with
+ * {@code processResponse}.
+ * <pre>
+ * &#64;HttpExchange(url = "/accounts", accept = "application/json")
+ * interface AccountClient {
+ *     &#64;GetExchange("/{id}")
+ *     Mono&lt;Account&gt; get(&#64;PathVariable String id);
+ * }
+ *
+ * AccountClient accounts = proxyFactory.getClient("accounts", AccountClient.class);
+ * </pre>
+ *
+ * @author samueladebowale
+ */
+public class ReactiveClientProxyFactory {
+
+    private final DownstreamWebClients downstreamWebClients;
+
+    private final Map<String, Map<Class<?>, Object>> proxies = new ConcurrentHashMap<>();
+
+    public ReactiveClientProxyFactory(DownstreamWebClients downstreamWebClients) {
+        this.downstreamWebClients = downstreamWebClients;
+    }
+
+    /**
+     * Returns the proxy for a configured downstream, creating it on first use.
+     *
+     * @param <S>
+     * @param downstream
+     * @param serviceType
+     * @return
+     */
+    public <S> S getClient(String downstream, Class<S> serviceType) {
+        return serviceType.cast(proxies.computeIfAbsent(downstream, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(serviceType, type -> createClient(downstreamWebClients.webClient(downstream), type)));
+    }
+
+    /**
+     *
+     * @param <S>
+     * @param webClient
+     * @param serviceType
+     * @return
+     */
+    public <S> S createClient(WebClient webClient, Class<S> serviceType) {
+        WebClient mappedClient = webClient.mutate()
+                .defaultStatusHandler(HttpStatusCode::isError, WebClientExceptionHandler::mapErrorResponse)
+                .build();
+
+        return HttpServiceProxyFactory.builderFor(WebClientAdapter.create(mappedClient))
+                .build()
+                .createClient(serviceType);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.scatter;
+
+import java.time.Duration;
+import java.util.Optional;
+import lombok.Value;
+
+/**
+ * What became of one call of a fan-out.
+ *
+ * @author samueladebowale
+ * @param <T>
+ */
+@Value
+public class CallOutcome<T> {
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    public enum Status {
+        SUCCEEDED,
+        /**
+         * Failed before the deadline, see {@link CallOutcome#getError()}.
+         */
+        FAILED,
+        /**
+         * Still running at the deadline and cancelled.
+         */
+        TIMED_OUT
+    }
+
+    String name;
+
+    Status status;
+
+    /**
+     * {@code null} unless succeeded, and also when the response had no body.
+     */
+    T value;
+
+    /**
+     * The exception {@code processResponse} mapped the failure to, or the connection failure,
+     * {@code null} unless failed.
+     */
+    Throwable error;
+
+    /**
+     * Time from the fan-out's start until the call completed, or until the deadline.
+     */
+    Duration elapsed;
+
+    /**
+     *
+     * @return
+     */
+    public boolean isSucceeded() {
+        return status == Status.SUCCEEDED;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public Optional<T> value() {
+        return Optional.ofNullable(value);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.scatter;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.collections4.MapUtils;
+import org.cometbid.component.webclient.DownstreamWebClients;
+import org.cometbid.component.webclient.RequestUris;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import static org.cometbid.component.webclient.WebClientExceptionHandler.processResponse;
+
+/**
+ * Fans GET requests out to several downstreams at once and gathers whatever has completed
+ * by a deadline.
+ * <p>
+ * Each call runs on its downstream's own client and pool. A failing call does not fail
+ * the others: its outcome carries the exception {@code processResponse} mapped it to, or the
+ * {@code WebClientRequestException} of a connection failure. When the deadline passes,
+ * the calls still running are cancelled, which releases their connections, and reported
+ * as {@link CallOutcome.Status#TIMED_OUT}, so the caller can render a partial response.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class ScatterGather {
+
+    private final DownstreamWebClients downstreamWebClients;
+
+    public ScatterGather(DownstreamWebClients downstreamWebClients) {
+        this.downstreamWebClients = downstreamWebClients;
+    }
+
+    /**
+     * Never fails; every request has an outcome in the result.
+     *
+     * @param requests
+     * @param deadline
+     * @return
+     */
+    public Mono<ScatterResult> execute(List<ScatterRequest<?>> requests, Duration deadline) {
+        Set<String> names = new HashSet<>();
+        for (ScatterRequest<?> request : requests) {
+            if (!names.add(request.getName())) {
+                return Mono.error(new IllegalArgumentException("Duplicate request name '" + request.getName() + "'"));
+            }
+        }
+
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+
+            return Flux.fromIterable(requests)
+                    .flatMap(request -> call(request, start), Math.max(1, requests.size()))
+                    .take(deadline)
+                    .collectMap(CallOutcome::getName)
+                    .map(completed -> gather(requests, completed, start));
+        });
+    }
+
+    private <T> Mono<CallOutcome<?>> call(ScatterRequest<T> request, long start) {
+        // deferred, so an unknown downstream fails this call only
+        return Mono.defer(() -> downstreamWebClients.webClient(request.getDownstream())
+                .get()
+                .uri(uriBuilder -> RequestUris.resolve(uriBuilder, request.getUri(), request.getParams()))
+                .headers(headers -> {
+                    if (MapUtils.isNotEmpty(request.getHeaderFields())) {
+                        headers.putAll(request.getHeaderFields());
+                    }
+                })
+                .exchangeToMono(clientResponse -> processResponse(clientResponse, request.getResponseType())))
+                .<CallOutcome<?>>map(value -> new CallOutcome<>(request.getName(), CallOutcome.Status.SUCCEEDED,
+                value, null, since(start)))
+                .defaultIfEmpty(new CallOutcome<>(request.getName(), CallOutcome.Status.SUCCEEDED, null, null,
+                        since(start)))
+                .onErrorResume(ex -> Mono.just(new CallOutcome<>(request.getName(), CallOutcome.Status.FAILED, null,
+                ex, since(start))));
+    }
+
+    private static ScatterResult gather(List<ScatterRequest<?>> requests, Map<String, CallOutcome<?>> completed,
+            long start) {
+        Duration elapsed = since(start);
+        Map<String, CallOutcome<?>> outcomes = new LinkedHashMap<>();
+
+        for (ScatterRequest<?> request : requests) {
+            CallOutcome<?> outcome = completed.get(request.getName());
+            if (outcome == null) {
+                log.debug("Call '{}' to '{}' cancelled at the deadline", request.getName(), request.getDownstream());
+                outcome = new CallOutcome<>(request.getName(), CallOutcome.Status.TIMED_OUT, null, null, elapsed);
+            }
+            outcomes.put(request.getName(), outcome);
+        }
+        return new ScatterResult(outcomes, elapsed);
+    }
+
+    private static Duration since(long start) {
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.scatter;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.Getter;
+
+/**
+ * Outcomes of a {@link ScatterGather} fan-out, in the order the requests were given.
+ *
+ * @author samueladebowale
+ */
+public class ScatterResult {
+
+    private final Map<String, CallOutcome<?>> outcomes;
+
+    @Getter
+    private final Duration elapsed;
+
+    ScatterResult(Map<String, CallOutcome<?>> outcomes, Duration elapsed) {
+        this.outcomes = Collections.unmodifiableMap(outcomes);
+        this.elapsed = elapsed;
+    }
+
+    /**
+     *
+     * @param name
+     * @return
+     */
+    public CallOutcome<?> outcome(String name) {
+        CallOutcome<?> outcome = outcomes.get(name);
+        if (outcome == null) {
+            throw new IllegalArgumentException("No request named '" + name + "' in this fan-out");
+        }
+        return outcome;
+    }
+
+    /**
+     * The value of a call, empty when it failed, timed out or had no body.
+     *
+     * @param <T>
+     * @param name
+     * @param type
+     * @return
+     */
+    public <T> Optional<T> value(String name, Class<T> type) {
+        return outcome(name).value().map(type::cast);
+    }
+
+    /**
+     *
+     * @return
+     */
+    public Collection<CallOutcome<?>> outcomes() {
+        return outcomes.values();
+    }
+
+    /**
+     * Whether every call succeeded before the deadline.
+     *
+     * @return
+     */
+    public boolean isComplete() {
+        return outcomes.values().stream().allMatch(CallOutcome::isSucceeded);
+    }
+
+    /**
+     *
+     * @param status
+     * @return
+     */
+    public List<String> names(CallOutcome.Status status) {
+        return outcomes.values().stream()
+                .filter(outcome -> outcome.getStatus() == status)
+                .map(CallOutcome::getName)
+                .toList();
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.sse;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.commons.collections4.MapUtils;
+import org.cometbid.component.webclient.RequestUris;
+import org.cometbid.component.webclient.WebClientExceptionHandler;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.channel.AbortedException;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.util.retry.Retry;
+
+/**
+ * Reads a Server-Sent Events stream as one {@code Flux<ServerSentEvent<T>>} that survives
+ * disconnects.
+ * <p>
+ * When the connection ends, whether the server closed it, it failed with a connection
+ * error or a {@code 5xx}, or it stayed silent past the idle timeout, the client reconnects
+ * and sends the id of the last event received as {@code Last-Event-ID}, so the server can
+ * resume without gaps or repeats. The delay honours the server's latest {@code retry:} and
+ * doubles, with jitter, for each consecutive failed connection. A {@code 204} response ends
+ * the stream, as the SSE specification asks, and {@code 4xx} responses fail it with the
+ * exception {@code processResponse} would raise.
+ * <p>
+ * Comment lines serve as heartbeats: they keep the connection alive but are not emitted.
+ * Events are buffered for a slow subscriber up to {@link SseSpec#getBufferSize()}, beyond
+ * which the {@link SseOverflowStrategy} decides.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class ReactiveSseClient {
+
+    /**
+     *
+     * @param <T>
+     * @param webClient
+     * @param spec
+     * @return
+     */
+    public <T> Flux<ServerSentEvent<T>> stream(WebClient webClient, SseSpec<T> spec) {
+        ParameterizedTypeReference<ServerSentEvent<T>> eventType = ParameterizedTypeReference.forType(
+                ResolvableType.forClassWithGenerics(ServerSentEvent.class, spec.getDataType()).getType());
+
+        return Flux.defer(() -> {
+            AtomicReference<String> lastEventId = new AtomicReference<>(spec.getLastEventId());
+            AtomicLong retryMillis = new AtomicLong(spec.getReconnectDelay().toMillis());
+            AtomicLong failures = new AtomicLong();
+
+            Flux<ServerSentEvent<T>> connection = Flux.defer(() -> connect(webClient, spec, eventType,
+                    lastEventId.get()))
+                    .timeout(spec.getIdleTimeout())
+                    .doOnNext(event -> {
+                        failures.set(0);
+                        if (event.id() != null) {
+                            lastEventId.set(event.id());
+                        }
+                        if (event.retry() != null) {
+                            retryMillis.set(event.retry().toMillis());
+                        }
+                    })
+                    // the end of a stream is only a reason to reconnect
+                    .concatWith(Mono.error(StreamClosedException::new));
+
+            // completing the companion on a 204 completes the stream
+            Retry reconnect = Retry.from(signals -> signals
+                    .takeWhile(signal -> !(signal.failure() instanceof StreamEndedException))
+                    .concatMap(signal -> {
+                        Throwable failure = signal.failure();
+                        if (!isReconnectable(failure)) {
+                            return Mono.error(failure);
+                        }
+
+                        long attempt = failures.incrementAndGet();
+                        if (attempt > spec.getMaxReconnects()) {
+                            return Mono.error(failure);
+                        }
+
+                        Duration delay = delay(retryMillis.get(), attempt, spec.getMaxReconnectDelay());
+                        log.info("Event stream {} interrupted ({}), reconnecting in {} ms from event '{}'",
+                                spec.getUri(), failure.toString(), delay.toMillis(), lastEventId.get());
+
+                        return Mono.delay(delay);
+                    }));
+
+            Flux<ServerSentEvent<T>> events = connection
+                    .retryWhen(reconnect)
+                    .filter(event -> event.data() != null || event.event() != null || event.id() != null);
+
+            return buffer(events, spec);
+        });
+    }
+
+    private <T> Flux<ServerSentEvent<T>> connect(WebClient webClient, SseSpec<T> spec,
+            ParameterizedTypeReference<ServerSentEvent<T>> eventType, String lastEventId) {
+        return webClient.get()
+                .uri(uriBuilder -> RequestUris.resolve(uriBuilder, spec.getUri()))
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .headers(headers -> {
+                    if (MapUtils.isNotEmpty(spec.getHeaderFields())) {
+                        headers.putAll(spec.getHeaderFields());
+                    }
+                    if (lastEventId != null) {
+                        headers.set("Last-Event-ID", lastEventId);
+                    }
+                })
+                .exchangeToFlux(clientResponse -> events(clientResponse, eventType));
+    }
+
+    private static <T> Flux<ServerSentEvent<T>> events(ClientResponse clientResponse,
+            ParameterizedTypeReference<ServerSentEvent<T>> eventType) {
+        if (clientResponse.statusCode().value() == HttpStatus.NO_CONTENT.value()) {
+            return clientResponse.releaseBody().thenMany(Flux.error(StreamEndedException::new));
+        }
+        if (clientResponse.statusCode().isError()) {
+            return WebClientExceptionHandler.mapErrorResponse(clientResponse).flatMapMany(Flux::error);
+        }
+        return clientResponse.bodyToFlux(eventType);
+    }
+
+    private static <T> Flux<ServerSentEvent<T>> buffer(Flux<ServerSentEvent<T>> events, SseSpec<T> spec) {
+        return switch (spec.getOverflowStrategy()) {
+            case ERROR ->
+                events.onBackpressureBuffer(spec.getBufferSize());
+            case DROP_OLDEST ->
+                events.onBackpressureBuffer(spec.getBufferSize(), dropped -> dropped(spec, dropped),
+                BufferOverflowStrategy.DROP_OLDEST);
+            case DROP_LATEST ->
+                events.onBackpressureBuffer(spec.getBufferSize(), dropped -> dropped(spec, dropped),
+                BufferOverflowStrategy.DROP_LATEST);
+        };
+    }
+
+    private static void dropped(SseSpec<?> spec, ServerSentEvent<?> event) {
+        log.debug("Dropped event '{}' of {}, subscriber too slow", event.id(), spec.getUri());
+    }
+
+    private static boolean isReconnectable(Throwable ex) {
+        return ex instanceof StreamClosedException || ex instanceof TimeoutException
+                || ex instanceof WebClientRequestException || ex instanceof PrematureCloseException
+                || ex instanceof AbortedException || WebClientExceptionHandler.isEndpointFailure(ex);
+    }
+
+    private static Duration delay(long retryMillis, long attempt, Duration max) {
+        long backoff = retryMillis << Math.min(attempt - 1, 16);
+        long capped = Math.min(Math.max(backoff, retryMillis), Math.max(max.toMillis(), retryMillis));
+        long jitter = (long) (capped * 0.2 * ThreadLocalRandom.current().nextDouble());
+
+        return Duration.ofMillis(capped - jitter);
+    }
+
+    /**
+     * The server closed the stream; reconnect.
+     */
+    private static final class StreamClosedException extends RuntimeException {
+
+        StreamClosedException() {
+            super("stream closed by the server", null, false, false);
+        }
+    }
+
+    /**
+     * The server answered {@code 204}; stop.
+     */
+    private static final class StreamEndedException extends RuntimeException {
+
+        StreamEndedException() {
+            super("stream ended by the server", null, false, false);
+        }
+    }
+}
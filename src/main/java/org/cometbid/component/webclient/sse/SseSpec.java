@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.sse;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Describes an event stream for {@link ReactiveSseClient}.
+ *
+ * @author samueladebowale
+ * @param <T>
+ */
+@Value
+@Builder
+public class SseSpec<T> {
+
+    /**
+     * Absolute or relative to the WebClient base URL.
+     */
+    @NonNull
+    URI uri;
+
+    /**
+     * Type the {@code data:} of each event is decoded to, {@code String} for raw text.
+     */
+    @NonNull
+    Class<? extends T> dataType;
+
+    @Builder.Default
+    Map<String, List<String>> headerFields = Collections.emptyMap();
+
+    /**
+     * Sent as {@code Last-Event-ID} on the first connection, to resume a stream read
+     * earlier.
+     */
+    String lastEventId;
+
+    /**
+     * Delay before the first reconnection, until the server sets another with
+     * {@code retry:}; consecutive failures back off exponentially from it.
+     */
+    @Builder.Default
+    Duration reconnectDelay = Duration.ofSeconds(1);
+
+    @Builder.Default
+    Duration maxReconnectDelay = Duration.ofSeconds(30);
+
+    /**
+     * Consecutive failed connections after which the stream fails instead of reconnecting.
+     */
+    @Builder.Default
+    long maxReconnects = Long.MAX_VALUE;
+
+    /**
+     * Longest silence, heartbeat comments included, before the connection is considered
+     * dead and replaced.
+     */
+    @Builder.Default
+    Duration idleTimeout = Duration.ofSeconds(60);
+
+    /**
+     * Events held for a slow subscriber before {@link #overflowStrategy} applies.
+     */
+    @Builder.Default
+    int bufferSize = 256;
+
+    @NonNull
+    @Builder.Default
+    SseOverflowStrategy overflowStrategy = SseOverflowStrategy.ERROR;
+}
@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.warmup;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.cometbid.component.webclient.DownstreamClient;
+import org.cometbid.component.webclient.DownstreamWebClients;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.cometbid.component.webclient.WebClientProperties.Downstream;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Warms up every configured downstream before the application starts taking traffic.
+ * <p>
+ * Spring Boot only publishes {@code ReadinessState.ACCEPTING_TRAFFIC} once all application
+ * runners have returned, so blocking here until the warm-up completes (or its timeout
+ * elapses) keeps the instance out of rotation while DNS, connections, TLS sessions and the
+ * Jackson codecs are still cold.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class WebClientWarmup implements ApplicationRunner, Ordered {
+
+    private final WebClientProperties properties;
+
+    private final DownstreamWebClients downstreamWebClients;
+
+    public WebClientWarmup(WebClientProperties properties, DownstreamWebClients downstreamWebClients) {
+        this.properties = properties;
+        this.downstreamWebClients = downstreamWebClients;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        WebClientProperties.Warmup warmup = properties.getWarmup();
+        if (!warmup.isEnabled() || downstreamWebClients.names().isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        Flux.fromIterable(downstreamWebClients.names())
+                .flatMap(this::warmup)
+                .then()
+                .timeout(warmup.getTimeout(), Mono.fromRunnable(()
+                        -> log.warn("WebClient warm-up did not complete within {}, continuing startup", warmup.getTimeout())))
+                .block();
+
+        log.info("WebClient warm-up finished in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    /**
+     *
+     * @param name
+     * @return
+     */
+    Mono<Void> warmup(String name) {
+        DownstreamClient client = downstreamWebClients.client(name);
+        Downstream downstream = client.getDownstream();
+        List<String> baseUrls = downstream.getEndpoints().isEmpty()
+                ? List.of(downstream.getBaseUrl()) : downstream.getEndpoints();
+
+        return client.getHttpClient().warmup()
+                .thenMany(Flux.fromIterable(baseUrls))
+                .map(URI::create)
+                .flatMap(baseUri -> resolve(client, baseUri.getHost()).then(openConnections(client, baseUri)))
+                .then(warmCodecs(client))
+                .doOnSuccess(v -> log.info("Downstream '{}' warmed up", name))
+                .onErrorResume(ex -> {
+                    log.warn("Warm-up of downstream '{}' failed: {}", name, ex.toString());
+
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> resolve(DownstreamClient client, String host) {
+        if (client.getDnsResolver() != null) {
+            return Mono.fromFuture(() -> client.getDnsResolver().resolveAll(host))
+                    .doOnNext(addresses -> log.debug("Pre-resolved {} to {} address(es)", host, addresses.size()))
+                    .then();
+        }
+
+        return Mono.fromCallable(() -> InetAddress.getAllByName(host))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(addresses -> log.debug("Pre-resolved {} to {} address(es)", host, addresses.length))
+                .then();
+    }
+
+    /**
+     * Issues as many concurrent requests as connections are wanted; concurrent acquisitions
+     * force the pool to open (and TLS handshake) a distinct connection for each, and all of
+     * them are returned to the pool as idle once the responses complete.
+     */
+    private Mono<Void> openConnections(DownstreamClient client, URI baseUri) {
+        int connections = client.getDownstream().getWarmupConnections();
+        if (connections <= 0) {
+            return Mono.empty();
+        }
+
+        String uri = baseUri.resolve(StringUtils.defaultIfBlank(client.getDownstream().getWarmupPath(), "/"))
+                .toString();
+
+        return Flux.range(0, connections)
+                .flatMap(i -> client.getHttpClient().head().uri(uri)
+                        .responseSingle((response, body) -> body.then())
+                        .onErrorResume(ex -> {
+                            log.debug("Warm-up connection to {} failed: {}", uri, ex.toString());
+
+                            return Mono.empty();
+                        }), connections)
+                .then();
+    }
+
+    private Mono<Void> warmCodecs(DownstreamClient client) {
+        String warmupPath = client.getDownstream().getWarmupPath();
+        if (StringUtils.isBlank(warmupPath)) {
+            return Mono.empty();
+        }
+
+        return client.getWebClient().get().uri(warmupPath)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .onErrorResume(ex -> Mono.empty())
+                .then();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.alloc;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Checked-in bytes-per-call figures, one {@code scenario=bytes} line per scenario, against
+ * which a run is compared.
+ *
+ * @author samueladebowale
+ */
+public class AllocationBaseline {
+
+    private final Map<String, Long> bytesPerCall;
+
+    private AllocationBaseline(Map<String, Long> bytesPerCall) {
+        this.bytesPerCall = bytesPerCall;
+    }
+
+    /**
+     * An empty baseline when the file does not exist yet.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static AllocationBaseline load(Path file) throws IOException {
+        Map<String, Long> values = new TreeMap<>();
+        if (Files.exists(file)) {
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            }
+            properties.forEach((key, value) -> values.put((String) key, Long.parseLong(((String) value).trim())));
+        }
+        return new AllocationBaseline(values);
+    }
+
+    /**
+     *
+     * @param measured scenario name to bytes per call
+     * @param file
+     * @throws IOException
+     */
+    public static void write(Map<String, Long> measured, Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write("# Bytes allocated per call, regenerate with -Dalloc.update=true\n");
+            for (Map.Entry<String, Long> entry : new TreeMap<>(measured).entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+    }
+
+    /**
+     *
+     * @param scenario
+     * @return {@code null} for scenarios without a baseline
+     */
+    public Long get(String scenario) {
+        return bytesPerCall.get(scenario);
+    }
+
+    /**
+     * The scenarios that allocate more than {@code margin} (e.g. {@code 0.15}) above their
+     * baseline, as human readable lines.
+     *
+     * @param measured
+     * @param margin
+     * @return
+     */
+    public List<String> regressions(Map<String, Long> measured, double margin) {
+        List<String> regressions = new ArrayList<>();
+
+        measured.forEach((scenario, bytes) -> {
+            Long baseline = bytesPerCall.get(scenario);
+            if (baseline != null && bytes > baseline * (1 + margin)) {
+                regressions.add(String.format("%s: %,d B/call, baseline %,d B/call (+%.1f%%)", scenario, bytes,
+                        baseline, 100.0 * (bytes - baseline) / baseline));
+            }
+        });
+        return regressions;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.alloc;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Measures bytes allocated per call through the HotSpot per-thread allocation counters.
+ * <p>
+ * The calling thread is always counted, along with every live thread whose name the
+ * {@code threads} predicate accepts, so that work handed off to the client's event loop is
+ * included while the stub server, sharing the JVM, is not. The counters are exact, unlike
+ * the sampled JFR {@code ObjectAllocationSample} events, which makes them usable as a gate.
+ *
+ * @author samueladebowale
+ */
+public class AllocationMeter {
+
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    private final Predicate<String> threads;
+
+    public AllocationMeter(Predicate<String> threads) {
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.threads = threads;
+
+        if (!threadBean.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("This JVM does not report per-thread allocations");
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Runs the scenario {@code warmup} times, then reports the mean allocation over
+     * {@code iterations} further calls.
+     *
+     * @param scenario
+     * @param warmup
+     * @param iterations
+     * @return bytes allocated per call
+     */
+    public long measure(AllocationScenario scenario, int warmup, int iterations) {
+        for (int i = 0; i < warmup; i++) {
+            scenario.getCall().run();
+        }
+
+        // resolved after the warm-up, once the event loop threads exist
+        long[] ids = threadIds();
+        long before = allocated(ids);
+        for (int i = 0; i < iterations; i++) {
+            scenario.getCall().run();
+        }
+        long after = allocated(ids);
+
+        return (after - before) / iterations;
+    }
+
+    private long[] threadIds() {
+        Thread current = Thread.currentThread();
+        List<Thread> measured = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread == current || threads.test(thread.getName()))
+                .toList();
+
+        return measured.stream().mapToLong(Thread::threadId).toArray();
+    }
+
+    private long allocated(long[] ids) {
+        return Arrays.stream(threadBean.getThreadAllocatedBytes(ids)).filter(bytes -> bytes > 0).sum();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.alloc;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.webclient.HotPathScenarios;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import lombok.extern.log4j.Log4j2;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Measures the bytes allocated per call of every {@link HotPathScenarios hot path scenario}
+ * against a local {@link StubServer}, and fails when one exceeds its checked-in baseline by
+ * more than the allowed margin.
+ * <p>
+ * Run as part of {@code mvn -Palloc-test verify}, configured through system properties:
+ * <ul>
+ * <li>{@code alloc.margin} - allowed growth over the baseline, default {@code 0.15}</li>
+ * <li>{@code alloc.warmup}, {@code alloc.iterations} - calls per scenario</li>
+ * <li>{@code alloc.baseline} - defaults to {@code src/test/resources/alloc/baseline.properties}</li>
+ * <li>{@code alloc.update} - {@code true} rewrites the baseline with this run's figures</li>
+ * </ul>
+ * The client runs on a dedicated single-threaded event loop whose allocations are counted
+ * along with the calling thread's; the stub's are not.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class AllocationSuiteMain {
+
+    private static final String CLIENT_LOOP = "alloc-client";
+
+    public static void main(String[] args) throws Exception {
+        int warmup = Integer.parseInt(property("warmup", "5000"));
+        int iterations = Integer.parseInt(property("iterations", "2000"));
+        double margin = Double.parseDouble(property("margin", "0.15"));
+        Path baselineFile = Path.of(property("baseline", "src/test/resources/alloc/baseline.properties"));
+
+        String object = HotPathScenarios.body();
+        StubServer stub = StubServer.builder()
+                .json(HttpMethod.GET, HotPathScenarios.ITEMS, 200, "[" + object + "," + object + "]")
+                .json(HttpMethod.GET, HotPathScenarios.ITEMS + "/{id}", 200, object)
+                .json(HttpMethod.POST, HotPathScenarios.ITEMS, 200, object)
+                .json(HttpMethod.POST, HotPathScenarios.ITEMS + "/{id}", 200, object)
+                .json(HttpMethod.PUT, HotPathScenarios.ITEMS + "/{id}", 200, object)
+                .json(HttpMethod.PATCH, HotPathScenarios.ITEMS + "/{id}", 200, object)
+                .json(HttpMethod.DELETE, HotPathScenarios.ITEMS + "/{id}", 200, object)
+                .build()
+                .start();
+
+        LoopResources loop = LoopResources.create(CLIENT_LOOP, 1, true);
+        ConnectionProvider connectionProvider = ConnectionProvider.create("alloc", 1);
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider).runOn(loop)))
+                .build();
+
+        Map<String, Long> measured = new LinkedHashMap<>();
+        try {
+            AllocationMeter meter = new AllocationMeter(thread -> thread.startsWith(CLIENT_LOOP));
+
+            for (AllocationScenario scenario : HotPathScenarios.all(webClient, stub.baseUrl())) {
+                long bytes = meter.measure(scenario, warmup, iterations);
+                measured.put(scenario.getName(), bytes);
+            }
+        } finally {
+            connectionProvider.disposeLater().block();
+            loop.disposeLater().block();
+            stub.close();
+        }
+
+        AllocationBaseline baseline = AllocationBaseline.load(baselineFile);
+        measured.forEach((scenario, bytes) -> {
+            Long expected = baseline.get(scenario);
+            log.info(String.format("%-40s %,10d B/call%s", scenario, bytes,
+                    expected == null ? "  (no baseline)" : String.format("  baseline %,10d", expected)));
+        });
+
+        if (Boolean.parseBoolean(property("update", "false"))) {
+            AllocationBaseline.write(measured, baselineFile);
+            log.info("Baseline written to {}", baselineFile.toAbsolutePath());
+            return;
+        }
+
+        List<String> regressions = baseline.regressions(measured, margin);
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException(String.format("Allocation regressed by more than %.0f%%:%n%s",
+                    margin * 100, String.join(System.lineSeparator(), regressions)));
+        }
+        log.info("No allocation regressions beyond {}%", Math.round(margin * 100));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("alloc." + name, defaultValue);
+    }
+}
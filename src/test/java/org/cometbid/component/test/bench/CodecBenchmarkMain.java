@@ -0,0 +1,197 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.cometbid.component.test.alloc.AllocationMeter;
+import org.cometbid.component.test.alloc.AllocationScenario;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.cometbid.component.webclient.codec.WebClientCodecs;
+import org.cometbid.component.webclient.codec.WireFormat;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.NullValue;
+import com.google.protobuf.Struct;
+import com.google.protobuf.Value;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Compares the {@link WireFormat wire formats} on one typical internal payload: encoded
+ * size, and time and bytes allocated to encode and to decode it. A second table compares
+ * decoding JSON with the tuned mapper of {@link WebClientCodecs}, through its cached
+ * reader, against Spring's default mapper, on a small and on the full payload.
+ * <p>
+ * JSON, CBOR and Smile map the same record types through Jackson. Protobuf has no schema
+ * for them here, so it carries the payload as a {@code google.protobuf.Struct}, which is
+ * larger and slower than a generated message would be; treat its figures as an upper bound.
+ * <p>
+ * Run with
+ * {@code mvn -Pload-test test-compile exec:java -Dexec.mainClass=org.cometbid.component.test.bench.CodecBenchmarkMain},
+ * optionally with {@code -Dbench.items=200} (lines in the payload) and
+ * {@code -Dbench.iterations=2000}.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class CodecBenchmarkMain {
+
+    /**
+     * Lines of the small payload in the decode comparison, a typical single-entity response.
+     */
+    private static final int SMALL_ITEMS = 5;
+
+    public record Order(long id, String status, String currency, List<Line> lines, Map<String, String> metadata) {
+
+    }
+
+    public record Line(long sku, String description, int quantity, double price, boolean backordered) {
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        int items = Integer.parseInt(System.getProperty("bench.items", "200"));
+        int iterations = Integer.parseInt(System.getProperty("bench.iterations", "2000"));
+
+        Order order = order(items);
+        WebClientCodecs codecs = new WebClientCodecs(new WebClientProperties());
+        ObjectMapper json = codecs.getObjectMapper();
+        ObjectMapper cbor = codecs.getObjectMapper(WireFormat.CBOR);
+        ObjectMapper smile = codecs.getObjectMapper(WireFormat.SMILE);
+        Struct struct = toStruct(json.valueToTree(order)).getStructValue();
+
+        byte[] jsonBytes = json.writeValueAsBytes(order);
+        byte[] cborBytes = cbor.writeValueAsBytes(order);
+        byte[] smileBytes = smile.writeValueAsBytes(order);
+        byte[] protobufBytes = struct.toByteArray();
+
+        List<Object[]> formats = List.of(
+                new Object[]{WireFormat.JSON, jsonBytes, run(() -> json.writeValueAsBytes(order)),
+                    run(() -> json.readValue(jsonBytes, Order.class))},
+                new Object[]{WireFormat.CBOR, cborBytes, run(() -> cbor.writeValueAsBytes(order)),
+                    run(() -> cbor.readValue(cborBytes, Order.class))},
+                new Object[]{WireFormat.SMILE, smileBytes, run(() -> smile.writeValueAsBytes(order)),
+                    run(() -> smile.readValue(smileBytes, Order.class))},
+                new Object[]{WireFormat.PROTOBUF, protobufBytes, run(struct::toByteArray),
+                    run(() -> Struct.parseFrom(protobufBytes))});
+
+        AllocationMeter meter = new AllocationMeter(thread -> false);
+        log.info("Order of {} lines", items);
+        log.info(String.format("%-10s %10s %12s %12s %12s %12s", "", "bytes", "enc us/op", "enc KB/op",
+                "dec us/op", "dec KB/op"));
+        for (Object[] format : formats) {
+            AllocationScenario encode = new AllocationScenario(format[0] + " encode", (Runnable) format[2]);
+            AllocationScenario decode = new AllocationScenario(format[0] + " decode", (Runnable) format[3]);
+
+            long encodeBytes = meter.measure(encode, iterations, iterations);
+            double encodeMicros = time(encode, iterations);
+            long decodeBytes = meter.measure(decode, iterations, iterations);
+            double decodeMicros = time(decode, iterations);
+
+            log.info(String.format("%-10s %,10d %12.1f %12.1f %12.1f %12.1f", format[0], ((byte[]) format[1]).length,
+                    encodeMicros, encodeBytes / 1024.0, decodeMicros, decodeBytes / 1024.0));
+        }
+
+        ObjectMapper defaults = Jackson2ObjectMapperBuilder.json().build();
+        log.info("JSON decode, default vs tuned mapper");
+        log.info(String.format("%-10s %10s %12s %12s %12s %12s", "lines", "bytes", "default us", "default KB",
+                "tuned us", "tuned KB"));
+        for (int lines : new int[]{SMALL_ITEMS, items}) {
+            byte[] payload = json.writeValueAsBytes(order(lines));
+            AllocationScenario standard = new AllocationScenario("default decode",
+                    run(() -> defaults.readValue(payload, Order.class)));
+            AllocationScenario tuned = new AllocationScenario("tuned decode",
+                    run(() -> codecs.reader(Order.class).readValue(payload)));
+
+            long standardBytes = meter.measure(standard, iterations, iterations);
+            double standardMicros = time(standard, iterations);
+            long tunedBytes = meter.measure(tuned, iterations, iterations);
+            double tunedMicros = time(tuned, iterations);
+
+            log.info(String.format("%-10d %,10d %12.1f %12.1f %12.1f %12.1f", lines, payload.length, standardMicros,
+                    standardBytes / 1024.0, tunedMicros, tunedBytes / 1024.0));
+        }
+    }
+
+    private static double time(AllocationScenario scenario, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            scenario.getCall().run();
+        }
+        return (System.nanoTime() - start) / 1_000.0 / iterations;
+    }
+
+    private static Order order(int items) {
+        List<Line> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(new Line(100_000 + i, "Item number " + i, i % 7 + 1, i * 1.25, i % 11 == 0));
+        }
+        return new Order(7, "SHIPPED", "GBP", lines, Map.of("channel", "web", "region", "eu-west"));
+    }
+
+    private static Value toStruct(JsonNode node) {
+        Value.Builder value = Value.newBuilder();
+        if (node.isObject()) {
+            Struct.Builder struct = Struct.newBuilder();
+            node.fields().forEachRemaining(field -> struct.putFields(field.getKey(), toStruct(field.getValue())));
+            value.setStructValue(struct);
+        } else if (node.isArray()) {
+            ListValue.Builder list = ListValue.newBuilder();
+            node.forEach(element -> list.addValues(toStruct(element)));
+            value.setListValue(list);
+        } else if (node.isNumber()) {
+            value.setNumberValue(node.asDouble());
+        } else if (node.isBoolean()) {
+            value.setBoolValue(node.asBoolean());
+        } else if (node.isNull()) {
+            value.setNullValue(NullValue.NULL_VALUE);
+        } else {
+            value.setStringValue(node.asText());
+        }
+        return value.build();
+    }
+
+    private static Runnable run(IOCall call) {
+        return () -> {
+            try {
+                if (call.run() == null) {
+                    throw new IllegalStateException("Nothing produced");
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface IOCall {
+
+        Object run() throws IOException;
+    }
+}
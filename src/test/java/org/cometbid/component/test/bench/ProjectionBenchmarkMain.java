@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.cometbid.component.test.alloc.AllocationMeter;
+import org.cometbid.component.test.alloc.AllocationScenario;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.cometbid.component.webclient.codec.JsonProjection;
+import org.cometbid.component.webclient.codec.WebClientCodecs;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Compares decoding a large nested document in full against decoding it through a
+ * {@link JsonProjection}, in time and bytes allocated per decode.
+ * <p>
+ * Run with
+ * {@code mvn -Pload-test test-compile exec:java -Dexec.mainClass=org.cometbid.component.test.bench.ProjectionBenchmarkMain},
+ * optionally with {@code -Dbench.items=2000} (size of the document) and
+ * {@code -Dbench.iterations=200}.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class ProjectionBenchmarkMain {
+
+    /**
+     * The whole document, as a typical generated DTO would map it.
+     */
+    public record Order(long id, String name, String status, Customer customer, List<Line> lines,
+            Map<String, Object> metadata) {
+
+    }
+
+    public record Customer(long id, String name, String email, Address address, List<String> tags) {
+
+    }
+
+    public record Address(String street, String city, String postcode, String country) {
+
+    }
+
+    public record Line(long sku, String description, int quantity, double price, List<Attribute> attributes) {
+
+    }
+
+    public record Attribute(String name, String value) {
+
+    }
+
+    /**
+     * What the caller actually uses.
+     */
+    public record OrderSummary(long id, String name, String status) {
+
+    }
+
+    public static void main(String[] args) throws IOException {
+        int items = Integer.parseInt(System.getProperty("bench.items", "2000"));
+        int iterations = Integer.parseInt(System.getProperty("bench.iterations", "200"));
+
+        ObjectMapper objectMapper = new WebClientCodecs(new WebClientProperties()).getObjectMapper();
+        byte[] document = objectMapper.writeValueAsBytes(order(items));
+        log.info("Document of {} lines, {} KB", items, document.length / 1024);
+
+        JsonProjection summary = JsonProjection.ofType(OrderSummary.class);
+        JsonProjection pointers = JsonProjection.ofPointers("/id", "/customer/name", "/lines/*/sku");
+
+        List<AllocationScenario> scenarios = List.of(
+                new AllocationScenario("full decode to Order",
+                        () -> decode(() -> objectMapper.readValue(document, Order.class))),
+                new AllocationScenario("projected decode to OrderSummary",
+                        () -> decode(() -> summary.read(objectMapper, new ByteArrayInputStream(document),
+                        OrderSummary.class))),
+                new AllocationScenario("full decode to JsonNode",
+                        () -> decode(() -> objectMapper.readTree(document))),
+                new AllocationScenario("projected decode to JsonNode (3 pointers)",
+                        () -> decode(() -> pointers.read(objectMapper, new ByteArrayInputStream(document),
+                        JsonNode.class))));
+
+        AllocationMeter meter = new AllocationMeter(thread -> false);
+        log.info(String.format("%-44s %12s %14s", "", "us/decode", "KB/decode"));
+        for (AllocationScenario scenario : scenarios) {
+            // measure() warms the scenario up first
+            long bytes = meter.measure(scenario, iterations, iterations);
+
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                scenario.getCall().run();
+            }
+            double micros = (System.nanoTime() - start) / 1_000.0 / iterations;
+
+            log.info(String.format("%-44s %12.1f %14.1f", scenario.getName(), micros, bytes / 1024.0));
+        }
+    }
+
+    private static Order order(int items) {
+        List<Line> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(new Line(100_000 + i, "Item number " + i + " with a reasonably long description", i % 7 + 1,
+                    i * 1.25, List.of(new Attribute("colour", "blue"), new Attribute("size", "L"),
+                    new Attribute("material", "cotton"))));
+        }
+        Customer customer = new Customer(42, "Ada Lovelace", "ada@example.com",
+                new Address("12 Analytical Way", "London", "N1 9GU", "GB"), List.of("gold", "newsletter"));
+
+        return new Order(7, "Order 7", "SHIPPED", customer, lines, Map.of("channel", "web", "campaign", "spring"));
+    }
+
+    private static void decode(IOCall call) {
+        try {
+            if (call.run() == null) {
+                throw new IllegalStateException("Nothing decoded");
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOCall {
+
+        Object run() throws IOException;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.bench;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import org.cometbid.component.test.alloc.AllocationMeter;
+import org.cometbid.component.test.alloc.AllocationScenario;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.webclient.ReactiveClientInterface;
+import org.cometbid.component.webclient.ReactiveWebClientImpl;
+import org.cometbid.component.webclient.proxy.ReactiveClientProxyFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Compares one GET through a {@link ReactiveClientProxyFactory} proxy with the same GET
+ * through the map-based {@link ReactiveClientInterface#performGetToMono} and through a bare
+ * {@code WebClient}, in time and bytes allocated per call against a local
+ * {@link StubServer}.
+ * <p>
+ * Run with
+ * {@code mvn -Pload-test test-compile exec:java -Dexec.mainClass=org.cometbid.component.test.bench.ProxyBenchmarkMain},
+ * optionally with {@code -Dbench.warmup=5000} and {@code -Dbench.iterations=5000}.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class ProxyBenchmarkMain {
+
+    private static final String CLIENT_LOOP = "bench-client";
+
+    private static final String BODY = "{\"id\":1,\"name\":\"bench\",\"tags\":[\"a\",\"b\"],\"price\":9.99}";
+
+    @HttpExchange(url = "/bench/items", accept = MediaType.APPLICATION_JSON_VALUE)
+    public interface ItemClient {
+
+        @GetExchange("/{id}")
+        Mono<JsonNode> get(@PathVariable("id") long id, @RequestParam("page") int page,
+                @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization);
+    }
+
+    public static void main(String[] args) {
+        int warmup = Integer.parseInt(System.getProperty("bench.warmup", "5000"));
+        int iterations = Integer.parseInt(System.getProperty("bench.iterations", "5000"));
+
+        StubServer stub = StubServer.builder()
+                .json(HttpMethod.GET, "/bench/items/{id}", 200, BODY)
+                .build()
+                .start();
+
+        LoopResources loop = LoopResources.create(CLIENT_LOOP, 1, true);
+        ConnectionProvider connectionProvider = ConnectionProvider.create("bench", 1);
+        WebClient webClient = WebClient.builder()
+                .baseUrl(stub.baseUrl())
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider).runOn(loop)))
+                .build();
+
+        ReactiveClientInterface client = new ReactiveWebClientImpl();
+        ItemClient proxy = new ReactiveClientProxyFactory(null).createClient(webClient, ItemClient.class);
+
+        String baseUrl = stub.baseUrl();
+        Map<String, List<String>> headers = Map.of(HttpHeaders.AUTHORIZATION, List.of("Bearer token"),
+                HttpHeaders.ACCEPT, List.of(MediaType.APPLICATION_JSON_VALUE));
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("page", "1");
+
+        List<AllocationScenario> scenarios = List.of(
+                new AllocationScenario("WebClient",
+                        () -> webClient.get().uri("/bench/items/{id}?page={page}", 1, 1)
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                                .accept(MediaType.APPLICATION_JSON)
+                                .retrieve().bodyToMono(JsonNode.class).block()),
+                new AllocationScenario("performGetToMono",
+                        () -> client.performGetToMono(webClient, URI.create(baseUrl + "/bench/items/" + 1),
+                                JsonNode.class, headers, params).block()),
+                new AllocationScenario("proxy",
+                        () -> proxy.get(1, 1, "Bearer token").block()));
+
+        try {
+            AllocationMeter meter = new AllocationMeter(thread -> thread.startsWith(CLIENT_LOOP));
+            log.info(String.format("%-24s %12s %12s", "", "us/call", "B/call"));
+
+            for (AllocationScenario scenario : scenarios) {
+                // measure() warms the scenario up first
+                long bytes = meter.measure(scenario, warmup, iterations);
+
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    scenario.getCall().run();
+                }
+                double micros = (System.nanoTime() - start) / 1_000.0 / iterations;
+
+                log.info(String.format("%-24s %12.1f %,12d", scenario.getName(), micros, bytes));
+            }
+        } finally {
+            connectionProvider.disposeLater().block();
+            loop.disposeLater().block();
+            stub.close();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.cometbid.component.SpringWebclientComponent;
+import org.springframework.util.ClassUtils;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Compares the startup time of {@link SpringWebclientComponent} on the JVM, on the JVM with
+ * its Spring AOT initializers, and as a native image, each in a fresh process.
+ * <p>
+ * Run with {@code mvn -Pstartup-bench verify}, which processes the application ahead of
+ * time before starting the comparison; build the native image first with
+ * {@code mvn -Pnative native:compile} to include it. Optional properties:
+ * {@code -Dstartup.runs=10}, {@code -Dstartup.native=target/spring-webclient-component}.
+ * Modes whose build output is missing are skipped.
+ * <p>
+ * Two times are reported per mode: until Spring Boot logs that the application started,
+ * measured from outside the process, and Spring Boot's own figure, which excludes the
+ * JVM's startup.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class StartupBenchmarkMain {
+
+    private static final Pattern STARTED = Pattern.compile(
+            "Started " + SpringWebclientComponent.class.getSimpleName() + " in ([0-9.]+) seconds");
+
+    private static final String AOT_INITIALIZER = SpringWebclientComponent.class.getName()
+            + "__ApplicationContextInitializer";
+
+    public static void main(String[] args) throws Exception {
+        int runs = Integer.parseInt(System.getProperty("startup.runs", "10"));
+        Path nativeImage = Path.of(System.getProperty("startup.native", "target/spring-webclient-component"));
+        String classpath = classpath();
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> jvm = List.of(java, "-cp", classpath, SpringWebclientComponent.class.getName());
+        List<String> aot = List.of(java, "-Dspring.aot.enabled=true", "-cp", classpath,
+                SpringWebclientComponent.class.getName());
+
+        log.info(String.format("%-12s %12s %12s %12s %14s", "", "p50 ms", "min ms", "max ms", "spring p50 ms"));
+        measure("JVM", jvm, runs);
+
+        if (ClassUtils.isPresent(AOT_INITIALIZER, StartupBenchmarkMain.class.getClassLoader())) {
+            measure("AOT on JVM", aot, runs);
+        } else {
+            log.info("AOT on JVM   skipped, run spring-boot:process-aot first");
+        }
+
+        if (Files.isExecutable(nativeImage)) {
+            measure("native", List.of(nativeImage.toString()), runs);
+        } else {
+            log.info("native       skipped, no image at {}", nativeImage);
+        }
+    }
+
+    private static void measure(String mode, List<String> command, int runs) throws Exception {
+        // the first start pays for a cold page cache
+        start(command);
+
+        List<Double> wall = new ArrayList<>();
+        List<Double> reported = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            double[] times = start(command);
+            wall.add(times[0]);
+            reported.add(times[1]);
+        }
+        Collections.sort(wall);
+        Collections.sort(reported);
+
+        log.info(String.format("%-12s %12.0f %12.0f %12.0f %14.0f", mode, wall.get(wall.size() / 2), wall.get(0),
+                wall.get(wall.size() - 1), reported.get(reported.size() / 2)));
+    }
+
+    /**
+     * Starts the application and returns the milliseconds until it reported being started,
+     * measured from outside and as reported by Spring Boot.
+     */
+    private static double[] start(List<String> command) throws Exception {
+        List<String> arguments = new ArrayList<>(command);
+        arguments.add("--cometbid.webclient.warmup.enabled=false");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(arguments).redirectErrorStream(true).start();
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                Matcher matcher = STARTED.matcher(line);
+                if (matcher.find()) {
+                    double wall = (System.nanoTime() - start) / 1_000_000.0;
+
+                    return new double[]{wall, Double.parseDouble(matcher.group(1)) * 1000};
+                }
+            }
+            throw new IllegalStateException(String.join(" ", command) + " exited without starting");
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * The application's runtime classpath, as written by the {@code startup-bench} profile,
+     * or this process's own when run from an IDE.
+     */
+    private static String classpath() {
+        Path dependencies = Path.of("target", "startup-classpath.txt");
+        if (!Files.isReadable(dependencies)) {
+            return System.getProperty("java.class.path");
+        }
+
+        try {
+            return Path.of("target", "classes") + File.pathSeparator + Files.readString(dependencies).trim();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
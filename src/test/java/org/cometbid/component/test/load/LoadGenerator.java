@@ -0,0 +1,240 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.load;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.reactivestreams.Publisher;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Drives a call, typically one of the {@code ReactiveClientInterface} methods against a
+ * local {@code StubServer}, in open or closed loop and reports latency, throughput, error
+ * mix and pool saturation.
+ * <p>
+ * Latency is recorded into an HdrHistogram {@link Recorder} in microseconds. Open loop
+ * calls are timed from their intended start on a fixed schedule, which is what makes the
+ * measurement free of coordinated omission; closed loop runs can be corrected against an
+ * expected interval instead. Only successful calls contribute to the latency percentiles,
+ * failures are counted by exception type.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private static final Duration POOL_SAMPLE_INTERVAL = Duration.ofMillis(100);
+
+    /**
+     *
+     * @param profile
+     * @param call
+     * @param probe
+     * @return
+     */
+    public LoadReport run(LoadProfile profile, Supplier<? extends Publisher<?>> call, PoolSaturationProbe probe) {
+        if (!profile.getWarmup().isZero()) {
+            log.info("Warming up '{}' for {}", profile.getName(), profile.getWarmup());
+            phase(profile, profile.getWarmup(), call);
+        }
+
+        log.info("Running '{}' {} for {}", profile.getName(), profile.getMode(), profile.getDuration());
+        Instant startedAt = Instant.now();
+        Disposable sampling = probe == null ? null
+                : Flux.interval(POOL_SAMPLE_INTERVAL).subscribe(tick -> probe.sample());
+        try {
+            Run run = phase(profile, profile.getDuration(), call);
+
+            return report(profile, run, startedAt, probe);
+        } finally {
+            if (sampling != null) {
+                sampling.dispose();
+            }
+        }
+    }
+
+    private Run phase(LoadProfile profile, Duration duration, Supplier<? extends Publisher<?>> call) {
+        Run run = new Run(profile);
+        long start = System.nanoTime();
+
+        if (profile.getMode() == LoadMode.OPEN_LOOP) {
+            openLoop(profile, run, call, start, start + duration.toNanos());
+        } else {
+            closedLoop(profile, run, call, start + duration.toNanos());
+        }
+        run.elapsedNanos = System.nanoTime() - start;
+
+        long drainDeadline = System.nanoTime() + profile.getDrainTimeout().toNanos();
+        while (run.outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        if (run.outstanding.get() > 0) {
+            log.warn("{} calls still outstanding after {}", run.outstanding.get(), profile.getDrainTimeout());
+        }
+        return run;
+    }
+
+    private void openLoop(LoadProfile profile, Run run, Supplier<? extends Publisher<?>> call, long start,
+            long end) {
+
+        double intervalNanos = 1_000_000_000d / profile.getRatePerSecond();
+
+        for (long i = 0;; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                return;
+            }
+
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            run.sent.increment();
+            if (run.outstanding.get() >= profile.getMaxOutstanding()) {
+                run.failed("Overloaded");
+                continue;
+            }
+
+            run.outstanding.incrementAndGet();
+            Flux.from(call.get())
+                    .subscribeOn(Schedulers.parallel())
+                    .then()
+                    .subscribe(null,
+                            ex -> run.complete(intended, ex),
+                            () -> run.complete(intended, null));
+        }
+    }
+
+    private void closedLoop(LoadProfile profile, Run run, Supplier<? extends Publisher<?>> call, long end) {
+        Flux.range(0, profile.getConcurrency())
+                .flatMap(worker -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    run.sent.increment();
+                    run.outstanding.incrementAndGet();
+
+                    return Flux.from(call.get())
+                            .then()
+                            .doOnSuccess(v -> run.complete(start, null))
+                            .onErrorResume(ex -> {
+                                run.complete(start, ex);
+
+                                return Mono.empty();
+                            });
+                }).repeat(() -> System.nanoTime() < end), profile.getConcurrency())
+                .blockLast();
+    }
+
+    private LoadReport report(LoadProfile profile, Run run, Instant startedAt, PoolSaturationProbe probe) {
+        Histogram histogram = run.recorder.getIntervalHistogram();
+
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        String encoded = Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+
+        LoadReport.Latency latency = new LoadReport.Latency(histogram.getMinValue(), histogram.getMean(),
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9),
+                histogram.getValueAtPercentile(99.99), histogram.getMaxValue(), encoded);
+
+        Map<String, Long> errors = new TreeMap<>();
+        run.errors.forEach((type, count) -> errors.put(type, count.sum()));
+
+        long succeeded = run.succeeded.sum();
+        boolean open = profile.getMode() == LoadMode.OPEN_LOOP;
+
+        return new LoadReport(profile.getName(), profile.getMode(), startedAt.toString(),
+                TimeUnit.NANOSECONDS.toMillis(run.elapsedNanos), open ? profile.getRatePerSecond() : 0,
+                open ? 0 : profile.getConcurrency(), run.sent.sum(), succeeded, run.failed.sum(),
+                succeeded / (run.elapsedNanos / 1_000_000_000d), latency, errors,
+                probe == null ? null : probe.report());
+    }
+
+    /**
+     * Counters of one phase of a run.
+     */
+    private static final class Run {
+
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+
+        private final long expectedIntervalMicros;
+
+        private final LongAdder sent = new LongAdder();
+
+        private final LongAdder succeeded = new LongAdder();
+
+        private final LongAdder failed = new LongAdder();
+
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        private final AtomicLong outstanding = new AtomicLong();
+
+        private long elapsedNanos;
+
+        Run(LoadProfile profile) {
+            this.expectedIntervalMicros = profile.getExpectedInterval() == null ? 0
+                    : profile.getExpectedInterval().toNanos() / 1_000;
+        }
+
+        void complete(long startNanos, Throwable error) {
+            outstanding.decrementAndGet();
+            if (error != null) {
+                failed(error.getClass().getSimpleName());
+                return;
+            }
+
+            long micros = Math.min((System.nanoTime() - startNanos) / 1_000, HIGHEST_TRACKABLE_MICROS);
+            if (expectedIntervalMicros > 0) {
+                recorder.recordValueWithExpectedInterval(micros, expectedIntervalMicros);
+            } else {
+                recorder.recordValue(micros);
+            }
+            succeeded.increment();
+        }
+
+        void failed(String type) {
+            failed.increment();
+            errors.computeIfAbsent(type, key -> new LongAdder()).increment();
+        }
+    }
+}
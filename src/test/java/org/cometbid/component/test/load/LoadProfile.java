@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.load;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Shape of a load run.
+ *
+ * @author samueladebowale
+ */
+@Value
+@Builder
+public class LoadProfile {
+
+    @Builder.Default
+    String name = "load";
+
+    @Builder.Default
+    LoadMode mode = LoadMode.OPEN_LOOP;
+
+    /**
+     * Calls started per second in {@link LoadMode#OPEN_LOOP}.
+     */
+    @Builder.Default
+    int ratePerSecond = 1_000;
+
+    /**
+     * Concurrent workers in {@link LoadMode#CLOSED_LOOP}.
+     */
+    @Builder.Default
+    int concurrency = 64;
+
+    @Builder.Default
+    Duration duration = Duration.ofSeconds(30);
+
+    /**
+     * Load applied before measuring, so that JIT compilation and pool growth do not skew
+     * the results.
+     */
+    @Builder.Default
+    Duration warmup = Duration.ofSeconds(5);
+
+    /**
+     * Open loop calls outstanding beyond which new arrivals are counted as
+     * {@code Overloaded} errors instead of being issued, so a stuck client cannot exhaust
+     * memory.
+     */
+    @Builder.Default
+    int maxOutstanding = 10_000;
+
+    /**
+     * Per-worker pacing in {@link LoadMode#CLOSED_LOOP}; when set, latencies are corrected
+     * for coordinated omission against it. Open loop runs are corrected by construction.
+     */
+    Duration expectedInterval;
+
+    /**
+     * How long to wait for outstanding calls once the run is over.
+     */
+    @Builder.Default
+    Duration drainTimeout = Duration.ofSeconds(30);
+}
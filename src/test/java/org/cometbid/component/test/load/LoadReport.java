@@ -0,0 +1,151 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Value;
+
+/**
+ * Machine-readable outcome of a load run, written as JSON so that runs can be compared.
+ *
+ * @author samueladebowale
+ */
+@Value
+public class LoadReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    String name;
+
+    LoadMode mode;
+
+    String startedAt;
+
+    long durationMillis;
+
+    /**
+     * Target arrival rate of an open loop run, {@code 0} for closed loop runs.
+     */
+    int offeredRate;
+
+    /**
+     * Worker count of a closed loop run, {@code 0} for open loop runs.
+     */
+    int concurrency;
+
+    long sent;
+
+    long succeeded;
+
+    long failed;
+
+    double throughputPerSecond;
+
+    Latency latency;
+
+    /**
+     * Failed calls by the simple name of the exception they failed with, as mapped by
+     * {@code WebClientExceptionHandler}.
+     */
+    Map<String, Long> errorsByType;
+
+    /**
+     * {@code null} when no {@link PoolSaturationProbe} was attached.
+     */
+    Pool pool;
+
+    /**
+     *
+     * @param target
+     * @throws IOException
+     */
+    public void writeTo(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        MAPPER.writeValue(target.toFile(), this);
+    }
+
+    /**
+     *
+     * @return
+     */
+    public String summary() {
+        return String.format("%s %s: %d sent, %d ok, %d failed, %.0f/s, p50=%dus p99=%dus p99.9=%dus max=%dus",
+                name, mode, sent, succeeded, failed, throughputPerSecond, latency.getP50(), latency.getP99(),
+                latency.getP999(), latency.getMax());
+    }
+
+    /**
+     * Latencies of successful calls in microseconds.
+     */
+    @Value
+    public static class Latency {
+
+        long min;
+
+        double mean;
+
+        long p50;
+
+        long p90;
+
+        long p99;
+
+        long p999;
+
+        long p9999;
+
+        long max;
+
+        /**
+         * The full HdrHistogram, compressed and Base64 encoded, for merging or re-plotting.
+         */
+        String histogram;
+    }
+
+    /**
+     *
+     */
+    @Value
+    public static class Pool {
+
+        int maxConnections;
+
+        int maxAcquired;
+
+        int maxPending;
+
+        /**
+         * Fraction of samples in which a pool had every connection acquired or callers
+         * waiting for one.
+         */
+        double saturatedFraction;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.load;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.cometbid.component.test.stub.FaultProfile;
+import org.cometbid.component.test.stub.LatencyDistribution;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.webclient.ReactiveClientInterface;
+import org.cometbid.component.webclient.ReactiveWebClientImpl;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.reactive.function.client.WebClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.log4j.Log4j2;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Runs {@code ReactiveClientInterface.performGetToMono} under load, against a local
+ * {@link StubServer} unless {@code load.target} names another URL, and writes the
+ * {@link LoadReport} as JSON.
+ * <p>
+ * Configured through system properties, e.g.
+ * {@code mvn -Pload-test test-compile exec:java -Dload.mode=open -Dload.rate=20000}:
+ * <ul>
+ * <li>{@code load.mode} - {@code open} (default) or {@code closed}</li>
+ * <li>{@code load.rate}, {@code load.concurrency}, {@code load.duration},
+ * {@code load.warmup}</li>
+ * <li>{@code load.max-connections} - size of the client pool</li>
+ * <li>{@code load.stub-latency}, {@code load.stub-error-rate} - stub behaviour</li>
+ * <li>{@code load.report} - defaults to {@code target/load/<name>.json}</li>
+ * </ul>
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.builder()
+                .name(property("name", "get-to-mono"))
+                .mode("closed".equalsIgnoreCase(property("mode", "open")) ? LoadMode.CLOSED_LOOP : LoadMode.OPEN_LOOP)
+                .ratePerSecond(Integer.parseInt(property("rate", "1000")))
+                .concurrency(Integer.parseInt(property("concurrency", "64")))
+                .duration(DurationStyle.detectAndParse(property("duration", "30s")))
+                .warmup(DurationStyle.detectAndParse(property("warmup", "5s")))
+                .build();
+
+        StubServer stub = null;
+        String target = property("target", null);
+        if (StringUtils.isBlank(target)) {
+            Duration latency = DurationStyle.detectAndParse(property("stub-latency", "0ms"));
+            stub = StubServer.builder()
+                    .json(HttpMethod.GET, "/load", 200, "{\"ok\":true}")
+                    .faults(FaultProfile.builder()
+                            .latency(latency.isZero() ? LatencyDistribution.NONE
+                                    : LatencyDistribution.logNormal(latency, 0.5))
+                            .errorRate(Double.parseDouble(property("stub-error-rate", "0")))
+                            .build())
+                    .build()
+                    .start();
+            target = stub.baseUrl() + "/load";
+        }
+
+        PoolSaturationProbe probe = new PoolSaturationProbe();
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("load-" + profile.getName())
+                .maxConnections(Integer.parseInt(property("max-connections", "500")))
+                .pendingAcquireMaxCount(-1)
+                .metrics(true, () -> probe)
+                .build();
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+
+        ReactiveClientInterface client = new ReactiveWebClientImpl();
+        URI uri = URI.create(target);
+
+        try {
+            LoadReport report = new LoadGenerator().run(profile,
+                    () -> client.performGetToMono(webClient, uri, JsonNode.class, Map.of(),
+                            new LinkedMultiValueMap<>()), probe);
+
+            Path output = Path.of(property("report", "target/load/" + profile.getName() + "-"
+                    + profile.getMode().name().toLowerCase(Locale.ROOT) + ".json"));
+            report.writeTo(output);
+
+            log.info(report.summary());
+            log.info("Report written to {}", output.toAbsolutePath());
+        } finally {
+            connectionProvider.disposeLater().block();
+            if (stub != null) {
+                stub.close();
+            }
+        }
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("load." + name, defaultValue);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.load;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Samples the connection pools of a {@link ConnectionProvider} built with
+ * {@code metrics(true, () -> probe)} to report how close they came to saturation.
+ *
+ * @author samueladebowale
+ */
+public class PoolSaturationProbe implements ConnectionProvider.MeterRegistrar {
+
+    private final List<ConnectionPoolMetrics> pools = new CopyOnWriteArrayList<>();
+
+    private int maxConnections;
+
+    private int maxAcquired;
+
+    private int maxPending;
+
+    private long samples;
+
+    private long saturatedSamples;
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress,
+            ConnectionPoolMetrics metrics) {
+        pools.add(metrics);
+    }
+
+    /**
+     * Takes one sample across all pools; called periodically by the {@link LoadGenerator}.
+     */
+    public synchronized void sample() {
+        if (pools.isEmpty()) {
+            return;
+        }
+
+        int connections = 0;
+        int acquired = 0;
+        int pending = 0;
+        boolean saturated = false;
+        for (ConnectionPoolMetrics pool : pools) {
+            connections += pool.maxAllocatedSize();
+            acquired += pool.acquiredSize();
+            pending += pool.pendingAcquireSize();
+            saturated |= pool.acquiredSize() >= pool.maxAllocatedSize() || pool.pendingAcquireSize() > 0;
+        }
+
+        maxConnections = Math.max(maxConnections, connections);
+        maxAcquired = Math.max(maxAcquired, acquired);
+        maxPending = Math.max(maxPending, pending);
+        samples++;
+        if (saturated) {
+            saturatedSamples++;
+        }
+    }
+
+    /**
+     *
+     * @return
+     */
+    public synchronized LoadReport.Pool report() {
+        return new LoadReport.Pool(maxConnections, maxAcquired, maxPending,
+                samples == 0 ? 0d : (double) saturatedSamples / samples);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.stub;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Failure and timing behaviour applied by a {@link StubServer} route.
+ *
+ * @author samueladebowale
+ */
+@Value
+@Builder(toBuilder = true)
+public class FaultProfile {
+
+    public static final FaultProfile NONE = FaultProfile.builder().build();
+
+    @Builder.Default
+    LatencyDistribution latency = LatencyDistribution.NONE;
+
+    /**
+     * Fraction of requests answered with {@link #errorStatus} instead of the route response.
+     */
+    @Builder.Default
+    double errorRate = 0d;
+
+    @Builder.Default
+    int errorStatus = 503;
+
+    /**
+     * Fraction of requests whose connection is reset (RST) instead of answered.
+     */
+    @Builder.Default
+    double resetRate = 0d;
+
+    /**
+     * When positive, the body is written in chunks of this many bytes, {@link #dripInterval}
+     * apart.
+     */
+    @Builder.Default
+    int dripChunkSize = 0;
+
+    @Builder.Default
+    Duration dripInterval = Duration.ZERO;
+
+    /**
+     * How many responses served with this profile are cut off, the connection closing
+     * after {@link #truncateAfter} bytes of the body. Later responses are complete.
+     */
+    @Builder.Default
+    int truncatedResponses = 0;
+
+    @Builder.Default
+    int truncateAfter = 0;
+}
@@ -0,0 +1,101 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.stub;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of injected response latencies.
+ *
+ * @author samueladebowale
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    LatencyDistribution NONE = () -> Duration.ZERO;
+
+    /**
+     *
+     * @return
+     */
+    Duration next();
+
+    /**
+     *
+     * @param latency
+     * @return
+     */
+    static LatencyDistribution fixed(Duration latency) {
+        return () -> latency;
+    }
+
+    /**
+     *
+     * @param min
+     * @param max
+     * @return
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long maxNanos = max.toNanos();
+
+        return () -> Duration.ofNanos(ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1));
+    }
+
+    /**
+     * Log-normal latencies, the usual shape of service response times: most calls close to
+     * the median with a long tail governed by {@code sigma}.
+     *
+     * @param median
+     * @param sigma
+     * @return
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        double mu = Math.log(median.toNanos());
+
+        return () -> Duration.ofNanos((long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * Seeded variant of {@link #logNormal(Duration, double)} for runs that must be
+     * reproducible across machines.
+     *
+     * @param median
+     * @param sigma
+     * @param seed
+     * @return
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma, long seed) {
+        double mu = Math.log(median.toNanos());
+        Random random = new Random(seed);
+
+        return () -> {
+            synchronized (random) {
+                return Duration.ofNanos((long) Math.exp(mu + sigma * random.nextGaussian()));
+            }
+        };
+    }
+}
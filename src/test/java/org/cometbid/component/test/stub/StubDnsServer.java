@@ -0,0 +1,185 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.stub;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.handler.codec.dns.DatagramDnsQuery;
+import io.netty.handler.codec.dns.DatagramDnsQueryDecoder;
+import io.netty.handler.codec.dns.DatagramDnsResponse;
+import io.netty.handler.codec.dns.DatagramDnsResponseEncoder;
+import io.netty.handler.codec.dns.DefaultDnsRawRecord;
+import io.netty.handler.codec.dns.DnsQuestion;
+import io.netty.handler.codec.dns.DnsRecordType;
+import io.netty.handler.codec.dns.DnsResponseCode;
+import io.netty.handler.codec.dns.DnsSection;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Embedded UDP name server for resolver tests, on the loopback interface only.
+ * <p>
+ * It answers {@code A} queries for the hosts it is given, with their TTL, and
+ * {@code NXDOMAIN} for any other name. {@link #failing(boolean)} makes it stop answering
+ * altogether, the way an unreachable name server behaves, and every query is counted per
+ * host.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class StubDnsServer implements AutoCloseable {
+
+    private final Map<String, Record> records = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> queries = new ConcurrentHashMap<>();
+
+    private final EventLoopGroup eventLoopGroup = new NioEventLoopGroup(1,
+            new DefaultThreadFactory("stub-dns", true));
+
+    private volatile boolean failing;
+
+    private Channel channel;
+
+    /**
+     *
+     * @return
+     */
+    public StubDnsServer start() {
+        channel = new Bootstrap()
+                .group(eventLoopGroup)
+                .channel(NioDatagramChannel.class)
+                .handler(new ChannelInitializer<NioDatagramChannel>() {
+                    @Override
+                    protected void initChannel(NioDatagramChannel ch) {
+                        ch.pipeline().addLast(new DatagramDnsQueryDecoder(), new DatagramDnsResponseEncoder(),
+                                new QueryHandler());
+                    }
+                })
+                .bind("127.0.0.1", 0)
+                .syncUninterruptibly()
+                .channel();
+
+        log.info("Stub DNS server listening on {}", nameServer());
+        return this;
+    }
+
+    /**
+     * The {@code host:port} to configure as name server.
+     *
+     * @return
+     */
+    public String nameServer() {
+        return "127.0.0.1:" + ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    /**
+     *
+     * @param host
+     * @param address
+     * @param ttlSeconds
+     * @return
+     */
+    public StubDnsServer record(String host, String address, long ttlSeconds) {
+        try {
+            records.put(host, new Record(InetAddress.getByName(address).getAddress(), ttlSeconds));
+        } catch (UnknownHostException ex) {
+            throw new IllegalArgumentException(address, ex);
+        }
+        return this;
+    }
+
+    /**
+     * While set, queries are dropped without an answer.
+     *
+     * @param failing
+     */
+    public void failing(boolean failing) {
+        this.failing = failing;
+    }
+
+    /**
+     * Queries received for the host, of any record type.
+     *
+     * @param host
+     * @return
+     */
+    public int queryCount(String host) {
+        AtomicInteger count = queries.get(host);
+        return count != null ? count.get() : 0;
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            channel.close().syncUninterruptibly();
+        }
+        eventLoopGroup.shutdownGracefully();
+    }
+
+    private record Record(byte[] address, long ttlSeconds) {
+
+    }
+
+    private final class QueryHandler extends SimpleChannelInboundHandler<DatagramDnsQuery> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, DatagramDnsQuery query) {
+            DnsQuestion question = query.recordAt(DnsSection.QUESTION);
+            String host = StringUtils.removeEnd(question.name(), ".");
+            queries.computeIfAbsent(host, k -> new AtomicInteger()).incrementAndGet();
+
+            if (failing) {
+                return;
+            }
+
+            DatagramDnsResponse response = new DatagramDnsResponse(query.recipient(), query.sender(), query.id());
+            response.setRecursionAvailable(true);
+            response.addRecord(DnsSection.QUESTION, question);
+
+            Record record = records.get(host);
+            if (record == null) {
+                response.setCode(DnsResponseCode.NXDOMAIN);
+            } else if (question.type() == DnsRecordType.A) {
+                response.addRecord(DnsSection.ANSWER, new DefaultDnsRawRecord(question.name(), DnsRecordType.A,
+                        record.ttlSeconds(), Unpooled.wrappedBuffer(record.address())));
+            }
+
+            ctx.writeAndFlush(response);
+        }
+    }
+}
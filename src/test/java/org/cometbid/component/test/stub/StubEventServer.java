@@ -0,0 +1,278 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.stub;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+/**
+ * Embedded Server-Sent Events server for stream-consumer tests, on the loopback interface
+ * only.
+ * <p>
+ * It publishes a fixed, numbered sequence of events ({@code id: n},
+ * {@code data: {"seq":n}}), resumes after the {@code Last-Event-ID} a reconnecting client
+ * sends, and can misbehave the ways real streams do: close the connection every few
+ * events, go silent, or send only heartbeat comments. Once the sequence is exhausted it
+ * answers {@code 204}, telling well-behaved clients to stop.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class StubEventServer implements AutoCloseable {
+
+    private final Builder config;
+
+    private final List<String> lastEventIds = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private DisposableServer server;
+
+    private StubEventServer(Builder builder) {
+        this.config = builder;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public StubEventServer start() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get(config.path, this::handle))
+                .bindNow();
+
+        log.info("Stub event server listening on {}", baseUrl());
+        return this;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public int connectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * The {@code Last-Event-ID} of every connection in order, empty when none was sent.
+     *
+     * @return
+     */
+    public List<String> lastEventIds() {
+        return List.copyOf(lastEventIds);
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.disposeNow(Duration.ofSeconds(5));
+        }
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        int connection = connections.incrementAndGet();
+        String lastEventId = StringUtils.defaultString(request.requestHeaders().get("Last-Event-ID"));
+        lastEventIds.add(lastEventId);
+
+        int from = NumberUtils.toInt(lastEventId, 0) + 1;
+        if (from > config.events) {
+            return response.status(204).send();
+        }
+
+        int to = config.disconnectEvery > 0 ? Math.min(config.events, from + config.disconnectEvery - 1)
+                : config.events;
+
+        Flux<String> events = Flux.range(from, to - from + 1)
+                .delayElements(config.interval)
+                .map(seq -> event(seq, connection == 1 && seq == from));
+
+        if (config.stallAfter > 0 && connection == 1) {
+            // the first connection stays open but silent after a few events
+            events = events.take(config.stallAfter).concatWith(Flux.never());
+        } else if (to == config.events && config.disconnectEvery <= 0) {
+            events = events.concatWith(Flux.never());
+        }
+
+        if (!config.heartbeat.isZero()) {
+            // publish connects once both inner subscribers are in place, so no event is lost
+            events = events.publish(shared -> Flux.merge(shared,
+                    Flux.interval(config.heartbeat).map(i -> ":heartbeat\n\n"))
+                    .takeUntilOther(shared.then()));
+        }
+
+        return response.status(200)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .send(events.map(StubEventServer::buffer), buffer -> true)
+                .then();
+    }
+
+    private String event(int seq, boolean first) {
+        StringBuilder event = new StringBuilder();
+        if (first && config.retry != null) {
+            event.append("retry: ").append(config.retry.toMillis()).append('\n');
+        }
+        return event.append("id: ").append(seq).append('\n')
+                .append("event: tick\n")
+                .append("data: {\"seq\":").append(seq).append("}\n\n")
+                .toString();
+    }
+
+    private static ByteBuf buffer(String text) {
+        return Unpooled.wrappedBuffer(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    public static final class Builder {
+
+        private String path = "/events";
+
+        private int events = 100;
+
+        private Duration interval = Duration.ofMillis(10);
+
+        private int disconnectEvery;
+
+        private int stallAfter;
+
+        private Duration heartbeat = Duration.ZERO;
+
+        private Duration retry;
+
+        private Builder() {
+        }
+
+        /**
+         *
+         * @param path
+         * @return
+         */
+        public Builder path(String path) {
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * Length of the sequence, after which the server answers {@code 204}.
+         *
+         * @param events
+         * @param interval
+         * @return
+         */
+        public Builder events(int events, Duration interval) {
+            this.events = events;
+            this.interval = interval;
+            return this;
+        }
+
+        /**
+         * Closes each connection after this many events, {@code 0} to keep it open.
+         *
+         * @param disconnectEvery
+         * @return
+         */
+        public Builder disconnectEvery(int disconnectEvery) {
+            this.disconnectEvery = disconnectEvery;
+            return this;
+        }
+
+        /**
+         * Stops sending events on the first connection after this many, without closing it.
+         *
+         * @param stallAfter
+         * @return
+         */
+        public Builder stallAfter(int stallAfter) {
+            this.stallAfter = stallAfter;
+            return this;
+        }
+
+        /**
+         * Interval of {@code :heartbeat} comments, sent even while stalled.
+         *
+         * @param heartbeat
+         * @return
+         */
+        public Builder heartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+            return this;
+        }
+
+        /**
+         * Sent as {@code retry:} with the first event.
+         *
+         * @param retry
+         * @return
+         */
+        public Builder retry(Duration retry) {
+            this.retry = retry;
+            return this;
+        }
+
+        /**
+         *
+         * @return
+         */
+        public StubEventServer build() {
+            return new StubEventServer(this);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.stub;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A canned response served by a {@link StubServer} for matching requests.
+ *
+ * @author samueladebowale
+ */
+@Value
+@Builder
+public class StubRoute {
+
+    HttpMethod method;
+
+    PathPattern path;
+
+    @Builder.Default
+    int status = 200;
+
+    @Builder.Default
+    HttpHeaders headers = new HttpHeaders();
+
+    @Builder.Default
+    byte[] body = new byte[0];
+
+    /**
+     * Route specific faults, the server defaults apply when {@code null}.
+     */
+    FaultProfile faults;
+
+    /**
+     * Whether {@code Range} requests are answered with the requested bytes and a
+     * {@code 206}, as advertised by {@code Accept-Ranges}.
+     */
+    boolean ranges;
+
+    boolean matches(String requestMethod, String requestPath) {
+        return (method.matches(requestMethod) || HttpMethod.HEAD.matches(requestMethod) && method == HttpMethod.GET)
+                && path.matches(PathContainer.parsePath(requestPath));
+    }
+}
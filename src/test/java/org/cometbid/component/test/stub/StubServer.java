@@ -0,0 +1,502 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.stub;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.web.util.pattern.PathPatternParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelOption;
+import lombok.extern.log4j.Log4j2;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+/**
+ * Embedded Reactor Netty server standing in for a downstream in performance and failure
+ * tests, on the loopback interface only.
+ * <p>
+ * Responses come from programmed {@link StubRoute routes}, from exchanges previously
+ * recorded to disk ({@link Builder#replay(Path)}), or, in recording mode, from a real
+ * downstream whose exchanges are saved as they are proxied
+ * ({@link Builder#recordTo(String, Path)}). A {@link FaultProfile} adds latency, error
+ * statuses, slow-drip or truncated bodies and connection resets on top of any of them.
+ * Routes can serve byte ranges, and {@code HEAD} is answered by the {@code GET} route.
+ * <p>
+ * The server is {@link AutoCloseable}: from JUnit use {@link StubServerExtension}, from JMH
+ * start it in a {@code @Setup(Level.Trial)} method and close it in the matching
+ * {@code @TearDown}.
+ *
+ * @author samueladebowale
+ */
+@Log4j2
+public class StubServer implements AutoCloseable {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<StubRoute> routes;
+
+    private final Map<String, Replay> replays;
+
+    private final FaultProfile defaultFaults;
+
+    private final String recordTarget;
+
+    private final Path recordDirectory;
+
+    private final AtomicInteger recorded = new AtomicInteger();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final List<HttpHeaders> receivedHeaders = new CopyOnWriteArrayList<>();
+
+    private final List<String> receivedUris = new CopyOnWriteArrayList<>();
+
+    private final Map<FaultProfile, AtomicInteger> truncated = new ConcurrentHashMap<>();
+
+    private DisposableServer server;
+
+    private StubServer(Builder builder) {
+        this.routes = new CopyOnWriteArrayList<>(builder.routes);
+        this.replays = new ConcurrentHashMap<>(builder.replays);
+        this.defaultFaults = builder.faults;
+        this.recordTarget = builder.recordTarget;
+        this.recordDirectory = builder.recordDirectory;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public StubServer start() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle(this::handle)
+                .bindNow();
+
+        log.info("Stub server listening on {}", baseUrl());
+        return this;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    /**
+     *
+     * @return
+     */
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * The headers of every request received, in arrival order.
+     *
+     * @return
+     */
+    public List<HttpHeaders> receivedHeaders() {
+        return receivedHeaders;
+    }
+
+    /**
+     * The raw request URIs, path and query as sent, of every request received, in arrival
+     * order.
+     *
+     * @return
+     */
+    public List<String> receivedUris() {
+        return receivedUris;
+    }
+
+    /**
+     *
+     * @param route
+     */
+    public void addRoute(StubRoute route) {
+        routes.add(route);
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.disposeNow(Duration.ofSeconds(5));
+        }
+    }
+
+    private Mono<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        requests.increment();
+
+        String method = request.method().name();
+        String uri = request.uri();
+        String path = StringUtils.substringBefore(uri, "?");
+        boolean head = HttpMethod.HEAD.matches(method);
+
+        HttpHeaders headers = new HttpHeaders();
+        request.requestHeaders().forEach(header -> headers.add(header.getKey(), header.getValue()));
+        receivedHeaders.add(headers);
+        receivedUris.add(uri);
+
+        return request.receive().aggregate().asByteArray().defaultIfEmpty(EMPTY).flatMap(body -> {
+            StubRoute route = findRoute(method, path);
+            if (route != null) {
+                FaultProfile faults = route.getFaults() != null ? route.getFaults() : defaultFaults;
+                Map<String, String> responseHeaders = new LinkedHashMap<>(route.getHeaders().toSingleValueMap());
+                byte[] content = route.getBody();
+                int status = route.getStatus();
+
+                List<HttpRange> ranges = route.isRanges() && isCurrent(route, headers.getFirst(HttpHeaders.IF_RANGE))
+                        ? headers.getRange() : List.of();
+                if (route.isRanges()) {
+                    responseHeaders.put(HttpHeaders.ACCEPT_RANGES, "bytes");
+                }
+                if (!ranges.isEmpty()) {
+                    int start = (int) ranges.get(0).getRangeStart(content.length);
+                    int end = (int) ranges.get(0).getRangeEnd(content.length);
+                    responseHeaders.put(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + content.length);
+                    content = Arrays.copyOfRange(content, start, end + 1);
+                    status = 206;
+                }
+                return withFaults(response, faults, status, responseHeaders, content, head);
+            }
+
+            Replay replay = replays.getOrDefault(method + " " + uri, replays.get(method + " " + path));
+            if (replay != null) {
+                RecordedExchange exchange = replay.next();
+                return withFaults(response, defaultFaults, exchange.getStatus(),
+                        replayHeaders(exchange.getHeaders()), exchange.getBody(), head);
+            }
+
+            if (recordTarget != null) {
+                return proxyAndRecord(request, response, body);
+            }
+
+            return response.status(404).send();
+        });
+    }
+
+    /**
+     * {@code If-Range} matches a strong {@code ETag} or the exact {@code Last-Modified} date,
+     * never a weak {@code ETag}.
+     */
+    private static boolean isCurrent(StubRoute route, String ifRange) {
+        if (ifRange == null) {
+            return true;
+        }
+        return !ifRange.startsWith("W/") && (ifRange.equals(route.getHeaders().getFirst(HttpHeaders.ETAG))
+                || ifRange.equals(route.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED)));
+    }
+
+    private StubRoute findRoute(String method, String path) {
+        for (StubRoute route : routes) {
+            if (route.matches(method, path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private Mono<Void> withFaults(HttpServerResponse response, FaultProfile faults, int status,
+            Map<String, String> headers, byte[] body, boolean head) {
+
+        return Mono.delay(faults.getLatency().next()).then(Mono.defer(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            if (faults.getResetRate() > 0 && random.nextDouble() < faults.getResetRate()) {
+                response.withConnection(connection -> {
+                    connection.channel().config().setOption(ChannelOption.SO_LINGER, 0);
+                    connection.channel().close();
+                });
+                return Mono.empty();
+            }
+
+            if (faults.getErrorRate() > 0 && random.nextDouble() < faults.getErrorRate()) {
+                return response.status(faults.getErrorStatus()).send();
+            }
+
+            response.status(status);
+            headers.forEach(response::header);
+
+            byte[] content = body != null ? body : EMPTY;
+            if (head) {
+                return response.header(HttpHeaders.CONTENT_LENGTH, String.valueOf(content.length)).send();
+            }
+
+            if (faults.getTruncatedResponses() > 0 && faults.getTruncateAfter() < content.length && truncated
+                    .computeIfAbsent(faults, key -> new AtomicInteger())
+                    .getAndIncrement() < faults.getTruncatedResponses()) {
+                return response.header(HttpHeaders.CONTENT_LENGTH, String.valueOf(content.length))
+                        .send(Mono.just(Unpooled.wrappedBuffer(content, 0, faults.getTruncateAfter()))
+                                .concatWith(Mono.delay(Duration.ofMillis(50)).then(Mono.fromRunnable(() -> response
+                                .withConnection(connection -> connection.channel().close())))), buffer -> true)
+                        .then();
+            }
+
+            if (faults.getDripChunkSize() <= 0 || content.length <= faults.getDripChunkSize()) {
+                return response.header(HttpHeaders.CONTENT_LENGTH, String.valueOf(content.length))
+                        .sendByteArray(Mono.just(content))
+                        .then();
+            }
+
+            int chunkSize = faults.getDripChunkSize();
+            int chunks = (content.length + chunkSize - 1) / chunkSize;
+
+            return response.send(Flux.range(0, chunks)
+                    .delayElements(faults.getDripInterval())
+                    .map(i -> Unpooled.wrappedBuffer(content, i * chunkSize,
+                            Math.min(chunkSize, content.length - i * chunkSize))), buffer -> true)
+                    .then();
+        }));
+    }
+
+    private Mono<Void> proxyAndRecord(HttpServerRequest request, HttpServerResponse response, byte[] body) {
+        String method = request.method().name();
+        String uri = request.uri();
+
+        return HttpClient.create()
+                .headers(headers -> request.requestHeaders().forEach(header -> {
+                    if (!HttpHeaders.HOST.equalsIgnoreCase(header.getKey())) {
+                        headers.add(header.getKey(), header.getValue());
+                    }
+                }))
+                .request(request.method())
+                .uri(recordTarget + uri)
+                .send(Mono.just(Unpooled.wrappedBuffer(body)))
+                .responseSingle((clientResponse, content) -> content.asByteArray().defaultIfEmpty(EMPTY)
+                        .map(bytes -> {
+                            Map<String, List<String>> headers = new LinkedHashMap<>();
+                            clientResponse.responseHeaders().forEach(header -> headers
+                                    .computeIfAbsent(header.getKey(), k -> new ArrayList<>()).add(header.getValue()));
+
+                            return new RecordedExchange(method, uri, clientResponse.status().code(), headers, bytes);
+                        }))
+                .flatMap(exchange -> save(exchange).then(withFaults(response, FaultProfile.NONE, exchange.getStatus(),
+                        replayHeaders(exchange.getHeaders()), exchange.getBody(), false)));
+    }
+
+    private Mono<Void> save(RecordedExchange exchange) {
+        return Mono.fromRunnable(() -> {
+            String name = String.format("%05d-%s.json", recorded.incrementAndGet(), exchange.getMethod());
+            try {
+                Files.createDirectories(recordDirectory);
+                Files.write(recordDirectory.resolve(name), MAPPER.writerWithDefaultPrettyPrinter()
+                        .writeValueAsBytes(exchange));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+
+    /**
+     * Hop-by-hop and framing headers are recomputed for the replayed body.
+     */
+    private static Map<String, String> replayHeaders(Map<String, List<String>> headers) {
+        Map<String, String> result = new LinkedHashMap<>();
+        headers.forEach((name, values) -> {
+            if (!StringUtils.equalsAnyIgnoreCase(name, HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING,
+                    HttpHeaders.CONNECTION) && !values.isEmpty()) {
+                result.put(name, values.get(0));
+            }
+        });
+        return result;
+    }
+
+    private static final class Replay {
+
+        private final List<RecordedExchange> exchanges = new ArrayList<>();
+
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        RecordedExchange next() {
+            return exchanges.get(Math.floorMod(cursor.getAndIncrement(), exchanges.size()));
+        }
+    }
+
+    /**
+     *
+     * @author samueladebowale
+     */
+    public static final class Builder {
+
+        private final PathPatternParser parser = new PathPatternParser();
+
+        private final List<StubRoute> routes = new ArrayList<>();
+
+        private final Map<String, Replay> replays = new LinkedHashMap<>();
+
+        private FaultProfile faults = FaultProfile.NONE;
+
+        private String recordTarget;
+
+        private Path recordDirectory;
+
+        private Builder() {
+        }
+
+        /**
+         *
+         * @param method
+         * @param path
+         * @param status
+         * @param json
+         * @return
+         */
+        public Builder json(HttpMethod method, String path, int status, String json) {
+            return route(method, path, status, MediaType.APPLICATION_JSON_VALUE,
+                    json.getBytes(StandardCharsets.UTF_8), null);
+        }
+
+        /**
+         *
+         * @param method
+         * @param path
+         * @param status
+         * @param contentType
+         * @param body
+         * @param faults
+         * @return
+         */
+        public Builder route(HttpMethod method, String path, int status, String contentType, byte[] body,
+                FaultProfile faults) {
+            HttpHeaders headers = new HttpHeaders();
+            if (contentType != null) {
+                headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+            }
+
+            return route(StubRoute.builder()
+                    .method(method)
+                    .path(parser.parse(path))
+                    .status(status)
+                    .headers(headers)
+                    .body(body)
+                    .faults(faults)
+                    .build());
+        }
+
+        /**
+         *
+         * @param route
+         * @return
+         */
+        public Builder route(StubRoute route) {
+            routes.add(route);
+            return this;
+        }
+
+        /**
+         * Default faults, applied to every route without its own profile and to replays.
+         *
+         * @param faults
+         * @return
+         */
+        public Builder faults(FaultProfile faults) {
+            this.faults = faults;
+            return this;
+        }
+
+        /**
+         * Serves the exchanges found in {@code directory}; repeated requests for the same
+         * method and URI cycle through their recordings in file order.
+         *
+         * @param directory
+         * @return
+         */
+        public Builder replay(Path directory) {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(f -> f.toString().endsWith(".json")).sorted().toList()) {
+                    RecordedExchange exchange = MAPPER.readValue(file.toFile(), RecordedExchange.class);
+
+                    replays.computeIfAbsent(exchange.getMethod() + " " + exchange.getUri(), k -> new Replay())
+                            .exchanges.add(exchange);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return this;
+        }
+
+        /**
+         * Proxies requests no route matches to {@code targetBaseUrl} and records each
+         * exchange into {@code directory}.
+         *
+         * @param targetBaseUrl
+         * @param directory
+         * @return
+         */
+        public Builder recordTo(String targetBaseUrl, Path directory) {
+            this.recordTarget = StringUtils.removeEnd(targetBaseUrl, "/");
+            this.recordDirectory = directory;
+            return this;
+        }
+
+        /**
+         *
+         * @return
+         */
+        public StubServer build() {
+            return new StubServer(this);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.stub;
+
+import java.util.function.Supplier;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Starts a {@link StubServer} before the tests of a class and stops it afterwards:
+ * <pre>
+ * &#64;RegisterExtension
+ * static StubServerExtension stub = new StubServerExtension(() -&gt; StubServer.builder()
+ *         .json(HttpMethod.GET, "/items/{id}", 200, "{\"id\":1}")
+ *         .build());
+ * </pre>
+ *
+ * @author samueladebowale
+ */
+public class StubServerExtension implements BeforeAllCallback, AfterAllCallback {
+
+    private final Supplier<StubServer> factory;
+
+    private StubServer server;
+
+    public StubServerExtension(Supplier<StubServer> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public StubServer server() {
+        return server;
+    }
+
+    /**
+     *
+     * @return
+     */
+    public String baseUrl() {
+        return server.baseUrl();
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        server = factory.get().start();
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        if (server != null) {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.test.stub;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.test.StepVerifier;
+
+/**
+ * Verifies the stub harness itself, through {@link StubServerExtension}.
+ *
+ * @author samueladebowale
+ */
+class StubServerExtensionTest {
+
+    private static final byte[] LARGE_BODY = "x".repeat(4096).getBytes(StandardCharsets.UTF_8);
+
+    @RegisterExtension
+    static StubServerExtension stub = new StubServerExtension(() -> StubServer.builder()
+            .json(HttpMethod.GET, "/items/{id}", 200, "{\"id\":1}")
+            .route(HttpMethod.GET, "/unavailable", 200, "text/plain", new byte[0],
+                    FaultProfile.builder().errorRate(1).errorStatus(503).build())
+            .route(HttpMethod.GET, "/reset", 200, "text/plain", new byte[0],
+                    FaultProfile.builder().resetRate(1).build())
+            .route(HttpMethod.GET, "/slow", 200, "text/plain", new byte[0],
+                    FaultProfile.builder().latency(LatencyDistribution.fixed(Duration.ofMillis(300))).build())
+            .route(HttpMethod.GET, "/drip", 200, "text/plain", LARGE_BODY,
+                    FaultProfile.builder().dripChunkSize(512).dripInterval(Duration.ofMillis(5)).build())
+            .build());
+
+    @Test
+    void servesProgrammedRoutes() {
+        long before = stub.server().requestCount();
+
+        StepVerifier.create(client().get().uri("/items/42").retrieve().bodyToMono(String.class))
+                .expectNext("{\"id\":1}")
+                .verifyComplete();
+
+        StepVerifier.create(client().get().uri("/nowhere").retrieve().toBodilessEntity())
+                .expectErrorSatisfies(ex -> assertThat(ex).hasMessageContaining("404"))
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(stub.server().requestCount() - before).isEqualTo(2);
+    }
+
+    @Test
+    void appliesFaultProfiles() {
+        StepVerifier.create(client().get().uri("/unavailable").exchangeToMono(response
+                -> response.releaseBody().thenReturn(response.statusCode())))
+                .expectNext(HttpStatus.SERVICE_UNAVAILABLE)
+                .verifyComplete();
+
+        StepVerifier.create(client().get().uri("/reset").retrieve().toBodilessEntity())
+                .expectError(WebClientRequestException.class)
+                .verify(Duration.ofSeconds(5));
+
+        StepVerifier.create(client().get().uri("/slow").retrieve().toBodilessEntity()
+                .timeout(Duration.ofMillis(100)))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+
+        StepVerifier.create(client().get().uri("/drip").retrieve().bodyToMono(byte[].class))
+                .assertNext(body -> assertThat(body).isEqualTo(LARGE_BODY))
+                .verifyComplete();
+    }
+
+    @Test
+    void replaysRecordedExchanges() throws Exception {
+        Path directory = Files.createTempDirectory("stub-recordings");
+
+        try (StubServer recorder = StubServer.builder().recordTo(stub.baseUrl(), directory).build().start()) {
+            StepVerifier.create(WebClient.create(recorder.baseUrl()).get().uri("/items/7").retrieve()
+                    .bodyToMono(String.class))
+                    .expectNext("{\"id\":1}")
+                    .verifyComplete();
+        }
+
+        try (StubServer replay = StubServer.builder().replay(directory).build().start()) {
+            StepVerifier.create(WebClient.create(replay.baseUrl()).get().uri("/items/7").retrieve()
+                    .bodyToMono(String.class))
+                    .expectNext("{\"id\":1}")
+                    .verifyComplete();
+        }
+    }
+
+    private static WebClient client() {
+        return WebClient.create(stub.baseUrl());
+    }
+}
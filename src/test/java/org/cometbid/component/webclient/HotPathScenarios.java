@@ -0,0 +1,196 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.cometbid.component.test.alloc.AllocationScenario;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.netty.handler.codec.http.cookie.Cookie;
+import io.netty.handler.codec.http.cookie.DefaultCookie;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The request hot path as allocation scenarios: every {@link ReactiveClientInterface}
+ * method against a stub, and the header, response and error mapping helpers on their own.
+ * <p>
+ * Lives in this package to reach {@link ReactiveWebClient#prepareHeaders(String)}.
+ *
+ * @author samueladebowale
+ */
+public final class HotPathScenarios {
+
+    /**
+     * Paths the stub must answer: {@code GET /alloc/items} with a JSON array, every other
+     * method and {@code /alloc/items/{id}} with a JSON object.
+     */
+    public static final String ITEMS = "/alloc/items";
+
+    private static final String BODY = "{\"id\":1,\"name\":\"alloc\",\"tags\":[\"a\",\"b\"],\"price\":9.99}";
+
+    private HotPathScenarios() {
+    }
+
+    /**
+     *
+     * @param webClient client without a base URL
+     * @param baseUrl the stub
+     * @return
+     */
+    public static List<AllocationScenario> all(WebClient webClient, String baseUrl) {
+        ReactiveClientInterface client = new ReactiveWebClientImpl();
+        ReactiveWebClient reactiveWebClient = new ReactiveWebClient(client);
+
+        URI items = URI.create(baseUrl + ITEMS);
+        URI item = URI.create(baseUrl + ITEMS + "/1");
+        WebClient based = webClient.mutate().baseUrl(baseUrl).build();
+
+        Map<String, List<String>> headers = reactiveWebClient.prepareHeaders("token");
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("page", "1");
+        Map<String, Object> templateVar = Map.of("id", 1);
+        List<Cookie> cookies = List.of(new DefaultCookie("session", "abc"));
+
+        ObjectNode payload = JsonNodeFactory.instance.objectNode().put("id", 1).put("name", "alloc");
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("name", "alloc");
+        MultipartBodyBuilder parts = new MultipartBodyBuilder();
+        parts.part("name", "alloc");
+        MultiValueMap<String, HttpEntity<?>> multipart = parts.build();
+
+        List<AllocationScenario> scenarios = new ArrayList<>();
+
+        // ReactiveClientInterface
+        scenarios.add(new AllocationScenario("performGetToMono",
+                () -> client.performGetToMono(webClient, item, JsonNode.class, headers, params).block()));
+        scenarios.add(new AllocationScenario("performGetToFlux",
+                () -> client.performGetToFlux(webClient, items, JsonNode.class, headers, params).blockLast()));
+        scenarios.add(new AllocationScenario("performPostFormToMono",
+                () -> client.performPostFormToMono(webClient, items, form, JsonNode.class, headers, params).block()));
+        scenarios.add(new AllocationScenario("performPostToMono",
+                () -> client.performPostToMono(webClient, items, payload, JsonNode.class, headers, params).block()));
+        scenarios.add(new AllocationScenario("performPutToMono",
+                () -> client.performPutToMono(webClient, item, payload, JsonNode.class, headers, params).block()));
+        scenarios.add(new AllocationScenario("performDeleteToMono",
+                () -> client.performDeleteToMono(webClient, item, JsonNode.class, headers, params).block()));
+        scenarios.add(new AllocationScenario("performPublisherPost",
+                () -> client.performPublisherPost(webClient, items, Mono.just(payload), ObjectNode.class,
+                        JsonNode.class, headers, params).block()));
+        scenarios.add(new AllocationScenario("performPublisherPut",
+                () -> client.performPublisherPut(webClient, item, Mono.just(payload), ObjectNode.class,
+                        JsonNode.class, headers, params).block()));
+        scenarios.add(new AllocationScenario("performPublisherPost.stream",
+                () -> client.performPublisherPost(webClient, items, Flux.just(payload, payload), ObjectNode.class,
+                        JsonNode.class, MediaType.APPLICATION_NDJSON, headers, params).block()));
+        scenarios.add(new AllocationScenario("doGet",
+                () -> client.doGet(based, templateVar, params, ITEMS + "/{id}", headers, cookies)
+                        .bodyToMono(JsonNode.class).block()));
+        scenarios.add(new AllocationScenario("doFormDataPostOrPut",
+                () -> client.doFormDataPostOrPut(based, templateVar, form, ITEMS, headers, cookies, HttpMethod.POST)
+                        .bodyToMono(JsonNode.class).block()));
+        scenarios.add(new AllocationScenario("doMultipartPostOrPut",
+                () -> client.doMultipartPostOrPut(based, templateVar, multipart, ITEMS, headers, cookies,
+                        HttpMethod.POST).bodyToMono(JsonNode.class).block()));
+        scenarios.add(new AllocationScenario("doDelete",
+                () -> client.doDelete(based, templateVar, ITEMS + "/{id}", params, headers, cookies)
+                        .bodyToMono(JsonNode.class).block()));
+        scenarios.add(new AllocationScenario("doPostOrPutOrPatch",
+                () -> client.doPostOrPutOrPatch(based, templateVar, payload, ITEMS + "/{id}", params, headers,
+                        cookies, HttpMethod.PATCH).bodyToMono(JsonNode.class).block()));
+        scenarios.add(new AllocationScenario("doPublisherPostOrPutOrPatch",
+                () -> client.doPublisherPostOrPutOrPatch(based, templateVar, Mono.just(payload), ObjectNode.class,
+                        ITEMS + "/{id}", params, headers, cookies, HttpMethod.PUT).bodyToMono(JsonNode.class).block()));
+        scenarios.add(new AllocationScenario("doPublisherPostOrPutOrPatch.stream",
+                () -> client.doPublisherPostOrPutOrPatch(based, templateVar, Flux.just(payload, payload),
+                        ObjectNode.class, MediaType.APPLICATION_NDJSON, ITEMS, params, headers, cookies,
+                        HttpMethod.POST).bodyToMono(JsonNode.class).block()));
+        scenarios.add(new AllocationScenario("getWithUriTemplateToFlux",
+                () -> client.getWithUriTemplateToFlux(webClient, baseUrl + ITEMS, JsonNode.class, headers, Map.of(),
+                        Map.of()).blockLast()));
+        scenarios.add(new AllocationScenario("postWithUriTemplateToMono",
+                () -> client.postWithUriTemplateToMono(webClient, baseUrl + ITEMS + "/{id}", JsonNode.class, headers,
+                        templateVar, Map.of()).block()));
+
+        // helpers, without any I/O
+        scenarios.add(new AllocationScenario("prepareHeaders", () -> reactiveWebClient.prepareHeaders("token")));
+        ExchangeStrategies strategies = ExchangeStrategies.withDefaults();
+        scenarios.add(new AllocationScenario("processResponse.ok",
+                () -> WebClientExceptionHandler.processResponse(response(strategies, HttpStatus.OK), JsonNode.class)
+                        .block()));
+        scenarios.add(new AllocationScenario("processResponse.4xx",
+                () -> WebClientExceptionHandler.processResponse(response(strategies, HttpStatus.NOT_FOUND),
+                        JsonNode.class).onErrorResume(ex -> Mono.empty()).block()));
+        scenarios.add(new AllocationScenario("processResponse.5xx",
+                () -> WebClientExceptionHandler.processResponse(response(strategies, HttpStatus.SERVICE_UNAVAILABLE),
+                        JsonNode.class).onErrorResume(ex -> Mono.empty()).block()));
+
+        WebClientResponseException notFound = WebClientResponseException.create(404, "Not Found", HttpHeaders.EMPTY,
+                new byte[0], null);
+        WebClientResponseException unavailable = WebClientResponseException.create(503, "Service Unavailable",
+                HttpHeaders.EMPTY, new byte[0], null);
+        scenarios.add(new AllocationScenario("handle4xxException",
+                () -> WebClientExceptionHandler.handle4xxException(notFound)));
+        scenarios.add(new AllocationScenario("handle5xxException",
+                () -> WebClientExceptionHandler.handle5xxException(unavailable)));
+
+        return scenarios;
+    }
+
+    private static ClientResponse response(ExchangeStrategies strategies, HttpStatus status) {
+        return ClientResponse.create(status, strategies)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(Flux.<DataBuffer>defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(
+                BODY.getBytes(StandardCharsets.UTF_8)))))
+                .build();
+    }
+
+    /**
+     * The JSON object the stub returns.
+     *
+     * @return
+     */
+    public static String body() {
+        return BODY;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cometbid.component.api.generic.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class ReactiveWebClientImplTest {
+
+    private final ReactiveWebClientImpl client = new ReactiveWebClientImpl();
+
+    private final AtomicInteger exchanges = new AtomicInteger();
+
+    private final WebClient webClient = WebClient.builder()
+            .exchangeFunction(request -> {
+                exchanges.incrementAndGet();
+                return Mono.empty();
+            })
+            .build();
+
+    @Test
+    void rejectsPublisherBodiesOfNonStreamingTypes() {
+        assertThatThrownBy(() -> client.doPublisherPostOrPutOrPatch(webClient, Collections.emptyMap(),
+                Flux.just("a"), String.class, MediaType.TEXT_PLAIN, "/items", new LinkedMultiValueMap<>(), null, null,
+                HttpMethod.POST))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(exchanges).hasValue(0);
+    }
+
+    @Test
+    void rejectsPublisherBodiesOnMethodsWithoutBody() {
+        assertThatThrownBy(() -> client.doPublisherPostOrPutOrPatch(webClient, Collections.emptyMap(),
+                Flux.just("a"), String.class, MediaType.APPLICATION_NDJSON, "/items", new LinkedMultiValueMap<>(),
+                null, null, HttpMethod.GET))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(exchanges).hasValue(0);
+    }
+
+    @Test
+    void publishesTheRejectionOfStreamingUploads() {
+        StepVerifier.create(client.performPublisherPost(webClient, URI.create("http://downstream.test/items"),
+                Flux.just("a"), String.class, Void.class, MediaType.TEXT_PLAIN, null, new LinkedMultiValueMap<>()))
+                .expectError()
+                .verify();
+
+        assertThat(exchanges).hasValue(0);
+    }
+}
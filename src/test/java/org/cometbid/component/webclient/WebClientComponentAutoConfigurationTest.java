@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.cometbid.component.webclient.scatter.ScatterGather;
+import org.cometbid.component.webclient.sse.ReactiveSseClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class WebClientComponentAutoConfigurationTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(WebClientAutoConfiguration.class,
+                    WebClientComponentAutoConfiguration.class));
+
+    @Test
+    void registersEveryBeanOnce() {
+        runner.run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).hasSingleBean(DownstreamWebClients.class);
+            assertThat(context).hasSingleBean(ReactiveClientInterface.class);
+            assertThat(context).hasSingleBean(ScatterGather.class);
+            assertThat(context).hasSingleBean(ReactiveSseClient.class);
+        });
+    }
+
+    @Test
+    void scanningTheComponentPackageAddsNoBeans() {
+        runner.withUserConfiguration(Scanning.class).run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).hasSingleBean(DownstreamWebClients.class);
+            assertThat(context).hasSingleBean(ReactiveClientInterface.class);
+        });
+    }
+
+    @Test
+    void startsTheAccessLogWriterWithTheFirstClient() {
+        runner.withPropertyValues("cometbid.webclient.access-log.enabled=true",
+                "cometbid.webclient.downstreams.orders.base-url=http://orders.test").run(context -> {
+            DownstreamWebClients clients = context.getBean(DownstreamWebClients.class);
+            assertThat(clients).extracting("accessLogWriter").isNull();
+
+            clients.webClient("orders");
+
+            assertThat(clients).extracting("accessLogWriter").isNotNull();
+        });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ComponentScan("org.cometbid.component.webclient")
+    static class Scanning {
+
+    }
+}
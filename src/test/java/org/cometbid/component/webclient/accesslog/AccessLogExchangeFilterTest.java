@@ -0,0 +1,157 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.accesslog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.test.stub.StubServerExtension;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class AccessLogExchangeFilterTest {
+
+    @RegisterExtension
+    static StubServerExtension stub = new StubServerExtension(() -> StubServer.builder()
+            .json(HttpMethod.GET, "/orders", 200, "{\"id\":1}")
+            .json(HttpMethod.POST, "/orders", 200, "{\"id\":2}")
+            .json(HttpMethod.GET, "/broken", 500, "{\"error\":\"boom\"}")
+            .build());
+
+    private final RecordingWriter writer = new RecordingWriter();
+
+    @AfterEach
+    void closeWriter() {
+        writer.close();
+    }
+
+    @Test
+    void logsSampledCallsWithTheirBodies() throws Exception {
+        WebClient webClient = client(1.0, List.of());
+
+        StepVerifier.create(webClient.post().uri("/orders").bodyValue("{\"item\":\"a\"}").retrieve()
+                .bodyToMono(String.class))
+                .expectNext("{\"id\":2}")
+                .verifyComplete();
+
+        AccessLogEntry entry = awaitEntry();
+        assertThat(entry.getMethod()).isEqualTo("POST");
+        assertThat(entry.getStatus()).isEqualTo(200);
+        assertThat(entry.getBytesIn()).isEqualTo(8);
+        assertThat(entry.getBytesOut()).isEqualTo(12);
+        assertThat(entry.getRequestBody()).isEqualTo("{\"item\":\"a\"}");
+        assertThat(entry.getResponseBody()).isEqualTo("{\"id\":2}");
+    }
+
+    @Test
+    void skipsUnsampledSuccessfulCalls() throws Exception {
+        WebClient webClient = client(0.0, List.of());
+
+        StepVerifier.create(webClient.get().uri("/orders").retrieve().bodyToMono(String.class))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        Thread.sleep(200);
+        assertThat(writer.entries).isEmpty();
+    }
+
+    @Test
+    void logsUnsampledErrorResponsesWithTheirBody() throws Exception {
+        WebClient webClient = client(0.0, List.of());
+
+        StepVerifier.create(webClient.get().uri("/broken").exchangeToMono(ClientResponse::toBodilessEntity))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        AccessLogEntry entry = awaitEntry();
+        assertThat(entry.getStatus()).isEqualTo(500);
+        assertThat(entry.getRequestBody()).isNull();
+        assertThat(entry.getResponseBody()).isEqualTo("{\"error\":\"boom\"}");
+    }
+
+    @Test
+    void logsCallsWhoseBodyIsNeverSubscribed() throws Exception {
+        // an outer filter that answers on its own, dropping the downstream response unread
+        ExchangeFilterFunction dropping = (request, next) -> next.exchange(request)
+                .map(response -> ClientResponse.create(HttpStatus.NO_CONTENT).build());
+        WebClient webClient = client(1.0, List.of(dropping));
+
+        StepVerifier.create(webClient.get().uri("/orders").retrieve().toBodilessEntity())
+                .expectNextCount(1)
+                .verifyComplete();
+
+        AccessLogEntry entry = awaitEntry();
+        assertThat(entry.getUri()).endsWith("/orders");
+        assertThat(entry.getStatus()).isEqualTo(200);
+    }
+
+    private AccessLogEntry awaitEntry() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (writer.entries.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(writer.entries).hasSize(1);
+        return writer.entries.get(0);
+    }
+
+    private WebClient client(double sampleRate, List<ExchangeFilterFunction> outerFilters) {
+        WebClientProperties.AccessLog properties = new WebClientProperties.AccessLog();
+        properties.setSampleRate(sampleRate);
+        properties.setCaptureBodies(true);
+
+        return WebClient.builder()
+                .baseUrl(stub.baseUrl())
+                .filters(filters -> filters.addAll(outerFilters))
+                .filter(new AccessLogExchangeFilter("orders", properties, writer))
+                .build();
+    }
+
+    private static final class RecordingWriter extends AccessLogWriter {
+
+        private final List<AccessLogEntry> entries = new CopyOnWriteArrayList<>();
+
+        RecordingWriter() {
+            super(16);
+        }
+
+        @Override
+        public void offer(AccessLogEntry entry) {
+            entries.add(entry);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.test.stub.StubServerExtension;
+import org.cometbid.component.webclient.ReplayableBodies;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class BearerTokenExchangeFilterTest {
+
+    @RegisterExtension
+    static StubServerExtension stub = new StubServerExtension(() -> StubServer.builder()
+            .json(HttpMethod.POST, "/token", 200, "{\"access_token\":\"t1\",\"expires_in\":300}")
+            .build());
+
+    private final List<ClientRequest> sent = new CopyOnWriteArrayList<>();
+
+    @Test
+    void refreshesTheTokenAndRetriesOnceAfter401() {
+        AtomicInteger calls = new AtomicInteger();
+        WebClient webClient = client(request -> calls.incrementAndGet() == 1 ? HttpStatus.UNAUTHORIZED : HttpStatus.OK);
+        long before = stub.server().requestCount();
+
+        StepVerifier.create(webClient.get().uri("/orders").retrieve().toBodilessEntity())
+                .assertNext(entity -> assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK))
+                .verifyComplete();
+
+        assertThat(sent).hasSize(2)
+                .allSatisfy(request -> assertThat(request.headers().getFirst(HttpHeaders.AUTHORIZATION))
+                .isEqualTo("Bearer t1"));
+        assertThat(stub.server().requestCount() - before).isEqualTo(2);
+    }
+
+    @Test
+    void surfacesASecond401() {
+        WebClient webClient = client(request -> HttpStatus.UNAUTHORIZED);
+
+        StepVerifier.create(webClient.get().uri("/orders").exchangeToMono(response
+                -> response.releaseBody().thenReturn(response.statusCode())))
+                .expectNext(HttpStatus.UNAUTHORIZED)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(sent).hasSize(2);
+    }
+
+    @Test
+    void retriesReplayableBodies() {
+        AtomicInteger calls = new AtomicInteger();
+        WebClient webClient = client(request -> calls.incrementAndGet() == 1 ? HttpStatus.UNAUTHORIZED : HttpStatus.OK);
+
+        StepVerifier.create(webClient.post().uri("/orders").bodyValue("{}")
+                .attribute(ReplayableBodies.REPLAYABLE_BODY, true)
+                .retrieve().toBodilessEntity())
+                .assertNext(entity -> assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.OK))
+                .verifyComplete();
+
+        assertThat(sent).hasSize(2);
+    }
+
+    @Test
+    void returnsThe401OfOneShotBodies() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flux<String> upload = Flux.just("{}").doOnSubscribe(s -> subscriptions.incrementAndGet());
+        WebClient webClient = client(request -> HttpStatus.UNAUTHORIZED);
+
+        StepVerifier.create(webClient.post().uri("/orders").body(upload, String.class)
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode())))
+                .expectNext(HttpStatus.UNAUTHORIZED)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(sent).hasSize(1);
+        assertThat(subscriptions).hasValue(0);
+    }
+
+    @Test
+    void leavesRequestsWithTheirOwnAuthorizationAlone() {
+        WebClient webClient = client(request -> HttpStatus.UNAUTHORIZED);
+        long before = stub.server().requestCount();
+
+        StepVerifier.create(webClient.get().uri("/orders").header(HttpHeaders.AUTHORIZATION, "Basic abc")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode())))
+                .expectNext(HttpStatus.UNAUTHORIZED)
+                .verifyComplete();
+
+        assertThat(sent).singleElement().satisfies(request -> assertThat(request.headers()
+                .getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Basic abc"));
+        assertThat(stub.server().requestCount() - before).isZero();
+    }
+
+    private WebClient client(Function<ClientRequest, HttpStatus> statuses) {
+        ExchangeFunction downstream = request -> {
+            sent.add(request);
+            return Mono.just(ClientResponse.create(statuses.apply(request)).build());
+        };
+        return WebClient.builder()
+                .baseUrl("http://downstream.test")
+                .exchangeFunction(downstream)
+                .filter(new BearerTokenExchangeFilter(ClientCredentialsTokenProviderTest.provider(stub.baseUrl() + "/token"),
+                        "orders"))
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.cometbid.component.test.stub.FaultProfile;
+import org.cometbid.component.test.stub.LatencyDistribution;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.test.stub.StubServerExtension;
+import org.cometbid.component.webclient.WebClientProperties.OAuth2Registration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class ClientCredentialsTokenProviderTest {
+
+    @RegisterExtension
+    static StubServerExtension stub = new StubServerExtension(() -> StubServer.builder()
+            .route(HttpMethod.POST, "/token/slow", 200, MediaType.APPLICATION_JSON_VALUE,
+                    "{\"access_token\":\"slow\",\"expires_in\":300}".getBytes(StandardCharsets.UTF_8),
+                    FaultProfile.builder().latency(LatencyDistribution.fixed(Duration.ofMillis(300))).build())
+            .route(HttpMethod.POST, "/token/short", 200, MediaType.APPLICATION_JSON_VALUE,
+                    "{\"access_token\":\"short\",\"expires_in\":2}".getBytes(StandardCharsets.UTF_8),
+                    FaultProfile.builder().latency(LatencyDistribution.fixed(Duration.ofMillis(500))).build())
+            .build());
+
+    @Test
+    void sharesOneTokenRequestBetweenConcurrentCallers() {
+        ClientCredentialsTokenProvider provider = provider(stub.baseUrl() + "/token/slow");
+        long before = stub.server().requestCount();
+
+        StepVerifier.create(Flux.range(0, 32).flatMap(i -> provider.getToken("orders"), 32).distinct())
+                .expectNext("slow")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        StepVerifier.create(provider.getToken("orders"))
+                .expectNext("slow")
+                .verifyComplete();
+
+        assertThat(stub.server().requestCount() - before).isEqualTo(1);
+    }
+
+    @Test
+    void refreshesAheadOfExpiryWithoutMakingCallersWait() throws Exception {
+        ClientCredentialsTokenProvider provider = provider(stub.baseUrl() + "/token/short");
+        long before = stub.server().requestCount();
+
+        StepVerifier.create(provider.getToken(null))
+                .expectNext("short")
+                .verifyComplete();
+
+        // two seconds of lifetime, refreshed during the second half
+        Thread.sleep(1_200);
+
+        long start = System.nanoTime();
+        StepVerifier.create(provider.getToken(null))
+                .expectNext("short")
+                .verifyComplete();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(250));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(3).toNanos();
+        while (stub.server().requestCount() - before < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        StepVerifier.create(provider.getToken(null))
+                .expectNext("short")
+                .verifyComplete();
+        assertThat(stub.server().requestCount() - before).isEqualTo(2);
+    }
+
+    @Test
+    void invalidatedTokensAreRequestedAgain() {
+        ClientCredentialsTokenProvider provider = provider(stub.baseUrl() + "/token/slow");
+        long before = stub.server().requestCount();
+
+        StepVerifier.create(provider.getToken("billing"))
+                .expectNext("slow")
+                .verifyComplete();
+
+        provider.invalidate("billing", "stale");
+        StepVerifier.create(provider.getToken("billing"))
+                .expectNext("slow")
+                .verifyComplete();
+        assertThat(stub.server().requestCount() - before).isEqualTo(1);
+
+        provider.invalidate("billing", "slow");
+        StepVerifier.create(provider.getToken("billing"))
+                .expectNext("slow")
+                .verifyComplete();
+        assertThat(stub.server().requestCount() - before).isEqualTo(2);
+    }
+
+    static ClientCredentialsTokenProvider provider(String tokenUri) {
+        OAuth2Registration registration = new OAuth2Registration();
+        registration.setTokenUri(tokenUri);
+        registration.setClientId("client");
+        registration.setClientSecret("secret");
+
+        return new ClientCredentialsTokenProvider("test", registration, WebClient.create());
+    }
+}
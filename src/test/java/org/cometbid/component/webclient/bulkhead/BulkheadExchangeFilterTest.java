@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.bulkhead;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.List;
+import org.cometbid.component.api.generic.exceptions.ServiceUnavailableException;
+import org.cometbid.component.test.stub.FaultProfile;
+import org.cometbid.component.test.stub.LatencyDistribution;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.test.stub.StubServerExtension;
+import org.cometbid.component.webclient.DownstreamWebClients;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.cometbid.component.webclient.codec.WebClientCodecs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Isolation of a slow downstream from a healthy one, each in its own bulkhead.
+ *
+ * @author samueladebowale
+ */
+class BulkheadExchangeFilterTest {
+
+    private static final int SLOW_MAX_IN_FLIGHT = 8;
+
+    @RegisterExtension
+    static StubServerExtension stub = new StubServerExtension(() -> StubServer.builder()
+            .route(HttpMethod.GET, "/slow", 200, MediaType.APPLICATION_JSON_VALUE, "{}".getBytes(),
+                    FaultProfile.builder().latency(LatencyDistribution.fixed(Duration.ofSeconds(2))).build())
+            .json(HttpMethod.GET, "/fast", 200, "{}")
+            .build());
+
+    private DownstreamWebClients clients;
+
+    @BeforeEach
+    void createClients() {
+        WebClientProperties properties = new WebClientProperties();
+        properties.getBulkheads().put("slow", bulkhead(SLOW_MAX_IN_FLIGHT));
+        properties.getBulkheads().put("fast", bulkhead(256));
+        properties.getDownstreams().put("slow", downstream("slow"));
+        properties.getDownstreams().put("fast", downstream("fast"));
+
+        clients = new DownstreamWebClients(properties,
+                new StaticListableBeanFactory().getBeanProvider(WebClient.Builder.class),
+                new WebClientCodecs(properties));
+    }
+
+    @AfterEach
+    void destroyClients() {
+        clients.destroy();
+    }
+
+    @Test
+    void slowDownstreamCannotStarveTheOtherGroup() throws Exception {
+        WebClient slow = clients.webClient("slow");
+        WebClient fast = clients.webClient("fast");
+
+        Disposable flood = Flux.range(0, SLOW_MAX_IN_FLIGHT)
+                .flatMap(i -> slow.get().uri("/slow").retrieve().bodyToMono(String.class), SLOW_MAX_IN_FLIGHT)
+                .subscribe();
+        try {
+            long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+            while (clients.bulkhead("slow").metrics().getInFlight() < SLOW_MAX_IN_FLIGHT
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            // the full group rejects at once instead of queueing the caller
+            StepVerifier.create(slow.get().uri("/slow").retrieve().bodyToMono(String.class))
+                    .expectError(ServiceUnavailableException.class)
+                    .verify(Duration.ofMillis(200));
+
+            // while the healthy group answers on its own loops, at its normal latency
+            List<String> threads = Flux.range(0, 50)
+                    .concatMap(i -> fast.get().uri("/fast").retrieve().bodyToMono(String.class)
+                    .map(body -> Thread.currentThread().getName()))
+                    .collectList()
+                    .block(Duration.ofMillis(1_500));
+
+            assertThat(threads).hasSize(50).allMatch(name -> name.startsWith("bulkhead-fast"));
+            assertThat(clients.bulkhead("slow").metrics().getRejected()).isEqualTo(1);
+        } finally {
+            flood.dispose();
+        }
+    }
+
+    @Test
+    void returnsThePermitOfABodyNobodyReads() throws Exception {
+        BulkheadGroup group = clients.bulkhead("fast");
+        WebClient dropping = clients.webClient("fast").mutate()
+                .filters(filters -> filters.add(0, (request, next) -> next.exchange(request)
+                .map(response -> ClientResponse.create(HttpStatus.NO_CONTENT).build())))
+                .build();
+
+        StepVerifier.create(dropping.get().uri("/fast").retrieve().toBodilessEntity())
+                .expectNextCount(1)
+                .verifyComplete();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (group.metrics().getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(group.metrics().getInFlight()).isZero();
+        assertThat(group.metrics().getAdmitted()).isEqualTo(1);
+    }
+
+    private static WebClientProperties.Bulkhead bulkhead(int maxInFlight) {
+        WebClientProperties.Bulkhead bulkhead = new WebClientProperties.Bulkhead();
+        bulkhead.setEventLoopThreads(1);
+        bulkhead.setMaxInFlight(maxInFlight);
+        return bulkhead;
+    }
+
+    private static WebClientProperties.Downstream downstream(String bulkhead) {
+        WebClientProperties.Downstream downstream = new WebClientProperties.Downstream();
+        downstream.setBaseUrl(stub.baseUrl());
+        downstream.setBulkhead(bulkhead);
+        return downstream;
+    }
+}
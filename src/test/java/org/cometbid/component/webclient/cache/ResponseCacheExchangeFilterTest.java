@@ -0,0 +1,205 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class ResponseCacheExchangeFilterTest {
+
+    private final AtomicInteger exchanges = new AtomicInteger();
+
+    private Path directory;
+
+    private ResponseCache cache;
+
+    @BeforeEach
+    void openCache() throws IOException {
+        directory = Files.createTempDirectory("response-cache");
+        cache = new ResponseCache("countries", properties());
+    }
+
+    @AfterEach
+    void closeCache() throws IOException {
+        cache.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    void servesRepeatedRequestsFromTheCache() {
+        WebClient webClient = client(headers -> {
+        }, "{\"code\":\"NG\"}");
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(webClient.get().uri("/countries/ng").retrieve().bodyToMono(String.class))
+                    .expectNext("{\"code\":\"NG\"}")
+                    .verifyComplete();
+        }
+        assertThat(exchanges).hasValue(1);
+    }
+
+    @Test
+    void passesChunkedResponsesOverTheLimitThroughUncached() {
+        String body = "x".repeat(3_000);
+        WebClient webClient = client(headers -> {
+        }, body.substring(0, 1_000), body.substring(1_000, 2_000), body.substring(2_000));
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(webClient.get().uri("/countries/all").retrieve().bodyToMono(String.class))
+                    .expectNext(body)
+                    .verifyComplete();
+        }
+        assertThat(exchanges).hasValue(2);
+    }
+
+    @Test
+    void storesChunkedResponsesWithinTheLimitOnceRead() {
+        WebClient webClient = client(headers -> {
+        }, "{\"code\":", "\"NG\"}");
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(webClient.get().uri("/countries/ng").retrieve().bodyToMono(String.class))
+                    .expectNext("{\"code\":\"NG\"}")
+                    .verifyComplete();
+        }
+        assertThat(exchanges).hasValue(1);
+    }
+
+    @Test
+    void bypassesTheCacheForRequestsWithCredentials() {
+        WebClient webClient = client(headers -> {
+        }, "{\"user\":\"a\"}");
+
+        for (String header : List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE)) {
+            for (int i = 0; i < 2; i++) {
+                StepVerifier.create(webClient.get().uri("/countries/me").header(header, "secret-" + i).retrieve()
+                        .bodyToMono(String.class))
+                        .expectNextCount(1)
+                        .verifyComplete();
+            }
+        }
+        assertThat(exchanges).hasValue(4);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void doesNotStorePrivateResponsesOrResponsesVaryingOnOtherHeaders() {
+        WebClient privateClient = client(headers -> headers.setCacheControl("private, max-age=60"), "{}");
+        WebClient varyingClient = client(headers -> headers.setVary(List.of("X-Tenant")), "{}");
+
+        for (WebClient webClient : List.of(privateClient, privateClient, varyingClient, varyingClient)) {
+            StepVerifier.create(webClient.get().uri("/countries/ng").retrieve().bodyToMono(String.class))
+                    .expectNext("{}")
+                    .verifyComplete();
+        }
+        assertThat(exchanges).hasValue(4);
+    }
+
+    @Test
+    void keysEntriesByTheAcceptHeaders() {
+        WebClient webClient = client(headers -> headers.setVary(List.of(HttpHeaders.ACCEPT_LANGUAGE)), "{}");
+
+        for (String language : List.of("en", "fr", "en")) {
+            StepVerifier.create(webClient.get().uri("/countries/ng").header(HttpHeaders.ACCEPT_LANGUAGE, language)
+                    .retrieve().bodyToMono(String.class))
+                    .expectNext("{}")
+                    .verifyComplete();
+        }
+        assertThat(exchanges).hasValue(2);
+    }
+
+    /**
+     * A client whose downstream answers {@code 200} with {@code chunks} and no
+     * {@code Content-Length} when there is more than one chunk.
+     */
+    private WebClient client(Consumer<HttpHeaders> headers, String... chunks) {
+        ResponseCacheExchangeFilter filter = new ResponseCacheExchangeFilter(cache, properties(),
+                ExchangeStrategies.withDefaults());
+
+        return WebClient.builder()
+                .baseUrl("http://countries")
+                .filter(filter)
+                .exchangeFunction(request -> {
+                    exchanges.incrementAndGet();
+
+                    Flux<DataBuffer> body = Flux.fromArray(chunks)
+                            .map(chunk -> DefaultDataBufferFactory.sharedInstance
+                            .wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .headers(responseHeaders -> {
+                                responseHeaders.add(HttpHeaders.CONTENT_TYPE, "application/json");
+                                if (chunks.length == 1) {
+                                    responseHeaders.setContentLength(chunks[0].length());
+                                }
+                                headers.accept(responseHeaders);
+                            })
+                            .body(body)
+                            .build());
+                })
+                .build();
+    }
+
+    private WebClientProperties.Cache properties() {
+        WebClientProperties.CacheRoute route = new WebClientProperties.CacheRoute();
+        route.setPath("/countries/**");
+
+        WebClientProperties.Cache properties = new WebClientProperties.Cache();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setMaxEntrySize(DataSize.ofBytes(2_048));
+        properties.setSegmentSize(DataSize.ofMegabytes(1));
+        properties.setRoutes(List.of(route));
+        return properties;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class ResponseCacheTest {
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("response-cache");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    void recoversEntriesAfterRestart() throws Exception {
+        try (ResponseCache cache = new ResponseCache("countries", properties(10))) {
+            for (int i = 0; i < 100; i++) {
+                cache.put(response("/countries/" + i, "{\"id\":" + i + "}"));
+            }
+            awaitSize(cache, 100);
+        }
+
+        try (ResponseCache cache = new ResponseCache("countries", properties(10))) {
+            assertThat(cache.size()).isEqualTo(100);
+
+            StepVerifier.create(cache.lookup("/countries/42"))
+                    .assertNext(response -> {
+                        assertThat(new String(response.getBody(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":42}");
+                        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE))
+                                .isEqualTo("application/json");
+                    })
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void recoversTheValidRecordsOfATornSegment() throws Exception {
+        try (DiskResponseStore store = new DiskResponseStore(directory, 1 << 20, Duration.ofDays(1).toMillis())) {
+            store.put(response("/countries/1", "{\"id\":1}"));
+            store.put(response("/countries/2", "{\"id\":2}"));
+        }
+
+        // a crash halfway through writing the second record leaves its payload damaged
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        int second = 8 + ByteBuffer.wrap(bytes).getInt(0);
+        Arrays.fill(bytes, second + 20, second + 40, (byte) 0x7f);
+        Files.write(segment, bytes);
+
+        try (DiskResponseStore store = new DiskResponseStore(directory, 1 << 20, Duration.ofDays(1).toMillis())) {
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.get("/countries/1")).isNotNull();
+            assertThat(store.get("/countries/2")).isNull();
+
+            store.put(response("/countries/3", "{\"id\":3}"));
+            assertThat(store.get("/countries/3").getBody()).isEqualTo("{\"id\":3}".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void readsTheDiskTierOffTheCallingThreadWithinBoundedLatency() throws Exception {
+        int entries = 2_000;
+        String body = "x".repeat(4_096);
+
+        try (ResponseCache cache = new ResponseCache("countries", properties(1))) {
+            for (int i = 0; i < entries; i++) {
+                cache.put(response("/countries/" + i, body));
+            }
+            awaitSize(cache, entries);
+
+            long[] latencies = new long[entries];
+            for (int i = 0; i < entries; i++) {
+                // every other key was evicted from the single-entry heap tier
+                String key = "/countries/" + ((i * 7) % entries);
+                long start = System.nanoTime();
+                CachedResponse response = cache.lookup(key)
+                        .doOnNext(found -> assertThat(Schedulers.isInNonBlockingThread()).isFalse())
+                        .block(Duration.ofSeconds(1));
+                latencies[i] = System.nanoTime() - start;
+
+                assertThat(response).isNotNull();
+                assertThat(response.getBody()).hasSize(body.length());
+            }
+
+            Arrays.sort(latencies);
+            assertThat(Duration.ofNanos(latencies[entries * 99 / 100])).isLessThan(Duration.ofMillis(20));
+        }
+    }
+
+    private WebClientProperties.Cache properties(int hotEntries) {
+        WebClientProperties.Cache properties = new WebClientProperties.Cache();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setHotEntries(hotEntries);
+        properties.setSegmentSize(DataSize.ofMegabytes(4));
+        return properties;
+    }
+
+    private static CachedResponse response(String key, String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_TYPE, "application/json");
+
+        return new CachedResponse(key, 200, HttpHeaders.readOnlyHttpHeaders(headers),
+                body.getBytes(StandardCharsets.UTF_8), System.currentTimeMillis());
+    }
+
+    private static void awaitSize(ResponseCache cache, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (cache.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.size()).isEqualTo(size);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cometbid.component.webclient.ReactiveWebClientImpl;
+import org.cometbid.component.webclient.ReplayableBodies;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class CodecNegotiationExchangeFilterTest {
+
+    private static final URI URL = URI.create("http://downstream.test/items");
+
+    private final List<ClientRequest> sent = new CopyOnWriteArrayList<>();
+
+    /**
+     * Rejects the binary format, accepts JSON.
+     */
+    private final ExchangeFunction downstream = request -> {
+        sent.add(request);
+        boolean binary = request.headers().getAccept().stream()
+                .anyMatch(type -> type.equalsTypeAndSubtype(WireFormat.SMILE.getMediaType()));
+
+        return Mono.just(ClientResponse.create(binary ? HttpStatus.NOT_ACCEPTABLE : HttpStatus.OK).build());
+    };
+
+    @Test
+    void replaysRequestsWithoutBodyAsJson() {
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URL).build();
+
+        StepVerifier.create(filter().filter(request, downstream).map(ClientResponse::statusCode))
+                .expectNext(HttpStatus.OK)
+                .verifyComplete();
+
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(1).headers().getAccept()).isEmpty();
+    }
+
+    @Test
+    void replaysBodiesMarkedReplayable() {
+        ClientRequest request = ClientRequest.create(HttpMethod.POST, URL)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body(BodyInserters.fromValue("{}"))
+                .attribute(ReplayableBodies.REPLAYABLE_BODY, true)
+                .build();
+
+        StepVerifier.create(filter().filter(request, downstream).map(ClientResponse::statusCode))
+                .expectNext(HttpStatus.OK)
+                .verifyComplete();
+
+        assertThat(sent).hasSize(2);
+    }
+
+    @Test
+    void returnsRejectionForOneShotBodies() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flux<String> upload = Flux.just("{}").doOnSubscribe(s -> subscriptions.incrementAndGet());
+        ClientRequest request = ClientRequest.create(HttpMethod.POST, URL)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .body(BodyInserters.fromPublisher(upload, String.class))
+                .build();
+
+        StepVerifier.create(filter().filter(request, downstream).map(ClientResponse::statusCode))
+                .expectNext(HttpStatus.NOT_ACCEPTABLE)
+                .verifyComplete();
+
+        assertThat(sent).hasSize(1);
+        assertThat(subscriptions).hasValue(0);
+    }
+
+    @Test
+    void staysOnJsonAfterRejection() {
+        CodecNegotiationExchangeFilter filter = filter();
+        filter.filter(ClientRequest.create(HttpMethod.GET, URL).build(), downstream).block();
+        sent.clear();
+
+        filter.filter(ClientRequest.create(HttpMethod.GET, URL).build(), downstream).block();
+
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0).headers().getAccept()).isEmpty();
+    }
+
+    @Test
+    void decodesCborResponsesThroughTheMonoMethods() {
+        WebClient webClient = cborClient(List.of(new Item("a", 1)));
+
+        StepVerifier.create(new ReactiveWebClientImpl().performGetToMono(webClient, URL, Item.class, null,
+                new LinkedMultiValueMap<>()))
+                .expectNext(new Item("a", 1))
+                .verifyComplete();
+
+        assertThat(sent.get(0).headers().getAccept().get(0)).isEqualTo(MediaType.APPLICATION_CBOR);
+    }
+
+    @Test
+    void keepsCborOutOfTheFluxMethods() {
+        WebClient webClient = cborClient(List.of(new Item("a", 1), new Item("b", 2)));
+
+        StepVerifier.create(new ReactiveWebClientImpl().performGetToFlux(webClient, URL, Item.class, null,
+                new LinkedMultiValueMap<>()))
+                .expectNext(new Item("a", 1), new Item("b", 2))
+                .verifyComplete();
+
+        assertThat(sent.get(0).headers().getAccept()).doesNotContain(MediaType.APPLICATION_CBOR);
+    }
+
+    /**
+     * Answers in CBOR when the request accepts it and in JSON otherwise, a single item as
+     * one value and several as an array.
+     */
+    private WebClient cborClient(List<Item> items) {
+        WebClientCodecs codecs = new WebClientCodecs(new WebClientProperties());
+        ExchangeStrategies strategies = ExchangeStrategies.builder()
+                .codecs(configurer -> codecs.configure(configurer, WireFormat.CBOR))
+                .build();
+
+        return WebClient.builder()
+                .exchangeStrategies(strategies)
+                .filter(new CodecNegotiationExchangeFilter("test", WireFormat.CBOR))
+                .exchangeFunction(request -> {
+                    sent.add(request);
+                    boolean cbor = request.headers().getAccept().stream()
+                            .anyMatch(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR));
+                    ObjectMapper mapper = codecs.getObjectMapper(cbor ? WireFormat.CBOR : WireFormat.JSON);
+                    byte[] body;
+                    try {
+                        body = mapper.writeValueAsBytes(items.size() == 1 ? items.get(0) : items);
+                    } catch (JsonProcessingException ex) {
+                        return Mono.error(ex);
+                    }
+
+                    return Mono.just(ClientResponse.create(HttpStatus.OK, strategies)
+                            .header(HttpHeaders.CONTENT_TYPE, cbor ? MediaType.APPLICATION_CBOR_VALUE
+                                    : MediaType.APPLICATION_JSON_VALUE)
+                            .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)))
+                            .build());
+                })
+                .build();
+    }
+
+    record Item(String name, int quantity) {
+
+    }
+
+    private static CodecNegotiationExchangeFilter filter() {
+        return new CodecNegotiationExchangeFilter("test", WireFormat.SMILE);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class JsonProjectionTest {
+
+    record Order(String id, Customer customer) {
+
+    }
+
+    record Customer(String name) {
+
+    }
+
+    @Test
+    void readsOnlyTheProjectedMembers() {
+        String json = "{\"id\":\"o-1\",\"lines\":[{\"sku\":\"a\"},{\"sku\":\"b\"}],"
+                + "\"customer\":{\"name\":\"Ada\",\"address\":{\"city\":\"Lagos\"}}}";
+
+        StepVerifier.create(response(json).body(JsonProjection.ofType(Order.class).<Order>toMono(Order.class)))
+                .expectNext(new Order("o-1", new Customer("Ada")))
+                .verifyComplete();
+    }
+
+    @Test
+    void completesEmptyWhenNothingMatches() {
+        StepVerifier.create(response("{\"other\":1}").body(JsonProjection.ofPointers("/id").<Order>toMono(Order.class)))
+                .verifyComplete();
+    }
+
+    @Test
+    void failsMalformedBodiesWithADecodingException() {
+        for (String json : List.of("{\"id\":\"o-1\",", "{\"id\":\"o-1\" \"customer\":{}}")) {
+            StepVerifier.create(response(json).body(JsonProjection.ofType(Order.class).<Order>toMono(Order.class)))
+                    .expectErrorSatisfies(ex -> assertThat(ex)
+                    .isInstanceOf(DecodingException.class)
+                    .hasMessageStartingWith("JSON decoding error"))
+                    .verify();
+        }
+    }
+
+    private static ClientResponse response(String json) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(json)
+                .build();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ClientCodecConfigurer;
+import org.springframework.http.codec.DecoderHttpMessageReader;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.util.unit.DataSize;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class WebClientCodecsTest {
+
+    private final WebClientCodecs codecs = new WebClientCodecs(new WebClientProperties());
+
+    @Test
+    void binaryFormatsShareTheTunedSettings() {
+        ObjectMapper smile = codecs.getObjectMapper(WireFormat.SMILE);
+
+        assertThat(smile.getFactory()).isInstanceOf(SmileFactory.class);
+        assertThat(smile.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)).isFalse();
+        assertThat(smile.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)).isFalse();
+        assertThat(codecs.getObjectMapper(WireFormat.SMILE)).isSameAs(smile);
+        assertThat(codecs.getObjectMapper(WireFormat.JSON)).isSameAs(codecs.getObjectMapper());
+    }
+
+    @Test
+    void rejectsAMaxInMemorySizeAnIntCannotHold() {
+        WebClientProperties properties = new WebClientProperties();
+        properties.getCodecs().setMaxInMemorySize(DataSize.ofGigabytes(2));
+
+        assertThatThrownBy(() -> new WebClientCodecs(properties))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("max-in-memory-size");
+    }
+
+    @Test
+    void registersTheBinaryCodecsOnTheTunedMapper() {
+        ClientCodecConfigurer configurer = ClientCodecConfigurer.create();
+
+        codecs.configure(configurer, WireFormat.SMILE);
+
+        assertThat(configurer.getReaders())
+                .filteredOn(DecoderHttpMessageReader.class::isInstance)
+                .map(reader -> ((DecoderHttpMessageReader<?>) reader).getDecoder())
+                .filteredOn(Jackson2SmileDecoder.class::isInstance)
+                .singleElement()
+                .satisfies(decoder -> assertThat(((Jackson2SmileDecoder) decoder).getObjectMapper())
+                .isSameAs(codecs.getObjectMapper(WireFormat.SMILE)));
+    }
+
+    @Test
+    void encoderReusesTheCachedWriterForContainers() {
+        ClientCodecConfigurer configurer = ClientCodecConfigurer.create();
+        codecs.configure(configurer);
+        Jackson2JsonEncoder encoder = configurer.getWriters().stream()
+                .filter(EncoderHttpMessageWriter.class::isInstance)
+                .map(writer -> ((EncoderHttpMessageWriter<?>) writer).getEncoder())
+                .filter(Jackson2JsonEncoder.class::isInstance)
+                .map(Jackson2JsonEncoder.class::cast)
+                .findFirst()
+                .orElseThrow();
+        ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, String.class);
+        JavaType javaType = codecs.getObjectMapper().constructType(listType.getType());
+
+        assertThat(codecs).extracting("writers", InstanceOfAssertFactories.MAP).doesNotContainKey(javaType);
+
+        DataBuffer first = encoder.encodeValue(List.of("a"), DefaultDataBufferFactory.sharedInstance, listType,
+                MediaType.APPLICATION_JSON, Map.of());
+        ObjectWriter cached = codecs.writer(javaType);
+        DataBuffer second = encoder.encodeValue(List.of("b"), DefaultDataBufferFactory.sharedInstance, listType,
+                MediaType.APPLICATION_JSON, Map.of());
+
+        assertThat(first.toString(StandardCharsets.UTF_8)).isEqualTo("[\"a\"]");
+        assertThat(second.toString(StandardCharsets.UTF_8)).isEqualTo("[\"b\"]");
+        assertThat(codecs.writer(javaType)).isSameAs(cached);
+    }
+}
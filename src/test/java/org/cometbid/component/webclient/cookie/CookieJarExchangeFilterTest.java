@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.cookie;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.List;
+import org.cometbid.component.test.stub.StubRoute;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.test.stub.StubServerExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class CookieJarExchangeFilterTest {
+
+    @RegisterExtension
+    static StubServerExtension stub = new StubServerExtension(() -> StubServer.builder()
+            .route(setCookie("/login", "session=abc; Path=/; HttpOnly"))
+            .route(setCookie("/remember", "remember=yes; Path=/; Expires=Fri, 01 Jan 2100 00:00:00 GMT"))
+            .route(setCookie("/logout", "session=; Path=/; Expires=Thu, 01 Jan 1970 00:00:00 GMT"))
+            .route(setCookie("/forget", "remember=; Path=/; Max-Age=0"))
+            .json(HttpMethod.GET, "/orders", 200, "[]")
+            .build());
+
+    private final CookieJar jar = new CookieJar(50);
+
+    private final WebClient webClient = WebClient.builder()
+            .baseUrl(stub.baseUrl())
+            .filter(new CookieJarExchangeFilter(jar))
+            .build();
+
+    @Test
+    void sendsBackTheCookiesTheDownstreamSet() {
+        call(HttpMethod.POST, "/login");
+        call(HttpMethod.POST, "/remember");
+
+        assertThat(cookiesOf(HttpMethod.GET, "/orders")).containsExactly("session=abc; remember=yes");
+    }
+
+    @Test
+    void forgetsCookiesExpiredByExpiresOrMaxAge() {
+        call(HttpMethod.POST, "/login");
+        call(HttpMethod.POST, "/remember");
+
+        call(HttpMethod.POST, "/logout");
+        assertThat(cookiesOf(HttpMethod.GET, "/orders")).containsExactly("remember=yes");
+
+        call(HttpMethod.POST, "/forget");
+        assertThat(cookiesOf(HttpMethod.GET, "/orders")).isEmpty();
+        assertThat(jar.size()).isZero();
+    }
+
+    @Test
+    void foldsExplicitCookiesIntoTheSameHeader() {
+        call(HttpMethod.POST, "/login");
+        int before = stub.server().receivedHeaders().size();
+
+        StepVerifier.create(webClient.get().uri("/orders").cookie("locale", "en").retrieve().toBodilessEntity())
+                .expectNextCount(1)
+                .verifyComplete();
+
+        HttpHeaders received = stub.server().receivedHeaders().get(before);
+        assertThat(received.get(HttpHeaders.COOKIE)).containsExactly("locale=en; session=abc");
+    }
+
+    private void call(HttpMethod method, String path) {
+        StepVerifier.create(webClient.method(method).uri(path).retrieve().toBodilessEntity())
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    private List<String> cookiesOf(HttpMethod method, String path) {
+        int before = stub.server().receivedHeaders().size();
+        call(method, path);
+
+        List<String> cookies = stub.server().receivedHeaders().get(before).get(HttpHeaders.COOKIE);
+        return cookies == null ? List.of() : cookies;
+    }
+
+    private static StubRoute setCookie(String path, String setCookie) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.SET_COOKIE, setCookie);
+        return StubRoute.builder()
+                .method(HttpMethod.POST)
+                .path(new PathPatternParser().parse(path))
+                .headers(headers)
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.cookie;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseCookie;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class CookieJarTest {
+
+    private final CookieJar jar = new CookieJar(50);
+
+    @Test
+    void keepsHostOnlyCookiesOnTheirHost() {
+        jar.store(uri("http://api.example.com/"), List.of(ResponseCookie.from("session", "abc").build()));
+
+        assertThat(jar.cookieHeader(uri("http://api.example.com/orders"))).isEqualTo("session=abc");
+        assertThat(jar.cookieHeader(uri("http://API.example.com/orders"))).isEqualTo("session=abc");
+        assertThat(jar.cookieHeader(uri("http://eu.api.example.com/orders"))).isNull();
+        assertThat(jar.cookieHeader(uri("http://example.com/orders"))).isNull();
+    }
+
+    @Test
+    void sendsDomainCookiesToTheDomainAndItsSubdomains() {
+        jar.store(uri("http://api.example.com/"), List.of(
+                ResponseCookie.from("shared", "1").domain(".example.com").build(),
+                ResponseCookie.from("foreign", "2").domain("other.org").build(),
+                ResponseCookie.from("tld", "3").domain("com").build(),
+                ResponseCookie.from("suffix", "4").domain("ple.com").build()));
+
+        assertThat(jar.cookieHeader(uri("http://example.com/"))).isEqualTo("shared=1");
+        assertThat(jar.cookieHeader(uri("http://billing.example.com/"))).isEqualTo("shared=1");
+        assertThat(jar.cookieHeader(uri("http://other.org/"))).isNull();
+        assertThat(jar.size()).isEqualTo(1);
+    }
+
+    @Test
+    void scopesCookiesToTheirPath() {
+        jar.store(uri("http://api.example.com/"), List.of(ResponseCookie.from("orders", "1").path("/orders").build()));
+        jar.store(uri("http://api.example.com/billing/invoices"), List.of(ResponseCookie.from("billing", "2").build()));
+
+        assertThat(jar.cookieHeader(uri("http://api.example.com/orders"))).isEqualTo("orders=1");
+        assertThat(jar.cookieHeader(uri("http://api.example.com/orders/42"))).isEqualTo("orders=1");
+        assertThat(jar.cookieHeader(uri("http://api.example.com/ordersx"))).isNull();
+        assertThat(jar.cookieHeader(uri("http://api.example.com/"))).isNull();
+        assertThat(jar.cookieHeader(uri("http://api.example.com/billing/receipts"))).isEqualTo("billing=2");
+    }
+
+    @Test
+    void sendsSecureCookiesOnlyOverHttps() {
+        jar.store(uri("https://api.example.com/"), List.of(
+                ResponseCookie.from("secure", "1").path("/").secure(true).build(),
+                ResponseCookie.from("plain", "2").path("/").build()));
+
+        assertThat(jar.cookieHeader(uri("https://api.example.com/"))).isEqualTo("secure=1; plain=2");
+        assertThat(jar.cookieHeader(uri("http://api.example.com/"))).isEqualTo("plain=2");
+    }
+
+    @Test
+    void replacesAndDeletesCookiesByNameAndPath() {
+        URI uri = uri("http://api.example.com/");
+        jar.store(uri, List.of(ResponseCookie.from("session", "abc").path("/").build(),
+                ResponseCookie.from("theme", "dark").path("/").build()));
+
+        jar.store(uri, List.of(ResponseCookie.from("session", "def").path("/").build()));
+        assertThat(jar.cookieHeader(uri)).isEqualTo("theme=dark; session=def");
+
+        jar.store(uri, List.of(ResponseCookie.from("session", "").path("/").maxAge(0).build()));
+        assertThat(jar.cookieHeader(uri)).isEqualTo("theme=dark");
+        assertThat(jar.size()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsCookiesOnceTheirMaxAgeHasPassed() throws Exception {
+        URI uri = uri("http://api.example.com/");
+        jar.store(uri, List.of(ResponseCookie.from("short", "1").path("/").maxAge(Duration.ofSeconds(1)).build(),
+                ResponseCookie.from("session", "abc").path("/").build()));
+
+        assertThat(jar.cookieHeader(uri)).isEqualTo("short=1; session=abc");
+
+        Thread.sleep(1_100);
+
+        assertThat(jar.cookieHeader(uri)).isEqualTo("session=abc");
+        assertThat(jar.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsTheOldestCookiesOfAFullDomain() {
+        CookieJar small = new CookieJar(2);
+        URI uri = uri("http://api.example.com/");
+
+        small.store(uri, List.of(ResponseCookie.from("a", "1").path("/").build(),
+                ResponseCookie.from("b", "2").path("/").build(),
+                ResponseCookie.from("c", "3").path("/").build()));
+
+        assertThat(small.cookieHeader(uri)).isEqualTo("b=2; c=3");
+        assertThat(small.size()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsEveryCookieOfConcurrentUpdates() throws Exception {
+        int writers = 8;
+        int cookiesPerWriter = 25;
+        CookieJar large = new CookieJar(writers * cookiesPerWriter);
+        URI uri = uri("http://api.example.com/");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+
+        try {
+            List<CompletableFuture<Void>> done = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                done.add(CompletableFuture.runAsync(() -> {
+                    await(start);
+                    for (int i = 0; i < cookiesPerWriter; i++) {
+                        large.store(uri, List.of(ResponseCookie.from("c" + writer + "-" + i, "v").path("/").build()));
+                        large.cookieHeader(uri);
+                    }
+                }, executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(large.size()).isEqualTo(writers * cookiesPerWriter);
+        assertThat(large.cookieHeader(uri).split("; ")).hasSize(writers * cookiesPerWriter);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static URI uri(String uri) {
+        return URI.create(uri);
+    }
+}
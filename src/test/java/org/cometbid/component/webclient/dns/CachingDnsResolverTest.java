@@ -0,0 +1,222 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.dns;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.cometbid.component.test.stub.StubDnsServer;
+import org.cometbid.component.webclient.WebClientProperties.Dns;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class CachingDnsResolverTest {
+
+    private static final String HOST = "api.stub.test";
+
+    private StubDnsServer server;
+
+    private CachingDnsResolver resolver;
+
+    @BeforeEach
+    void startServer() {
+        server = new StubDnsServer().start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (resolver != null) {
+            resolver.close();
+        }
+        server.close();
+    }
+
+    @Test
+    void clampsShortTtlToMinimum() throws Exception {
+        server.record(HOST, "10.0.0.1", 0);
+        resolver = resolver(settings(Duration.ofSeconds(5), Duration.ofMinutes(5)));
+
+        resolve(HOST);
+        resolve(HOST);
+
+        assertThat(server.queryCount(HOST)).isEqualTo(1);
+        assertThat(resolver.metrics().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void clampsLongTtlToMaximum() throws Exception {
+        server.record(HOST, "10.0.0.1", 3600);
+        resolver = resolver(settings(Duration.ofMillis(100), Duration.ofMillis(300)));
+
+        resolve(HOST);
+        Thread.sleep(400);
+        resolve(HOST);
+
+        assertThat(server.queryCount(HOST)).isEqualTo(2);
+    }
+
+    @Test
+    void refreshesAheadOfExpiry() throws Exception {
+        server.record(HOST, "10.0.0.1", 1);
+        Dns settings = settings(Duration.ofSeconds(1), Duration.ofSeconds(1));
+        settings.setRefreshBeforeExpiry(Duration.ofMillis(600));
+        resolver = resolver(settings);
+
+        resolve(HOST);
+        server.record(HOST, "10.0.0.2", 1);
+        Thread.sleep(600);
+
+        // still fresh: answered from the cache while the refresh runs behind it
+        CompletableFuture<List<InetAddress>> duringRefresh = resolver.resolveAll(HOST);
+        assertThat(duringRefresh).isCompleted();
+        assertThat(duringRefresh.get().get(0).getHostAddress()).isEqualTo("10.0.0.1");
+
+        Thread.sleep(200);
+        assertThat(server.queryCount(HOST)).isEqualTo(2);
+        assertThat(resolver.metrics().getBackgroundRefreshes()).isEqualTo(1);
+        assertThat(resolve(HOST).get(0).getHostAddress()).isEqualTo("10.0.0.2");
+    }
+
+    @Test
+    void servesStaleAddressesWhileNameServerFails() throws Exception {
+        server.record(HOST, "10.0.0.1", 0);
+        Dns settings = settings(Duration.ofMillis(200), Duration.ofMillis(200));
+        settings.setRefreshBeforeExpiry(Duration.ZERO);
+        settings.setQueryTimeout(Duration.ofMillis(200));
+        resolver = resolver(settings);
+
+        resolve(HOST);
+        server.failing(true);
+        Thread.sleep(300);
+
+        assertThat(resolve(HOST).get(0).getHostAddress()).isEqualTo("10.0.0.1");
+        assertThat(resolver.metrics().getStaleServed()).isEqualTo(1);
+        assertThat(resolver.metrics().getQueryFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void cachesUnknownHosts() {
+        resolver = resolver(settings(Duration.ofSeconds(5), Duration.ofMinutes(5)));
+
+        assertThatThrownBy(() -> resolve("missing.stub.test")).hasCauseInstanceOf(UnknownHostException.class);
+        int queries = server.queryCount("missing.stub.test");
+
+        assertThatThrownBy(() -> resolve("missing.stub.test")).hasCauseInstanceOf(UnknownHostException.class);
+        assertThat(server.queryCount("missing.stub.test")).isEqualTo(queries);
+        assertThat(resolver.metrics().getNegativeHits()).isEqualTo(1);
+    }
+
+    @Test
+    void resolvesShortNamesThroughTheSearchDomains() throws Exception {
+        server.record("orders.default.svc.cluster.local", "10.0.0.7", 60);
+        Dns settings = settings(Duration.ofSeconds(5), Duration.ofMinutes(5));
+        settings.setSearchDomains(List.of("default.svc.cluster.local", "svc.cluster.local"));
+        settings.setNdots(5);
+        resolver = resolver(settings);
+
+        assertThat(resolve("orders")).extracting(InetAddress::getHostAddress).containsExactly("10.0.0.7");
+        assertThat(server.queryCount("orders")).isZero();
+    }
+
+    @Test
+    void queriesNamesWithEnoughDotsAsTheyAreFirst() throws Exception {
+        server.record(HOST, "10.0.0.1", 60);
+        Dns settings = settings(Duration.ofSeconds(5), Duration.ofMinutes(5));
+        settings.setSearchDomains(List.of("svc.cluster.local"));
+        settings.setNdots(2);
+        resolver = resolver(settings);
+
+        resolve(HOST);
+
+        assertThat(server.queryCount(HOST)).isEqualTo(1);
+        assertThat(server.queryCount(HOST + ".svc.cluster.local")).isZero();
+        assertThat(resolver.candidates("orders.")).containsExactly("orders");
+    }
+
+    @Test
+    void failsWhenNoCandidateExists() {
+        Dns settings = settings(Duration.ofSeconds(5), Duration.ofMinutes(5));
+        settings.setSearchDomains(List.of("svc.cluster.local"));
+        settings.setNdots(1);
+        resolver = resolver(settings);
+
+        assertThatThrownBy(() -> resolve("missing"))
+                .hasCauseInstanceOf(UnknownHostException.class);
+        assertThat(server.queryCount("missing.svc.cluster.local")).isPositive();
+        assertThat(server.queryCount("missing")).isPositive();
+    }
+
+    @Test
+    void readsSearchDomainsAndNdotsFromResolvConf() throws Exception {
+        Path file = Files.createTempFile("resolv", ".conf");
+        try {
+            Files.writeString(file, """
+                    nameserver 10.96.0.10
+                    search default.svc.cluster.local svc.cluster.local cluster.local
+                    options ndots:5 timeout:2
+                    """);
+
+            CachingDnsResolver.ResolverConfig config = CachingDnsResolver.ResolverConfig.read(file);
+
+            assertThat(config.searchDomains())
+                    .containsExactly("default.svc.cluster.local", "svc.cluster.local", "cluster.local");
+            assertThat(config.ndots()).isEqualTo(5);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private List<InetAddress> resolve(String host) throws ExecutionException, InterruptedException,
+            TimeoutException {
+        return resolver.resolveAll(host).get(5, TimeUnit.SECONDS);
+    }
+
+    private CachingDnsResolver resolver(Dns settings) {
+        return new CachingDnsResolver("test", settings);
+    }
+
+    private Dns settings(Duration minTtl, Duration maxTtl) {
+        Dns settings = new Dns();
+        settings.setEnabled(true);
+        settings.setMinTtl(minTtl);
+        settings.setMaxTtl(maxTtl);
+        settings.setNameServers(List.of(server.nameServer()));
+
+        return settings;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.download;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import org.cometbid.component.test.stub.FaultProfile;
+import org.cometbid.component.test.stub.StubRoute;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.test.stub.StubServerExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class RangeDownloaderTest {
+
+    private static final byte[] OBJECT = new byte[40_000];
+
+    private static final DataSize RANGE_SIZE = DataSize.ofBytes(8_192);
+
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    static {
+        new Random(42).nextBytes(OBJECT);
+    }
+
+    @RegisterExtension
+    static StubServerExtension stub = new StubServerExtension(() -> StubServer.builder()
+            .route(route("/ranged", true, FaultProfile.NONE, "bytes"))
+            .route(route("/interrupted", true, FaultProfile.builder().truncatedResponses(1).truncateAfter(3_000).build(),
+                    "bytes"))
+            .route(route("/flaky", true, FaultProfile.builder().truncatedResponses(3).truncateAfter(1_000).build(),
+                    "bytes"))
+            .route(route("/broken", true, FaultProfile.builder().truncatedResponses(100).truncateAfter(1_000).build(),
+                    "bytes"))
+            .route(route("/whole", false, FaultProfile.NONE, null))
+            .route(route("/ignoring", false, FaultProfile.NONE, "bytes"))
+            .route(route("/tagged", validators("\"v1\"")))
+            .route(route("/weakly-tagged", validators("W/\"v1\"")))
+            .build());
+
+    private final RangeDownloader downloader = new RangeDownloader();
+
+    private Path target;
+
+    @BeforeEach
+    void createTarget() throws Exception {
+        target = Files.createTempFile("range-download", ".bin");
+    }
+
+    @AfterEach
+    void deleteTarget() throws Exception {
+        Files.deleteIfExists(target);
+    }
+
+    @Test
+    void downloadsRangesIntoTheirOffsets() throws Exception {
+        StepVerifier.create(downloader.download(client(), spec("/ranged").expectedChecksum(sha256(OBJECT)).build()))
+                .assertNext(result -> {
+                    assertThat(result.getBytes()).isEqualTo(OBJECT.length);
+                    assertThat(result.getRanges()).isEqualTo(5);
+                })
+                .verifyComplete();
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(OBJECT);
+    }
+
+    @Test
+    void resumesAnInterruptedRangeFromItsLastWrittenByte() throws Exception {
+        int before = stub.server().receivedHeaders().size();
+
+        StepVerifier.create(downloader.download(client(), spec("/interrupted").concurrency(1).build()))
+                .assertNext(result -> assertThat(result.getBytes()).isEqualTo(OBJECT.length))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(OBJECT);
+        List<String> ranges = ranges(before);
+        assertThat(ranges).containsExactly("bytes=0-8191", "bytes=3000-8191", "bytes=8192-16383",
+                "bytes=16384-24575", "bytes=24576-32767", "bytes=32768-39999");
+    }
+
+    @Test
+    void retriesRangesThatFailRepeatedly() throws Exception {
+        StepVerifier.create(downloader.download(client(), spec("/flaky").retryBackoff(Duration.ofMillis(10)).build()))
+                .assertNext(result -> assertThat(result.getBytes()).isEqualTo(OBJECT.length))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(OBJECT);
+    }
+
+    @Test
+    void failsOnceARangeRunsOutOfRetries() {
+        StepVerifier.create(downloader.download(client(), spec("/broken").rangeRetries(1)
+                .retryBackoff(Duration.ofMillis(10)).build()))
+                .expectError()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void readsDownstreamsWithoutRangesAsOneStream() throws Exception {
+        StepVerifier.create(downloader.download(client(), spec("/whole").build()))
+                .assertNext(result -> {
+                    assertThat(result.getBytes()).isEqualTo(OBJECT.length);
+                    assertThat(result.getRanges()).isEqualTo(1);
+                })
+                .verifyComplete();
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(OBJECT);
+    }
+
+    @Test
+    void abortsWhenTheDownstreamIgnoresTheRange() {
+        StepVerifier.create(downloader.download(client(), spec("/ignoring").build()))
+                .expectErrorSatisfies(ex -> assertThat(ex)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ignored range"))
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void sendsAStrongEtagAsIfRange() throws Exception {
+        int before = stub.server().receivedHeaders().size();
+
+        StepVerifier.create(downloader.download(client(), spec("/tagged").build()))
+                .assertNext(result -> assertThat(result.getRanges()).isEqualTo(5))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(OBJECT);
+        assertThat(ifRanges(before)).hasSize(5).containsOnly("\"v1\"");
+    }
+
+    @Test
+    void fallsBackToLastModifiedForAWeakEtag() throws Exception {
+        int before = stub.server().receivedHeaders().size();
+
+        StepVerifier.create(downloader.download(client(), spec("/weakly-tagged").build()))
+                .assertNext(result -> assertThat(result.getRanges()).isEqualTo(5))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        assertThat(Files.readAllBytes(target)).isEqualTo(OBJECT);
+        assertThat(ifRanges(before)).hasSize(5).containsOnly(LAST_MODIFIED);
+    }
+
+    private List<String> ifRanges(int from) {
+        List<HttpHeaders> received = stub.server().receivedHeaders();
+        return received.subList(from, received.size()).stream()
+                .map(headers -> headers.getFirst(HttpHeaders.IF_RANGE))
+                .filter(ifRange -> ifRange != null)
+                .toList();
+    }
+
+    private List<String> ranges(int from) {
+        List<HttpHeaders> received = stub.server().receivedHeaders();
+        return received.subList(from, received.size()).stream()
+                .map(headers -> headers.getFirst(HttpHeaders.RANGE))
+                .filter(range -> range != null)
+                .toList();
+    }
+
+    private RangeDownloadSpec.RangeDownloadSpecBuilder spec(String path) {
+        return RangeDownloadSpec.builder()
+                .uri(URI.create(path))
+                .target(target)
+                .rangeSize(RANGE_SIZE);
+    }
+
+    private static WebClient client() {
+        return WebClient.builder().baseUrl(stub.server().baseUrl()).build();
+    }
+
+    private static HttpHeaders validators(String etag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ETAG, etag);
+        headers.set(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED);
+        return headers;
+    }
+
+    private static StubRoute route(String path, HttpHeaders validators) {
+        validators.set(HttpHeaders.CONTENT_TYPE, "application/octet-stream");
+        return StubRoute.builder()
+                .method(HttpMethod.GET)
+                .path(new PathPatternParser().parse(path))
+                .headers(validators)
+                .body(OBJECT)
+                .ranges(true)
+                .build();
+    }
+
+    private static StubRoute route(String path, boolean ranges, FaultProfile faults, String acceptRanges) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/octet-stream");
+        if (acceptRanges != null && !ranges) {
+            headers.set(HttpHeaders.ACCEPT_RANGES, acceptRanges);
+        }
+        return StubRoute.builder()
+                .method(HttpMethod.GET)
+                .path(new PathPatternParser().parse(path))
+                .headers(headers)
+                .body(OBJECT)
+                .ranges(ranges)
+                .faults(faults)
+                .build();
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
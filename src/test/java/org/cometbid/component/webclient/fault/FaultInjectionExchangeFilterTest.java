@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.fault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.cometbid.component.webclient.WebClientExceptionHandler.processResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import org.cometbid.component.api.generic.exceptions.ResourceNotFoundException;
+import org.cometbid.component.api.generic.exceptions.ServiceUnavailableException;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.test.stub.StubServerExtension;
+import org.cometbid.component.webclient.DownstreamClient;
+import org.cometbid.component.webclient.DownstreamWebClients;
+import org.cometbid.component.webclient.WebClientExceptionHandler;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.cometbid.component.webclient.codec.WebClientCodecs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Injected faults go through {@code processResponse} and the exception handlers like real
+ * ones.
+ *
+ * @author samueladebowale
+ */
+class FaultInjectionExchangeFilterTest {
+
+    @RegisterExtension
+    static StubServerExtension stub = new StubServerExtension(() -> StubServer.builder()
+            .json(HttpMethod.GET, "/orders", 200, "{\"id\":1}")
+            .build());
+
+    private DownstreamWebClients clients;
+
+    @AfterEach
+    void destroyClients() {
+        if (clients != null) {
+            clients.destroy();
+        }
+    }
+
+    @Test
+    void injected503BecomesServiceUnavailable() {
+        WebClientProperties.FaultRule rule = new WebClientProperties.FaultRule();
+        rule.setStatus(503);
+        rule.setStatusProbability(1.0);
+        DownstreamClient client = client(rule);
+        long requests = stub.server().requestCount();
+
+        StepVerifier.create(get(client))
+                .expectErrorSatisfies(ex -> {
+                    assertThat(ex).isInstanceOf(ServiceUnavailableException.class);
+                    assertThat(WebClientExceptionHandler.isEndpointFailure(ex)).isTrue();
+                })
+                .verify(Duration.ofSeconds(2));
+
+        assertThat(client.getFaultInjector().getFailed()).isEqualTo(1);
+        assertThat(stub.server().requestCount()).isEqualTo(requests);
+    }
+
+    @Test
+    void injected404BecomesResourceNotFound() {
+        WebClientProperties.FaultRule rule = new WebClientProperties.FaultRule();
+        rule.setStatus(404);
+        rule.setStatusProbability(1.0);
+
+        StepVerifier.create(get(client(rule)))
+                .expectError(ResourceNotFoundException.class)
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void injectedAbortIsAnEndpointFailure() {
+        WebClientProperties.FaultRule rule = new WebClientProperties.FaultRule();
+        rule.setAbortProbability(1.0);
+        DownstreamClient client = client(rule);
+
+        StepVerifier.create(get(client))
+                .expectErrorSatisfies(ex -> {
+                    assertThat(ex).isInstanceOf(WebClientRequestException.class);
+                    assertThat(WebClientExceptionHandler.isEndpointFailure(ex)).isTrue();
+                })
+                .verify(Duration.ofSeconds(2));
+
+        assertThat(client.getFaultInjector().getAborted()).isEqualTo(1);
+    }
+
+    @Test
+    void injectedDelayTripsTheCallersTimeout() {
+        WebClientProperties.FaultRule rule = new WebClientProperties.FaultRule();
+        rule.setDelay(Duration.ofSeconds(2));
+        rule.setDelayProbability(1.0);
+        DownstreamClient client = client(rule);
+
+        StepVerifier.create(get(client).timeout(Duration.ofMillis(300)))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(2));
+
+        assertThat(client.getFaultInjector().getDelayed()).isEqualTo(1);
+    }
+
+    @Test
+    void inactiveInjectorPassesCallsThrough() {
+        WebClientProperties.FaultRule rule = new WebClientProperties.FaultRule();
+        rule.setStatus(503);
+        rule.setStatusProbability(1.0);
+        DownstreamClient client = client(rule);
+        client.getFaultInjector().deactivate();
+
+        StepVerifier.create(get(client))
+                .expectNext("{\"id\":1}")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    private static Mono<String> get(DownstreamClient client) {
+        return client.getWebClient().get().uri("/orders")
+                .exchangeToMono(clientResponse -> processResponse(clientResponse, String.class));
+    }
+
+    private DownstreamClient client(WebClientProperties.FaultRule rule) {
+        WebClientProperties.Downstream downstream = new WebClientProperties.Downstream();
+        downstream.setBaseUrl(stub.baseUrl());
+        downstream.getFaults().setEnabled(true);
+        downstream.getFaults().setActive(true);
+        downstream.getFaults().setRules(List.of(rule));
+
+        WebClientProperties properties = new WebClientProperties();
+        properties.getDownstreams().put("orders", downstream);
+
+        clients = new DownstreamWebClients(properties,
+                new StaticListableBeanFactory().getBeanProvider(WebClient.Builder.class),
+                new WebClientCodecs(properties));
+        return clients.client("orders");
+    }
+}
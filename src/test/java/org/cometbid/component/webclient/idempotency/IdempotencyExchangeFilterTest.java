@@ -0,0 +1,191 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.cometbid.component.api.generic.exceptions.ApiResponseException;
+import org.cometbid.component.webclient.ReplayableBodies;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class IdempotencyExchangeFilterTest {
+
+    private static final String KEY_HEADER = "Idempotency-Key";
+
+    private final List<ClientRequest> sent = new CopyOnWriteArrayList<>();
+
+    @Test
+    void keysConfiguredRoutesAndKeepsTheKeyAcrossRetries() {
+        AtomicInteger calls = new AtomicInteger();
+        WebClient webClient = client(request -> Mono.just(calls.incrementAndGet() == 1
+                ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.CREATED));
+
+        StepVerifier.create(status(webClient.post().uri("/orders/42").bodyValue("{}")
+                .attribute(ReplayableBodies.REPLAYABLE_BODY, true)))
+                .expectNext(HttpStatus.CREATED)
+                .verifyComplete();
+
+        assertThat(sent).hasSize(2);
+        String key = sent.get(0).headers().getFirst(KEY_HEADER);
+        assertThat(UUID.fromString(key)).isNotNull();
+        assertThat(sent.get(1).headers().getFirst(KEY_HEADER)).isEqualTo(key);
+    }
+
+    @Test
+    void leavesOtherRoutesAndSafeMethodsAlone() {
+        WebClient webClient = client(request -> Mono.just(HttpStatus.SERVICE_UNAVAILABLE));
+
+        StepVerifier.create(status(webClient.post().uri("/payments").bodyValue("{}")
+                .attribute(ReplayableBodies.REPLAYABLE_BODY, true)))
+                .expectNext(HttpStatus.SERVICE_UNAVAILABLE)
+                .verifyComplete();
+        StepVerifier.create(status(webClient.get().uri("/orders/42")))
+                .expectNext(HttpStatus.SERVICE_UNAVAILABLE)
+                .verifyComplete();
+
+        assertThat(sent).hasSize(2)
+                .allSatisfy(request -> assertThat(request.headers().containsKey(KEY_HEADER)).isFalse());
+    }
+
+    @Test
+    void keepsAndRetriesTheCallersKeyOnAnyRoute() {
+        AtomicInteger calls = new AtomicInteger();
+        WebClient webClient = client(request -> Mono.just(calls.incrementAndGet() == 1
+                ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.OK));
+
+        StepVerifier.create(status(webClient.post().uri("/payments").header(KEY_HEADER, "payment-7").bodyValue("{}")
+                .attribute(ReplayableBodies.REPLAYABLE_BODY, true)))
+                .expectNext(HttpStatus.OK)
+                .verifyComplete();
+
+        assertThat(sent).hasSize(2)
+                .allSatisfy(request -> assertThat(request.headers().getFirst(KEY_HEADER)).isEqualTo("payment-7"));
+    }
+
+    @Test
+    void retriesConnectionFailures() {
+        AtomicInteger calls = new AtomicInteger();
+        WebClient webClient = client(request -> calls.incrementAndGet() == 1
+                ? Mono.error(new WebClientRequestException(new ConnectException("refused"),
+                        request.method(), request.url(), new HttpHeaders()))
+                : Mono.just(HttpStatus.OK));
+
+        StepVerifier.create(status(webClient.delete().uri("/orders/42")))
+                .expectNext(HttpStatus.OK)
+                .verifyComplete();
+
+        assertThat(sent).hasSize(2);
+    }
+
+    @Test
+    void returnsTheLastResponseOnceTheRetriesRunOut() {
+        WebClient webClient = client(request -> Mono.just(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        StepVerifier.create(status(webClient.put().uri("/orders/42").bodyValue("{}")
+                .attribute(ReplayableBodies.REPLAYABLE_BODY, true)))
+                .expectNext(HttpStatus.INTERNAL_SERVER_ERROR)
+                .verifyComplete();
+
+        assertThat(sent).hasSize(3);
+    }
+
+    @Test
+    void sendsOneShotBodiesOnce() {
+        WebClient webClient = client(request -> Mono.just(HttpStatus.SERVICE_UNAVAILABLE));
+
+        StepVerifier.create(status(webClient.post().uri("/orders").body(Flux.just("{}"), String.class)))
+                .expectNext(HttpStatus.SERVICE_UNAVAILABLE)
+                .verifyComplete();
+
+        assertThat(sent).singleElement()
+                .satisfies(request -> assertThat(request.headers().getFirst(KEY_HEADER)).isNotNull());
+    }
+
+    @Test
+    void rejectsAKeyThatIsStillInFlight() {
+        Sinks.Empty<Void> downstreamDone = Sinks.empty();
+        WebClient webClient = client(request -> downstreamDone.asMono().thenReturn(HttpStatus.OK));
+
+        Disposable first = status(webClient.post().uri("/payments").header(KEY_HEADER, "payment-7")).subscribe();
+        try {
+            StepVerifier.create(status(webClient.post().uri("/payments").header(KEY_HEADER, "payment-7")))
+                    .expectErrorSatisfies(ex -> assertThat(ex)
+                    .isInstanceOf(ApiResponseException.class)
+                    .hasMessageContaining("payment-7"))
+                    .verify(Duration.ofSeconds(5));
+        } finally {
+            first.dispose();
+        }
+        assertThat(sent).hasSize(1);
+
+        StepVerifier.create(status(webClient.post().uri("/payments").header(KEY_HEADER, "payment-7")))
+                .then(downstreamDone::tryEmitEmpty)
+                .expectNext(HttpStatus.OK)
+                .verifyComplete();
+    }
+
+    private static Mono<HttpStatus> status(WebClient.RequestHeadersSpec<?> spec) {
+        return spec.exchangeToMono(response -> response.releaseBody()
+                .thenReturn(HttpStatus.valueOf(response.statusCode().value())));
+    }
+
+    private WebClient client(Function<ClientRequest, Mono<HttpStatus>> statuses) {
+        WebClientProperties.Idempotency properties = new WebClientProperties.Idempotency();
+        properties.setEnabled(true);
+        properties.setRoutes(List.of("/orders/**"));
+        properties.setRetryBackoff(Duration.ofMillis(1));
+
+        return WebClient.builder()
+                .baseUrl("http://downstream.test")
+                .exchangeFunction(request -> {
+                    sent.add(request);
+                    return statuses.apply(request).map(status -> ClientResponse.create(status).build());
+                })
+                .filter(new IdempotencyExchangeFilter("orders", properties))
+                .build();
+    }
+}
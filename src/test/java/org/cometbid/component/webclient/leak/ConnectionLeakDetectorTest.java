@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.leak;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class ConnectionLeakDetectorTest {
+
+    private static final Duration LEAK_TIMEOUT = Duration.ofMillis(200);
+
+    private final ConnectionLeakDetector detector = new ConnectionLeakDetector("orders", properties());
+
+    @AfterEach
+    void closeDetector() {
+        detector.close();
+    }
+
+    @Test
+    void doesNotFlagABodyThatKeepsStreaming() {
+        // five times the leak timeout in total, but never silent for long
+        Flux<DataBuffer> body = Flux.interval(Duration.ofMillis(50)).take(20).map(tick -> chunk("x"));
+
+        StepVerifier.create(client(body).get().uri("/download").retrieve().bodyToFlux(DataBuffer.class))
+                .expectNextCount(20)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(detector.diagnostics().getLeaksDetected()).isZero();
+        assertThat(detector.diagnostics().getLeases()).isEmpty();
+    }
+
+    @Test
+    void leavesQuietEventStreamsToTheirIdleTimeout() {
+        // events further apart than the leak timeout
+        Flux<DataBuffer> events = Flux.interval(LEAK_TIMEOUT.multipliedBy(2)).take(3)
+                .map(tick -> chunk("data:" + tick + "\n\n"));
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://orders")
+                .filter(new LeakDetectionExchangeFilter(detector))
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .body(events)
+                .build()))
+                .build();
+
+        StepVerifier.create(webClient.get().uri("/events").retrieve().bodyToFlux(String.class))
+                .expectNext("0", "1", "2")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(detector.diagnostics().getLeaksDetected()).isZero();
+    }
+
+    @Test
+    void releasesABodyNobodySubscribes() throws Exception {
+        // an outer filter that answers on its own, dropping the downstream response unread
+        WebClient dropping = client(Flux.just(chunk("{}"))).mutate()
+                .filters(filters -> filters.add(0, (request, next) -> next.exchange(request)
+                .map(response -> ClientResponse.create(HttpStatus.NO_CONTENT).build())))
+                .build();
+
+        StepVerifier.create(dropping.get().uri("/orders").retrieve().toBodilessEntity())
+                .expectNextCount(1)
+                .verifyComplete();
+
+        awaitLeaks(1);
+        assertThat(detector.diagnostics().getForceReleased()).isEqualTo(1);
+        assertThat(detector.diagnostics().getLeases()).isEmpty();
+    }
+
+    @Test
+    void cutsABodyThatStalls() {
+        Flux<DataBuffer> body = Flux.concat(Flux.just(chunk("{")), Flux.never());
+
+        StepVerifier.create(client(body).get().uri("/orders").retrieve().bodyToFlux(DataBuffer.class))
+                .expectNextCount(1)
+                .then(() -> assertThat(detector.diagnostics().getLeases())
+                .singleElement()
+                .extracting(PoolDiagnostics.Lease::getState)
+                .isEqualTo(PoolDiagnostics.LeaseState.BODY_STREAMING))
+                .expectErrorSatisfies(ex -> assertThat(ex)
+                .rootCause()
+                .hasMessage("Response body released after the leak timeout"))
+                .verify(Duration.ofSeconds(2));
+
+        assertThat(detector.diagnostics().getLeaksDetected()).isEqualTo(1);
+    }
+
+    private WebClient client(Flux<DataBuffer> body) {
+        return WebClient.builder()
+                .baseUrl("http://orders")
+                .filter(new LeakDetectionExchangeFilter(detector))
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK).body(body).build()))
+                .build();
+    }
+
+    private void awaitLeaks(long leaks) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (detector.diagnostics().getLeaksDetected() < leaks && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(detector.diagnostics().getLeaksDetected()).isEqualTo(leaks);
+    }
+
+    private static DataBuffer chunk(String value) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static WebClientProperties.LeakDetection properties() {
+        WebClientProperties.LeakDetection properties = new WebClientProperties.LeakDetection();
+        properties.setEnabled(true);
+        properties.setLeakTimeout(LEAK_TIMEOUT);
+        properties.setCallSiteSampleRate(0);
+        return properties;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.loadbalancer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.stream.IntStream;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.webclient.WebClientProperties.LoadBalancer;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class LatencyAwareLoadBalancerTest {
+
+    @Test
+    void concurrentFailuresNeverEjectTheLastEndpoint() throws Exception {
+        List<String> urls = List.of("http://a.test", "http://b.test", "http://c.test", "http://d.test");
+        LoadBalancer settings = settings();
+        settings.setEjectAfterConsecutiveErrors(1);
+
+        for (int round = 0; round < 200; round++) {
+            try (LatencyAwareLoadBalancer balancer = new LatencyAwareLoadBalancer("test", urls, settings,
+                    HttpClient.create())) {
+                List<Endpoint> endpoints = balancer.getEndpoints();
+                CyclicBarrier barrier = new CyclicBarrier(endpoints.size());
+
+                List<Thread> threads = endpoints.stream()
+                        .map(endpoint -> Thread.ofPlatform().start(() -> {
+                            await(barrier);
+                            balancer.onResponse(endpoint, 1_000_000, true);
+                        }))
+                        .toList();
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+
+                assertThat(endpoints.stream().filter(endpoint -> !endpoint.isEjected())).hasSize(1);
+            }
+        }
+    }
+
+    @Test
+    void restoresOnlyEndpointsWhoseProbeSucceeds() throws Exception {
+        try (StubServer healthy = StubServer.builder().json(HttpMethod.GET, "/health", 200, "{}").build().start();
+                StubServer notFound = StubServer.builder().json(HttpMethod.GET, "/other", 200, "{}").build().start();
+                LatencyAwareLoadBalancer balancer = new LatencyAwareLoadBalancer("test",
+                        List.of(healthy.baseUrl(), notFound.baseUrl(), "http://spare.test"), settings(),
+                        HttpClient.create())) {
+            Endpoint up = balancer.getEndpoints().get(0);
+            Endpoint missing = balancer.getEndpoints().get(1);
+
+            IntStream.range(0, 2).forEach(i -> {
+                balancer.onResponse(up, 1_000_000, true);
+                balancer.onResponse(missing, 1_000_000, true);
+            });
+            assertThat(up.isEjected()).isTrue();
+            assertThat(missing.isEjected()).isTrue();
+
+            Thread.sleep(1_000);
+
+            assertThat(up.isEjected()).isFalse();
+            assertThat(missing.isEjected()).as("a 404 probe is not healthy").isTrue();
+        }
+    }
+
+    private static LoadBalancer settings() {
+        LoadBalancer settings = new LoadBalancer();
+        settings.setEjectAfterConsecutiveErrors(2);
+        settings.setEjectionTime(Duration.ZERO);
+        settings.setProbeInterval(Duration.ofMillis(200));
+        settings.setProbePath("/health");
+
+        return settings;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
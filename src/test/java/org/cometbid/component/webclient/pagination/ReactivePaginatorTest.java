@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.pagination;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import org.cometbid.component.webclient.SyntheticResponses;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.cometbid.component.webclient.codec.WebClientCodecs;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class ReactivePaginatorTest {
+
+    private final ReactivePaginator paginator = new ReactivePaginator(new WebClientCodecs(new WebClientProperties()));
+
+    private final List<URI> requested = new CopyOnWriteArrayList<>();
+
+    @Test
+    void sendsCursorsWithReservedCharactersEncoded() {
+        WebClient webClient = client(request -> json(request, request.url().getRawQuery().contains("cursor=")
+                ? "{\"items\":[\"c\"],\"next_cursor\":null}"
+                : "{\"items\":[\"a\",\"b\"],\"next_cursor\":\"a+b/c==\"}"));
+
+        PaginationSpec<String> spec = PaginationSpec.<String>builder()
+                .uri(URI.create("/items"))
+                .itemType(String.class)
+                .mode(PaginationMode.CURSOR)
+                .itemsPointer("/items")
+                .params(new LinkedMultiValueMap<>(Map.of("q", List.of("x y&z"))))
+                .build();
+
+        StepVerifier.create(paginator.paginate(webClient, spec))
+                .expectNext("a", "b", "c")
+                .verifyComplete();
+
+        assertThat(requested).extracting(URI::toString).containsExactly(
+                "http://downstream.test/api/items?q=x%20y%26z",
+                "http://downstream.test/api/items?q=x%20y%26z&cursor=a%2Bb%2Fc%3D%3D");
+    }
+
+    @Test
+    void followsEncodedLinksWithoutEncodingThemAgain() {
+        WebClient webClient = client(request -> requested.size() > 1 ? json(request, "[\"b\"]")
+                : SyntheticResponses.builder(request, HttpStatus.OK, ExchangeStrategies.withDefaults())
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.LINK, "<items?after=a%2Bb&name=x%20y>; rel=\"next\"")
+                        .body("[\"a\"]")
+                        .build());
+
+        PaginationSpec<String> spec = PaginationSpec.<String>builder()
+                .uri(URI.create("/items%20all"))
+                .itemType(String.class)
+                .build();
+
+        StepVerifier.create(paginator.paginate(webClient, spec))
+                .expectNext("a", "b")
+                .verifyComplete();
+
+        assertThat(requested).extracting(URI::toString).containsExactly(
+                "http://downstream.test/api/items%20all",
+                "http://downstream.test/api/items?after=a%2Bb&name=x%20y");
+    }
+
+    private WebClient client(Function<ClientRequest, ClientResponse> responses) {
+        ExchangeFunction exchange = request -> {
+            requested.add(request.url());
+            return Mono.just(responses.apply(request));
+        };
+        return WebClient.builder().baseUrl("http://downstream.test/api").exchangeFunction(exchange).build();
+    }
+
+    private static ClientResponse json(ClientRequest request, String body) {
+        return SyntheticResponses.builder(request, HttpStatus.OK, ExchangeStrategies.withDefaults())
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.priority;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.cometbid.component.test.stub.FaultProfile;
+import org.cometbid.component.test.stub.LatencyDistribution;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.test.stub.StubServerExtension;
+import org.cometbid.component.webclient.DownstreamWebClients;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.cometbid.component.webclient.codec.WebClientCodecs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Interactive calls against a pool kept saturated by a bulk flood, with and without
+ * priority lanes.
+ *
+ * @author samueladebowale
+ */
+class PriorityExchangeFilterTest {
+
+    private static final Duration STUB_LATENCY = Duration.ofMillis(20);
+
+    private static final int MAX_CONNECTIONS = 4;
+
+    private static final int BULK_CONCURRENCY = 64;
+
+    /**
+     * A lane-scheduled call waits one stub latency at most for the next free connection, a
+     * FIFO one behind the whole bulk queue, {@code BULK_CONCURRENCY / MAX_CONNECTIONS}
+     * latencies; the factor leaves ample room below that ratio of 16 for a loaded machine.
+     */
+    private static final int MIN_SPEEDUP = 3;
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    @RegisterExtension
+    static StubServerExtension stub = new StubServerExtension(() -> StubServer.builder()
+            .json(HttpMethod.GET, "/contention", 200, "{\"ok\":true}")
+            .faults(FaultProfile.builder().latency(LatencyDistribution.logNormal(STUB_LATENCY, 0.2)).build())
+            .build());
+
+    @Test
+    void interactiveCallsOvertakeTheBulkQueue() throws Exception {
+        Histogram fifo = interactiveLatency(false);
+        Histogram lanes = interactiveLatency(true);
+
+        assertThat(lanes.getValueAtPercentile(99) * MIN_SPEEDUP).isLessThan(fifo.getValueAtPercentile(99));
+    }
+
+    @Test
+    void returnsThePermitOfABodyNobodyReads() throws Exception {
+        DownstreamWebClients clients = clients(true);
+        try {
+            PriorityLanes lanes = clients.client("contention").getPriorityLanes();
+            WebClient dropping = clients.webClient("contention").mutate()
+                    .filters(filters -> filters.add(0, (request, next) -> next.exchange(request)
+                    .map(response -> ClientResponse.create(HttpStatus.NO_CONTENT).build())))
+                    .build();
+
+            StepVerifier.create(dropping.get().uri("/contention").retrieve().toBodilessEntity())
+                    .expectNextCount(1)
+                    .verifyComplete();
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+            while (lanes.inFlight() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(lanes.inFlight()).isZero();
+        } finally {
+            clients.destroy();
+        }
+    }
+
+    private static Histogram interactiveLatency(boolean priority) throws InterruptedException {
+        DownstreamWebClients clients = clients(priority);
+        WebClient webClient = clients.webClient("contention");
+
+        Mono<String> bulkCall = webClient.get().uri("/contention").retrieve().bodyToMono(String.class)
+                .contextWrite(RequestPriority.BULK.context())
+                .onErrorResume(ex -> Mono.empty());
+        Disposable flood = Flux.range(0, BULK_CONCURRENCY)
+                .flatMap(worker -> bulkCall.repeat(), BULK_CONCURRENCY)
+                .subscribe();
+
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        try {
+            // let the flood fill the pool and its queue before measuring
+            Thread.sleep(500);
+
+            Flux.interval(Duration.ofMillis(20))
+                    .take(Duration.ofSeconds(2))
+                    .flatMap(tick -> {
+                        long start = System.nanoTime();
+                        return webClient.get().uri("/contention")
+                                .attribute(RequestPriority.KEY, RequestPriority.INTERACTIVE)
+                                .retrieve()
+                                .bodyToMono(String.class)
+                                .doOnSuccess(body -> recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS,
+                                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start))));
+                    }, Integer.MAX_VALUE)
+                    .blockLast(Duration.ofSeconds(30));
+        } finally {
+            flood.dispose();
+            clients.destroy();
+        }
+
+        return recorder.getIntervalHistogram();
+    }
+
+    private static DownstreamWebClients clients(boolean priority) {
+        WebClientProperties.Downstream downstream = new WebClientProperties.Downstream();
+        downstream.setBaseUrl(stub.baseUrl());
+        downstream.setMaxConnections(MAX_CONNECTIONS);
+        downstream.setPendingAcquireMaxCount(-1);
+        downstream.setPendingAcquireTimeout(Duration.ofMinutes(1));
+        downstream.getPriority().setEnabled(priority);
+        downstream.getPriority().setMaxQueuedPerLane(Integer.MAX_VALUE);
+        // past the bulk queue's wait, so that aging does not hand bulk calls the permits
+        downstream.getPriority().setAgingThreshold(Duration.ofSeconds(10));
+
+        WebClientProperties properties = new WebClientProperties();
+        properties.getDownstreams().put("contention", downstream);
+
+        return new DownstreamWebClients(properties,
+                new StaticListableBeanFactory().getBeanProvider(WebClient.Builder.class),
+                new WebClientCodecs(properties));
+    }
+}
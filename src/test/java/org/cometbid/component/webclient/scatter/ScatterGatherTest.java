@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.scatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import org.cometbid.component.test.stub.FaultProfile;
+import org.cometbid.component.test.stub.LatencyDistribution;
+import org.cometbid.component.test.stub.StubServer;
+import org.cometbid.component.test.stub.StubServerExtension;
+import org.cometbid.component.webclient.DownstreamWebClients;
+import org.cometbid.component.webclient.WebClientProperties;
+import org.cometbid.component.webclient.codec.WebClientCodecs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class ScatterGatherTest {
+
+    @RegisterExtension
+    static StubServerExtension stub = new StubServerExtension(() -> StubServer.builder()
+            .json(HttpMethod.GET, "/orders", 200, "{\"id\":1}")
+            .json(HttpMethod.GET, "/search", 200, "[]")
+            .route(HttpMethod.GET, "/slow", 200, MediaType.APPLICATION_JSON_VALUE, "{}".getBytes(),
+                    FaultProfile.builder().latency(LatencyDistribution.fixed(Duration.ofSeconds(2))).build())
+            .build());
+
+    private DownstreamWebClients clients;
+
+    private ScatterGather scatterGather;
+
+    @BeforeEach
+    void createClients() {
+        WebClientProperties.Downstream downstream = new WebClientProperties.Downstream();
+        downstream.setBaseUrl(stub.baseUrl());
+
+        WebClientProperties properties = new WebClientProperties();
+        properties.getDownstreams().put("orders", downstream);
+
+        clients = new DownstreamWebClients(properties,
+                new StaticListableBeanFactory().getBeanProvider(WebClient.Builder.class),
+                new WebClientCodecs(properties));
+        scatterGather = new ScatterGather(clients);
+    }
+
+    @AfterEach
+    void destroyClients() {
+        clients.destroy();
+    }
+
+    @Test
+    void unknownDownstreamFailsOnlyItsOwnCall() {
+        ScatterResult result = scatterGather.execute(List.of(
+                request("orders", "orders", URI.create("/orders")),
+                request("missing", "nowhere", URI.create("/orders"))), Duration.ofSeconds(1))
+                .block(Duration.ofSeconds(2));
+
+        assertThat(result.outcome("orders").getStatus()).isEqualTo(CallOutcome.Status.SUCCEEDED);
+        assertThat(result.outcome("orders").getValue()).isEqualTo("{\"id\":1}");
+        assertThat(result.outcome("missing").getStatus()).isEqualTo(CallOutcome.Status.FAILED);
+        assertThat(result.outcome("missing").getError()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sendsEncodedUrisAsTheyAre() {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("tag", "x y&z");
+
+        ScatterResult result = scatterGather.execute(List.of(
+                ScatterRequest.<String>builder().name("relative").downstream("orders")
+                        .uri(URI.create("/search?q=a%20b%2Bc")).params(params).responseType(String.class).build(),
+                request("absolute", "orders", URI.create(stub.baseUrl() + "/search?q=%C3%A9"))),
+                Duration.ofSeconds(1))
+                .block(Duration.ofSeconds(2));
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(stub.server().receivedUris())
+                .filteredOn(uri -> uri.startsWith("/search"))
+                .containsExactlyInAnyOrder("/search?q=a%20b%2Bc&tag=x%20y%26z", "/search?q=%C3%A9");
+    }
+
+    @Test
+    void reportsCallsRunningAtTheDeadlineAsTimedOut() {
+        ScatterResult result = scatterGather.execute(List.of(
+                request("orders", "orders", URI.create("/orders")),
+                request("slow", "orders", URI.create("/slow"))), Duration.ofSeconds(1))
+                .block(Duration.ofSeconds(2));
+
+        assertThat(result.names(CallOutcome.Status.SUCCEEDED)).containsExactly("orders");
+        assertThat(result.names(CallOutcome.Status.TIMED_OUT)).containsExactly("slow");
+    }
+
+    private static ScatterRequest<String> request(String name, String downstream, URI uri) {
+        return ScatterRequest.<String>builder().name(name).downstream(downstream).uri(uri)
+                .responseType(String.class).build();
+    }
+}
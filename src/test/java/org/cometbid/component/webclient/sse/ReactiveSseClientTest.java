@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2024 samueladebowale.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.cometbid.component.webclient.sse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.cometbid.component.api.generic.exceptions.ResourceNotFoundException;
+import org.cometbid.component.test.stub.StubEventServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+/**
+ *
+ * @author samueladebowale
+ */
+class ReactiveSseClientTest {
+
+    private final ReactiveSseClient sseClient = new ReactiveSseClient();
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private StubEventServer server;
+
+    @AfterEach
+    void closeServer() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void resumesAfterDisconnectsWithoutGapsOrRepeats() {
+        server = StubEventServer.builder()
+                .events(30, Duration.ofMillis(5))
+                .disconnectEvery(7)
+                .retry(Duration.ofMillis(10))
+                .build()
+                .start();
+
+        List<String> data = sseClient.stream(webClient(), spec("/events").build())
+                .map(ServerSentEvent::data)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(data).containsExactlyElementsOf(IntStream.rangeClosed(1, 30)
+                .mapToObj(seq -> "{\"seq\":" + seq + "}")
+                .toList());
+        // the last connection is answered 204, which ends the stream
+        assertThat(server.lastEventIds()).containsExactly("", "7", "14", "21", "28", "30");
+    }
+
+    @Test
+    void replacesAConnectionSilentPastTheIdleTimeout() {
+        server = StubEventServer.builder()
+                .events(10, Duration.ofMillis(5))
+                .stallAfter(5)
+                .build()
+                .start();
+
+        StepVerifier.create(sseClient.stream(webClient(), spec("/events").idleTimeout(Duration.ofMillis(300)).build())
+                .map(ServerSentEvent::id))
+                .expectNext("1", "2", "3", "4", "5", "6", "7", "8", "9", "10")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(server.lastEventIds()).startsWith("", "5");
+    }
+
+    @Test
+    void heartbeatsKeepASilentConnectionOpenWithoutBeingEmitted() {
+        server = StubEventServer.builder()
+                .events(10, Duration.ofMillis(5))
+                .stallAfter(3)
+                .heartbeat(Duration.ofMillis(50))
+                .build()
+                .start();
+
+        StepVerifier.create(sseClient.stream(webClient(), spec("/events").idleTimeout(Duration.ofMillis(300)).build())
+                .map(ServerSentEvent::id))
+                .expectNext("1", "2", "3")
+                .expectNoEvent(Duration.ofSeconds(1))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(server.connectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void failsOnNotFoundWithoutReconnecting() {
+        server = StubEventServer.builder()
+                .build()
+                .start();
+
+        StepVerifier.create(sseClient.stream(webClient(), spec("/missing").build()))
+                .expectError(ResourceNotFoundException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void dropsTheOldestEventsForASlowSubscriber() {
+        server = StubEventServer.builder()
+                .events(50, Duration.ofMillis(1))
+                .build()
+                .start();
+
+        SseSpec<String> spec = spec("/events")
+                .bufferSize(4)
+                .overflowStrategy(SseOverflowStrategy.DROP_OLDEST)
+                .build();
+
+        StepVerifier.create(sseClient.stream(webClient(), spec).map(ServerSentEvent::id), 0)
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(500))
+                .thenRequest(4)
+                .expectNext("47", "48", "49", "50")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private WebClient webClient() {
+        return WebClient.builder()
+                .baseUrl(server.baseUrl())
+                .filter((request, next) -> {
+                    requests.incrementAndGet();
+                    return next.exchange(request);
+                })
+                .build();
+    }
+
+    private static SseSpec.SseSpecBuilder<String> spec(String uri) {
+        return SseSpec.<String>builder()
+                .uri(URI.create(uri))
+                .dataType(String.class)
+                .reconnectDelay(Duration.ofMillis(10));
+    }
+}